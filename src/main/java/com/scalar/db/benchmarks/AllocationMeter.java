@@ -0,0 +1,129 @@
+package com.scalar.db.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Measures the heap allocation and the CPU time of the client per operation, which shows whether
+ * the client itself limits the measured throughput. Call {@link #begin()} and {@link #end()} on the
+ * same thread around an operation. The measurement is disabled if the JVM doesn't support it.
+ */
+@ThreadSafe
+public class AllocationMeter {
+  private static final String STATE_PREFIX = "client-";
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private final boolean allocationSupported;
+  private final boolean cpuTimeSupported;
+  private final ThreadLocal<long[]> snapshot = ThreadLocal.withInitial(() -> new long[2]);
+  private final LongAdder operationCount = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder cpuNanos = new LongAdder();
+
+  public AllocationMeter() {
+    allocationSupported =
+        threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled();
+    cpuTimeSupported =
+        threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+  }
+
+  /** Starts measuring an operation on the current thread. */
+  public void begin() {
+    long[] values = snapshot.get();
+    values[0] = allocatedBytes();
+    values[1] = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+  }
+
+  /** Ends measuring the operation started by {@link #begin()} on the current thread. */
+  public void end() {
+    end(1);
+  }
+
+  /**
+   * Ends measuring the operations started by {@link #begin()} on the current thread, e.g., a batch
+   * of records, so that the measurement is not dominated by the cost of the meter itself.
+   *
+   * @param operations the number of the measured operations
+   */
+  public void end(long operations) {
+    long[] values = snapshot.get();
+    allocatedBytes.add(allocatedBytes() - values[0]);
+    if (cpuTimeSupported) {
+      cpuNanos.add(threadBean.getCurrentThreadCpuTime() - values[1]);
+    }
+    operationCount.add(operations);
+  }
+
+  /**
+   * Adds the client-side allocation and CPU time per operation to the specified builder for {@code
+   * setState()}.
+   *
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  public JsonObjectBuilder addStatesTo(JsonObjectBuilder builder) {
+    long count = Math.max(1, operationCount.sum());
+    if (allocationSupported) {
+      builder.add(
+          STATE_PREFIX + "allocated-bytes-per-op", Long.toString(allocatedBytes.sum() / count));
+    }
+    if (cpuTimeSupported) {
+      builder.add(
+          STATE_PREFIX + "cpu-usec-per-op",
+          String.format("%.1f", cpuNanos.sum() / 1000.0 / count));
+    }
+    return builder;
+  }
+
+  /**
+   * Returns a one-line summary of the measurement for a log message.
+   *
+   * @param unit a name of an operation, e.g., "record"
+   * @return a summary, e.g., "512 bytes and 1.5 us of CPU time per record"
+   */
+  public String describe(String unit) {
+    long count = Math.max(1, operationCount.sum());
+    String bytes = allocationSupported ? Long.toString(allocatedBytes.sum() / count) : "n/a";
+    String cpu = cpuTimeSupported ? String.format("%.1f", cpuNanos.sum() / 1000.0 / count) : "n/a";
+    return bytes + " bytes and " + cpu + " us of CPU time per " + unit;
+  }
+
+  /**
+   * Returns a summary of the client-side measurement in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if nothing was measured
+   */
+  public static String summarize(JsonObject state) {
+    if (state == null) {
+      return "";
+    }
+    StringBuilder summary = new StringBuilder();
+    if (state.containsKey(STATE_PREFIX + "allocated-bytes-per-op")) {
+      summary
+          .append("\nClient heap allocation per operation: ")
+          .append(state.getString(STATE_PREFIX + "allocated-bytes-per-op"))
+          .append(" bytes");
+    }
+    if (state.containsKey(STATE_PREFIX + "cpu-usec-per-op")) {
+      summary
+          .append("\nClient CPU time per operation: ")
+          .append(state.getString(STATE_PREFIX + "cpu-usec-per-op"))
+          .append(" us");
+    }
+    return summary.length() == 0 ? "" : "==== Client Resource Usage ====" + summary;
+  }
+
+  private long allocatedBytes() {
+    if (!allocationSupported) {
+      return 0;
+    }
+    return ((com.sun.management.ThreadMXBean) threadBean)
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}
@@ -0,0 +1,174 @@
+package com.scalar.db.benchmarks;
+
+import com.scalar.kelpie.config.Config;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Paces operations of a processor in open-loop mode.
+ *
+ * <p>When "target_ops_per_sec" is specified, each worker thread issues operations at its share of
+ * the target rate with constant or Poisson inter-arrival times, regardless of how long the previous
+ * operation took. The start time returned by {@link #awaitArrival()} is the intended start time,
+ * not the time the operation actually started, so that a stalled database shows up in the latency
+ * recorded by {@link LatencyRecorder} instead of silently lowering the offered load (coordinated
+ * omission). Without "target_ops_per_sec", the processor runs closed-loop as before.
+ *
+ * <p>Kelpie measures the whole {@code executeEach()}, including the wait in {@link
+ * #awaitArrival()}, so Kelpie's own latency statistics are not meaningful in open-loop mode.
+ */
+@ThreadSafe
+public class ArrivalScheduler {
+  public static final String TARGET_OPS_PER_SEC = "target_ops_per_sec";
+  public static final String ARRIVAL_DISTRIBUTION = "arrival_distribution";
+  public static final String PACED_LATENCY_NOTE =
+      "(Kelpie's latency statistics above include the waits for the next operations, so they are"
+          + " not meaningful when operations are paced. See the latencies by operation type.)";
+  private static final String DEFAULT_ARRIVAL_DISTRIBUTION = "poisson";
+  // an operation that starts later than this after its intended start time is regarded as behind
+  private static final long BEHIND_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final String TARGET_OPS_PER_SEC_STATE = "open-loop-target-ops-per-sec";
+  private static final String BEHIND_COUNT_STATE = "open-loop-behind-count";
+
+  private final long targetOpsPerSec;
+  private final boolean openLoop;
+  private final boolean poisson;
+  private final double meanIntervalNanos;
+  private final long rampNanos;
+  private final AtomicLong firstArrivalNanos = new AtomicLong();
+  private final ThreadLocal<long[]> nextArrivalNanos = new ThreadLocal<>();
+  private final LongAdder behindCount = new LongAdder();
+
+  private ArrivalScheduler(Config config, String configName) {
+    targetOpsPerSec = config.getUserLong(configName, TARGET_OPS_PER_SEC, 0L);
+    openLoop = targetOpsPerSec > 0;
+    String distribution =
+        config.getUserString(configName, ARRIVAL_DISTRIBUTION, DEFAULT_ARRIVAL_DISTRIBUTION);
+    switch (distribution.toLowerCase()) {
+      case "poisson":
+        poisson = true;
+        break;
+      case "constant":
+        poisson = false;
+        break;
+      default:
+        throw new IllegalArgumentException(
+            ARRIVAL_DISTRIBUTION + " must be poisson or constant: " + distribution);
+    }
+    double opsPerSecPerThread =
+        openLoop ? (double) targetOpsPerSec / Math.max(1, config.getConcurrency()) : 0;
+    meanIntervalNanos = openLoop ? TimeUnit.SECONDS.toNanos(1) / opsPerSecPerThread : 0;
+    rampNanos = TimeUnit.SECONDS.toNanos(config.getRampForSec());
+  }
+
+  /**
+   * Creates an {@code ArrivalScheduler} with the parameters in the specified table.
+   *
+   * @param config a {@code Config} object
+   * @param configName a table name of the workload-specific parameters
+   * @return an {@code ArrivalScheduler} object
+   */
+  public static ArrivalScheduler create(Config config, String configName) {
+    return new ArrivalScheduler(config, configName);
+  }
+
+  public boolean isOpenLoop() {
+    return openLoop;
+  }
+
+  /**
+   * Waits until the intended start time of the next operation of the current thread.
+   *
+   * @return the intended start time in nanoseconds, or the current time in closed-loop mode
+   */
+  public long awaitArrival() {
+    if (!openLoop) {
+      return System.nanoTime();
+    }
+    long now = System.nanoTime();
+    long[] next = nextArrivalNanos.get();
+    if (next == null) {
+      firstArrivalNanos.compareAndSet(0, now);
+      // spread the first arrivals of the threads over one interval
+      long offset = (long) (ThreadLocalRandom.current().nextDouble() * meanIntervalNanos);
+      next = new long[] {now + offset};
+      nextArrivalNanos.set(next);
+    }
+    long intendedStart = next[0];
+    // the schedule never slips: a late operation doesn't delay the following arrivals
+    next[0] += nextIntervalNanos();
+
+    if (intendedStart > now) {
+      LockSupport.parkNanos(intendedStart - now);
+      while (System.nanoTime() < intendedStart) {
+        LockSupport.parkNanos(intendedStart - System.nanoTime());
+      }
+    } else if (now - intendedStart > BEHIND_THRESHOLD_NANOS && isMeasuring(intendedStart)) {
+      behindCount.increment();
+    }
+    return intendedStart;
+  }
+
+  /**
+   * Adds the open-loop results to the specified builder for {@code setState()}.
+   *
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  public JsonObjectBuilder addStatesTo(JsonObjectBuilder builder) {
+    if (!openLoop) {
+      return builder;
+    }
+    return builder
+        .add(TARGET_OPS_PER_SEC_STATE, Long.toString(targetOpsPerSec))
+        .add(BEHIND_COUNT_STATE, behindCount.toString());
+  }
+
+  /**
+   * Returns whether the processor of the specified state ran in open-loop mode.
+   *
+   * @param state a processor state
+   * @return true if the processor ran in open-loop mode
+   */
+  public static boolean ranOpenLoop(JsonObject state) {
+    return state != null && state.containsKey(BEHIND_COUNT_STATE);
+  }
+
+  /**
+   * Returns a summary of the open-loop results in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if the processor ran closed-loop
+   */
+  public static String summarize(JsonObject state) {
+    if (!ranOpenLoop(state)) {
+      return "";
+    }
+    return "==== Open-Loop Summary ====\n"
+        + "Target throughput: "
+        + state.getString(TARGET_OPS_PER_SEC_STATE)
+        + " ops\n"
+        + "Operations behind schedule: "
+        + state.getString(BEHIND_COUNT_STATE)
+        + "\n"
+        + "(Latencies by operation type are measured from the intended start times)";
+  }
+
+  private long nextIntervalNanos() {
+    if (!poisson) {
+      return (long) meanIntervalNanos;
+    }
+    // exponentially distributed inter-arrival times make a Poisson arrival process
+    return (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+  }
+
+  private boolean isMeasuring(long intendedStartNanos) {
+    return intendedStartNanos - firstArrivalNanos.get() >= rampNanos;
+  }
+}
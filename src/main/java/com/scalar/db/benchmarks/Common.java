@@ -1,7 +1,11 @@
 package com.scalar.db.benchmarks;
 
+import com.scalar.db.api.DistributedStorage;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.config.DatabaseConfig;
+import com.scalar.db.service.StorageFactory;
 import com.scalar.db.service.TransactionFactory;
 import com.scalar.kelpie.config.Config;
 import io.github.resilience4j.retry.Retry;
@@ -13,6 +17,7 @@ import java.util.Properties;
 
 public class Common {
   private static final String CONFIG_NAME = "database_config";
+  private static final String INSTRUMENTATION = "instrumentation";
   private static final int WAIT_MILLS = 1000;
   private static final int MAX_RETRIES = 10;
 
@@ -59,7 +64,38 @@ public class Common {
   public static DistributedTransactionManager getTransactionManager(Config config) {
     DatabaseConfig dbConfig = getDatabaseConfig(config);
     TransactionFactory factory = TransactionFactory.create(dbConfig.getProperties());
-    return factory.getTransactionManager();
+    DistributedTransactionManager manager = factory.getTransactionManager();
+    if (config.getUserBoolean(CONFIG_NAME, INSTRUMENTATION, false)) {
+      int conflictTopN =
+          (int)
+              config.getUserLong(
+                  CONFIG_NAME, ConflictProfiler.TOP_N, ConflictProfiler.DEFAULT_TOP_N);
+      return InstrumentedTransactionManager.wrap(manager, config, conflictTopN);
+    }
+    return manager;
+  }
+
+  public static DistributedStorage getStorage(Config config) {
+    DatabaseConfig dbConfig = getDatabaseConfig(config);
+    StorageFactory factory = StorageFactory.create(dbConfig.getProperties());
+    return factory.getStorage();
+  }
+
+  /**
+   * Returns a floating-point user value. The value has to be written as a string, e.g. {@code
+   * zipfian_constant = "0.99"}, in the configuration file.
+   */
+  public static double getUserDouble(
+      Config config, String table, String name, double defaultValue) {
+    if (!config.hasUserValue(table, name)) {
+      return defaultValue;
+    }
+    String value = config.getUserString(table, name);
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " must be a number: " + value, e);
+    }
   }
 
   public static Retry getRetryWithFixedWaitDuration(String name) {
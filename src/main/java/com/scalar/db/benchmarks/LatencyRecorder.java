@@ -0,0 +1,232 @@
+package com.scalar.db.benchmarks;
+
+import com.scalar.kelpie.config.Config;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+/**
+ * Records latencies per operation type, e.g., per TPC-C transaction.
+ *
+ * <p>Each thread records into its own HdrHistogram recorders, so recording is lock-free and doesn't
+ * contend with the other threads. The histograms of all the threads are merged when the results
+ * are added to the processor state. Operations started during the ramp-up time are not recorded.
+ * Failed operations are recorded separately with the type suffixed by "-Failed", so that the counts
+ * of all the types add up to the operations of the processor.
+ */
+@ThreadSafe
+public class LatencyRecorder {
+  public static final String STATE_NAME = "latency-by-type";
+  public static final String FAILED_SUFFIX = "-Failed";
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final String stateName;
+  private final long rampNanos;
+  private final long runForSec;
+  private final AtomicLong firstStartNanos = new AtomicLong();
+  private final Queue<Map<String, TypeRecorder>> allRecorders = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<Map<String, TypeRecorder>> recorders =
+      ThreadLocal.withInitial(
+          () -> {
+            // the map is read by another thread when the results are merged
+            Map<String, TypeRecorder> map = new ConcurrentHashMap<>();
+            allRecorders.add(map);
+            return map;
+          });
+
+  public LatencyRecorder(Config config) {
+    this(config, STATE_NAME);
+  }
+
+  /**
+   * Creates a {@code LatencyRecorder} whose results are added to the processor state with the
+   * specified name.
+   *
+   * @param config a {@code Config} object
+   * @param stateName a name of the results in the processor state
+   */
+  public LatencyRecorder(Config config, String stateName) {
+    this.stateName = stateName;
+    this.rampNanos = TimeUnit.SECONDS.toNanos(config.getRampForSec());
+    this.runForSec = Math.max(1, config.getRunForSec());
+  }
+
+  /**
+   * Records the latency of an operation from the specified start time to now.
+   *
+   * @param type an operation type
+   * @param startNanos the start time of the operation obtained by {@link System#nanoTime()}
+   * @param retryCount the number of retries of the operation
+   */
+  public void record(String type, long startNanos, int retryCount) {
+    record(type, startNanos, retryCount, 1);
+  }
+
+  /**
+   * Records the latency of an operation that failed other than by a conflict, from the specified
+   * start time to now, as the failed type of the operation type.
+   *
+   * @param type an operation type
+   * @param startNanos the start time of the operation obtained by {@link System#nanoTime()}
+   * @param retryCount the number of retries of the operation before the failure
+   */
+  public void recordFailure(String type, long startNanos, int retryCount) {
+    record(type + FAILED_SUFFIX, startNanos, retryCount);
+  }
+
+  /**
+   * Records the latency of an operation from the specified start time to now divided by the number
+   * of items that the operation processed, e.g., the latency per row of a scan. Nothing is recorded
+   * if no item is processed.
+   *
+   * @param type an operation type
+   * @param startNanos the start time of the operation obtained by {@link System#nanoTime()}
+   * @param retryCount the number of retries of the operation
+   * @param itemCount the number of items processed by the operation
+   */
+  public void record(String type, long startNanos, int retryCount, int itemCount) {
+    long now = System.nanoTime();
+    if (itemCount < 1) {
+      return;
+    }
+    firstStartNanos.compareAndSet(0, startNanos);
+    if (startNanos - firstStartNanos.get() < rampNanos) {
+      return;
+    }
+    Map<String, TypeRecorder> map = recorders.get();
+    TypeRecorder recorder = map.get(type);
+    if (recorder == null) {
+      recorder = new TypeRecorder();
+      map.put(type, recorder);
+    }
+    recorder.latency.recordValue(
+        Math.max(0, TimeUnit.NANOSECONDS.toMicros((now - startNanos) / itemCount)));
+    if (retryCount > 0) {
+      recorder.retryCount.addAndGet(retryCount);
+    }
+  }
+
+  /**
+   * Merges the histograms of all the threads and adds the results per operation type to the
+   * specified builder for {@code setState()}.
+   *
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  public JsonObjectBuilder addStatesTo(JsonObjectBuilder builder) {
+    SortedMap<String, Histogram> histograms = new TreeMap<>();
+    Map<String, Long> retryCounts = new HashMap<>();
+    for (Map<String, TypeRecorder> map : allRecorders) {
+      map.forEach(
+          (type, recorder) -> {
+            histograms
+                .computeIfAbsent(type, t -> new Histogram(SIGNIFICANT_DIGITS))
+                .add(recorder.latency.getIntervalHistogram());
+            retryCounts.merge(type, recorder.retryCount.get(), Long::sum);
+          });
+    }
+
+    JsonObjectBuilder types = Json.createObjectBuilder();
+    histograms.forEach(
+        (type, histogram) ->
+            types.add(
+                type,
+                Json.createObjectBuilder()
+                    .add("count", Long.toString(histogram.getTotalCount()))
+                    .add("throughput", format((double) histogram.getTotalCount() / runForSec))
+                    .add("retry-count", Long.toString(retryCounts.get(type)))
+                    .add("mean", toMillis(histogram.getMean()))
+                    .add("p50", toMillis(histogram.getValueAtPercentile(50.0)))
+                    .add("p90", toMillis(histogram.getValueAtPercentile(90.0)))
+                    .add("p99", toMillis(histogram.getValueAtPercentile(99.0)))
+                    .add("p99.9", toMillis(histogram.getValueAtPercentile(99.9)))
+                    .add("max", toMillis(histogram.getMaxValue()))));
+    return builder.add(stateName, types);
+  }
+
+  /**
+   * Returns a summary of the latencies per operation type in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if the state doesn't have the latencies
+   */
+  public static String summarize(JsonObject state) {
+    return summarize(state, STATE_NAME, "Latency by Operation Type");
+  }
+
+  /**
+   * Returns a summary of the latencies with the specified name in the specified processor state.
+   *
+   * @param state a processor state
+   * @param stateName a name of the results in the processor state
+   * @param title a title of the summary
+   * @return a summary, or an empty string if the state doesn't have the latencies
+   */
+  public static String summarize(JsonObject state, String stateName, String title) {
+    if (state == null || !state.containsKey(stateName)) {
+      return "";
+    }
+    JsonObject types = state.getJsonObject(stateName);
+    int typeWidth = "Type".length();
+    for (String type : types.keySet()) {
+      typeWidth = Math.max(typeWidth, type.length());
+    }
+    String rowFormat = "%n%-" + typeWidth + "s %10s %12s %10s %10s %10s %10s %10s %10s %10s";
+    StringBuilder summary = new StringBuilder("==== " + title + " ====");
+    summary.append(
+        String.format(
+            rowFormat,
+            "Type",
+            "Count",
+            "Ops/sec",
+            "Retries",
+            "Mean(ms)",
+            "p50(ms)",
+            "p90(ms)",
+            "p99(ms)",
+            "p99.9(ms)",
+            "Max(ms)"));
+    for (String type : types.keySet()) {
+      JsonObject stats = types.getJsonObject(type);
+      summary.append(
+          String.format(
+              rowFormat,
+              type,
+              stats.getString("count"),
+              stats.getString("throughput"),
+              stats.getString("retry-count"),
+              stats.getString("mean"),
+              stats.getString("p50"),
+              stats.getString("p90"),
+              stats.getString("p99"),
+              stats.getString("p99.9"),
+              stats.getString("max")));
+    }
+    return summary.toString();
+  }
+
+  private static String toMillis(double micros) {
+    return format(micros / 1000.0);
+  }
+
+  private static String format(double value) {
+    return String.format("%.3f", value);
+  }
+
+  private static class TypeRecorder {
+    private final SingleWriterRecorder latency = new SingleWriterRecorder(SIGNIFICANT_DIGITS);
+    private final AtomicLong retryCount = new AtomicLong();
+  }
+}
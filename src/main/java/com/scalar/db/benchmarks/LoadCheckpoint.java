@@ -0,0 +1,236 @@
+package com.scalar.db.benchmarks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.scalar.kelpie.config.Config;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Records which units of a load, e.g., districts or key ranges, have been loaded, so that a failed
+ * load can be resumed without loading the completed units again.
+ *
+ * <p>The completed units are kept in a bitmap, which is written to "checkpoint_file" every 10
+ * seconds and when the checkpoint is closed. The file is written to a temporary file, synced to the
+ * disk, and then atomically renamed, so that a crash never leaves a broken checkpoint. With "resume
+ * = true", the bitmap is restored from the file if it was written by a load with the same
+ * parameters, which are identified by a fingerprint.
+ */
+@ThreadSafe
+public class LoadCheckpoint implements AutoCloseable {
+  public static final String RESUME = "resume";
+  public static final String CHECKPOINT_FILE = "checkpoint_file";
+  private static final int MAGIC = 0x4c434b50;
+  private static final long FLUSH_INTERVAL_SEC = 10;
+  private final Path file;
+  private final int unitCount;
+  private final String fingerprint;
+  private final boolean resuming;
+  private final ScheduledExecutorService executor;
+  // serializes the writes of the file so that an older bitmap never overwrites a newer one
+  private final Object writeLock = new Object();
+
+  @GuardedBy("this")
+  private final BitSet completed;
+
+  @GuardedBy("this")
+  private boolean dirty;
+
+  private LoadCheckpoint(
+      Path file, int unitCount, String fingerprint, boolean resuming, BitSet completed) {
+    this.file = file;
+    this.unitCount = unitCount;
+    this.fingerprint = fingerprint;
+    this.resuming = resuming;
+    this.completed = completed;
+    // the first flush replaces the file of a previous load even if no unit is completed
+    this.dirty = true;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("load-checkpoint").setDaemon(true).build());
+    executor.scheduleWithFixedDelay(
+        this::flushQuietly, FLUSH_INTERVAL_SEC, FLUSH_INTERVAL_SEC, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Creates a {@code LoadCheckpoint} with "resume" and "checkpoint_file" in the specified table. If
+   * "resume" is true and the checkpoint file exists, the completed units are restored from it.
+   *
+   * @param config a {@code Config} object
+   * @param configName a table name of the workload-specific parameters
+   * @param defaultFile a checkpoint file used if "checkpoint_file" is not specified
+   * @param unitCount the number of units in the load
+   * @param fingerprint a string that identifies the parameters of the load
+   * @return a {@code LoadCheckpoint} object
+   * @throws IllegalArgumentException if the checkpoint file was written by a different load
+   * @throws UncheckedIOException if the checkpoint file can't be read
+   */
+  public static LoadCheckpoint create(
+      Config config, String configName, String defaultFile, int unitCount, String fingerprint) {
+    Path file = Paths.get(config.getUserString(configName, CHECKPOINT_FILE, defaultFile));
+    boolean resume = config.getUserBoolean(configName, RESUME, false);
+    if (!resume || !Files.exists(file)) {
+      return new LoadCheckpoint(file, unitCount, fingerprint, false, new BitSet(unitCount));
+    }
+    BitSet completed;
+    try (InputStream in = Files.newInputStream(file)) {
+      completed = read(new DataInputStream(in), unitCount, fingerprint, file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("failed to read the checkpoint file: " + file, e);
+    }
+    return new LoadCheckpoint(file, unitCount, fingerprint, true, completed);
+  }
+
+  /**
+   * Returns whether or not the load resumes a previous load. When resuming, units that are not
+   * completed may have been loaded partially, so their records may already exist.
+   *
+   * @return true if "resume" is true and the completed units were restored from the checkpoint file
+   */
+  public boolean isResuming() {
+    return resuming;
+  }
+
+  public int getUnitCount() {
+    return unitCount;
+  }
+
+  public synchronized int getCompletedCount() {
+    return completed.cardinality();
+  }
+
+  public synchronized boolean isCompleted(int unit) {
+    return completed.get(unit);
+  }
+
+  /**
+   * Marks the specified unit as completed. This should be called after all the records of the unit
+   * have been committed.
+   *
+   * @param unit a unit in {@code [0, unitCount)}
+   */
+  public synchronized void complete(int unit) {
+    if (unit < 0 || unit >= unitCount) {
+      throw new IndexOutOfBoundsException("unit " + unit + " is out of [0, " + unitCount + ")");
+    }
+    completed.set(unit);
+    dirty = true;
+  }
+
+  /**
+   * Writes the completed units to the checkpoint file if any unit has been completed since the last
+   * write.
+   *
+   * @throws UncheckedIOException if the checkpoint file can't be written
+   */
+  public void flush() {
+    synchronized (writeLock) {
+      byte[] bytes;
+      synchronized (this) {
+        if (!dirty) {
+          return;
+        }
+        bytes = serialize();
+        dirty = false;
+      }
+      try {
+        write(bytes);
+      } catch (IOException e) {
+        synchronized (this) {
+          dirty = true;
+        }
+        throw new UncheckedIOException("failed to write the checkpoint file: " + file, e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    Uninterruptibles.awaitTerminationUninterruptibly(executor);
+    flush();
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (UncheckedIOException e) {
+      // retried by the next flush
+    }
+  }
+
+  @GuardedBy("this")
+  private byte[] serialize() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeUTF(fingerprint);
+      out.writeInt(unitCount);
+      long[] words = completed.toLongArray();
+      out.writeInt(words.length);
+      for (long word : words) {
+        out.writeLong(word);
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void write(byte[] bytes) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static BitSet read(DataInputStream in, int unitCount, String fingerprint, Path file)
+      throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IllegalArgumentException(file + " is not a checkpoint file");
+    }
+    String storedFingerprint = in.readUTF();
+    int storedUnitCount = in.readInt();
+    if (!storedFingerprint.equals(fingerprint) || storedUnitCount != unitCount) {
+      throw new IllegalArgumentException(
+          file
+              + " was written by a load with different parameters ("
+              + storedFingerprint
+              + "). Remove it or set "
+              + RESUME
+              + " to false to load from scratch");
+    }
+    long[] words = new long[in.readInt()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readLong();
+    }
+    return BitSet.valueOf(words);
+  }
+}
@@ -0,0 +1,122 @@
+package com.scalar.db.benchmarks;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.kelpie.config.Config;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Issues independent reads of a transaction concurrently.
+ *
+ * <p>The reads are split into at most "fan-out" groups. The calling thread reads the first group
+ * and the threads of a bounded pool read the others, so that a transaction waits for about one
+ * round trip per group instead of one per read. Every read goes through the same transaction, so
+ * the reads are in its read set as if they were issued one by one. The transaction must allow
+ * concurrent reads, which Consensus Commit does, so the parallel reads are rejected with the other
+ * transaction managers.
+ *
+ * <p>With a fan-out of 1, the reads are issued sequentially in the calling thread.
+ */
+@ThreadSafe
+public class ParallelReader {
+  public static final String PARALLEL_READS = "parallel_reads";
+  public static final String READ_FANOUT = "read_fanout";
+  public static final int DEFAULT_READ_FANOUT = 4;
+  private static final String CONSENSUS_COMMIT = "consensus-commit";
+  private final int fanout;
+  private final ParallelTasks tasks;
+
+  /**
+   * Creates a {@code ParallelReader}.
+   *
+   * @param fanout the maximum number of the groups of the reads of a transaction
+   * @param concurrency the number of the threads that issue transactions with the reader, which
+   *     bounds the pool to "concurrency * (fanout - 1)" threads
+   */
+  public ParallelReader(int fanout, int concurrency) {
+    if (fanout < 1) {
+      throw new IllegalArgumentException(READ_FANOUT + " must be positive: " + fanout);
+    }
+    this.fanout = fanout;
+    this.tasks = new ParallelTasks("parallel-reader-%d", Math.max(1, concurrency) * (fanout - 1));
+  }
+
+  /**
+   * Checks that the transaction manager in the specified config allows concurrent reads of a
+   * transaction. Only Consensus Commit is known to allow them.
+   *
+   * @param config a {@code Config} object
+   * @throws IllegalArgumentException if the transaction manager is not Consensus Commit
+   */
+  public static void checkTransactionManager(Config config) {
+    String transactionManager = Common.getDatabaseConfig(config).getTransactionManager();
+    if (!CONSENSUS_COMMIT.equals(transactionManager)) {
+      throw new IllegalArgumentException(
+          PARALLEL_READS
+              + " requires the "
+              + CONSENSUS_COMMIT
+              + " transaction manager, but "
+              + transactionManager
+              + " is specified");
+    }
+  }
+
+  public int getFanout() {
+    return fanout;
+  }
+
+  /**
+   * Issues the specified gets concurrently.
+   *
+   * @param transaction a transaction
+   * @param gets gets to issue
+   * @return the results in the order of the gets
+   * @throws TransactionException if any of the gets failed
+   */
+  public List<Optional<Result>> get(DistributedTransaction transaction, List<Get> gets)
+      throws TransactionException {
+    return read(gets, transaction::get);
+  }
+
+  /**
+   * Issues the specified scans concurrently.
+   *
+   * @param transaction a transaction
+   * @param scans scans to issue
+   * @return the results in the order of the scans
+   * @throws TransactionException if any of the scans failed
+   */
+  public List<List<Result>> scan(DistributedTransaction transaction, List<Scan> scans)
+      throws TransactionException {
+    return read(scans, transaction::scan);
+  }
+
+  private <O, R> List<R> read(List<O> operations, Read<O, R> read) throws TransactionException {
+    int size = operations.size();
+    int groups = Math.min(fanout, size);
+    @SuppressWarnings("unchecked")
+    R[] results = (R[]) new Object[size];
+    // group i reads the operations i, i + groups, i + 2 * groups, ...
+    tasks.run(groups, group -> readGroup(operations, read, results, group, groups));
+    return Arrays.asList(results);
+  }
+
+  private static <O, R> void readGroup(
+      List<O> operations, Read<O, R> read, R[] results, int first, int step)
+      throws TransactionException {
+    for (int i = first; i < operations.size(); i += step) {
+      results[i] = read.apply(operations.get(i));
+    }
+  }
+
+  @FunctionalInterface
+  private interface Read<O, R> {
+    R apply(O operation) throws TransactionException;
+  }
+}
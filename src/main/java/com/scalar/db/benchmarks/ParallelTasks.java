@@ -0,0 +1,124 @@
+package com.scalar.db.benchmarks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.scalar.db.exception.transaction.TransactionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Runs the parts of a task in parallel in the calling thread and the threads of a bounded pool,
+ * and waits for all of them.
+ *
+ * <p>The pool should have a thread for each part that can run at the same time, e.g., "concurrency
+ * * (parallelism - 1)" threads for the worker threads of a benchmark. If more parts are submitted,
+ * they wait for a free thread instead of starting more threads. A part must not run other parts of
+ * the same {@code ParallelTasks}, since it could wait for the parts queued behind itself.
+ */
+@ThreadSafe
+public class ParallelTasks {
+  private static final long KEEP_ALIVE_SEC = 60;
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Creates a {@code ParallelTasks}.
+   *
+   * @param nameFormat a format of the thread names, e.g., "parallel-reader-%d"
+   * @param threadCount the maximum number of the threads of the pool
+   */
+  public ParallelTasks(String nameFormat, int threadCount) {
+    int poolSize = Math.max(1, threadCount);
+    this.executor =
+        new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            KEEP_ALIVE_SEC,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+    // idle threads are released after a while, so the pool doesn't need to be shut down
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Runs the parts {@code 0} to {@code parallelism - 1} of the specified task in parallel. The part
+   * 0 is run in the calling thread. All the parts are waited for even after one of them failed, and
+   * then the first failure is thrown.
+   *
+   * @param parallelism the number of the parts
+   * @param task a task
+   * @throws TransactionException if any of the parts failed
+   */
+  public void run(int parallelism, Task task) throws TransactionException {
+    if (parallelism <= 1) {
+      task.run(0);
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(parallelism - 1);
+    for (int i = 1; i < parallelism; i++) {
+      int part = i;
+      futures.add(
+          executor.submit(
+              () -> {
+                task.run(part);
+                return null;
+              }));
+    }
+    Throwable failure = null;
+    try {
+      task.run(0);
+    } catch (TransactionException | RuntimeException e) {
+      failure = e;
+    }
+    // wait for all the parts even after a failure, so that nothing is in flight on abort
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure instanceof TransactionException) {
+      throw (TransactionException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+  }
+
+  /** A task whose parts are run in parallel. */
+  @FunctionalInterface
+  public interface Task {
+    /**
+     * Runs a part of the task.
+     *
+     * @param part the index of the part in {@code [0, parallelism)}
+     * @throws TransactionException if the part failed
+     */
+    void run(int part) throws TransactionException;
+  }
+}
@@ -0,0 +1,122 @@
+package com.scalar.db.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A Space-Saving sketch that finds the most frequent items of a stream in bounded memory.
+ *
+ * <p>The sketch monitors up to "capacity" items. When a new item arrives while the sketch is full,
+ * it replaces the item with the minimum count and inherits that count, which is kept as the maximum
+ * overestimation (error) of the new item. Every item whose true count is more than {@code N /
+ * capacity} of the {@code N} added items is guaranteed to be monitored. Replacing scans the
+ * monitored items, so the sketch suits rare events such as transaction conflicts.
+ *
+ * @param <T> the type of the items, which must implement {@code equals()} and {@code hashCode()}
+ */
+@NotThreadSafe
+public class SpaceSavingSketch<T> {
+  private final int capacity;
+  private final Map<T, Counter> counters;
+
+  /**
+   * Creates a {@code SpaceSavingSketch}.
+   *
+   * @param capacity the maximum number of the monitored items
+   */
+  public SpaceSavingSketch(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.counters = new HashMap<>(capacity * 2);
+  }
+
+  /**
+   * Counts an occurrence of the specified item.
+   *
+   * @param item an item
+   */
+  public void add(T item) {
+    Counter counter = counters.get(item);
+    if (counter != null) {
+      counter.count++;
+      return;
+    }
+    if (counters.size() < capacity) {
+      counters.put(item, new Counter());
+      return;
+    }
+    T minItem = null;
+    Counter minCounter = null;
+    for (Map.Entry<T, Counter> entry : counters.entrySet()) {
+      if (minCounter == null || entry.getValue().count < minCounter.count) {
+        minItem = entry.getKey();
+        minCounter = entry.getValue();
+      }
+    }
+    counters.remove(minItem);
+    minCounter.error = minCounter.count;
+    minCounter.count++;
+    counters.put(item, minCounter);
+  }
+
+  /**
+   * Returns the maximum count of an item that is not monitored, which is the minimum count of the
+   * monitored items if the sketch is full, or 0 otherwise. Sketches are merged by counting each
+   * item with this count in the sketches that don't monitor it, and adding it to the error.
+   *
+   * @return the maximum count of an item that is not monitored
+   */
+  public long getMinCount() {
+    if (counters.size() < capacity) {
+      return 0;
+    }
+    long minCount = Long.MAX_VALUE;
+    for (Counter counter : counters.values()) {
+      minCount = Math.min(minCount, counter.count);
+    }
+    return minCount;
+  }
+
+  /** Returns the monitored items with their estimated counts and errors, in no particular order. */
+  public List<Entry<T>> getEntries() {
+    List<Entry<T>> entries = new ArrayList<>(counters.size());
+    counters.forEach(
+        (item, counter) -> entries.add(new Entry<>(item, counter.count, counter.error)));
+    return entries;
+  }
+
+  /** A monitored item with its estimated count and the maximum overestimation of the count. */
+  public static class Entry<T> {
+    private final T item;
+    private final long count;
+    private final long error;
+
+    private Entry(T item, long count, long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+
+    public T getItem() {
+      return item;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getError() {
+      return error;
+    }
+  }
+
+  private static class Counter {
+    private long count = 1;
+    private long error;
+  }
+}
@@ -0,0 +1,135 @@
+package com.scalar.db.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A hashed timer wheel that releases items at their deadlines.
+ *
+ * <p>An item is put in the slot of its deadline tick, so scheduling and releasing an item cost
+ * O(1) regardless of how many items are waiting, which suits thousands of timers with long delays,
+ * e.g., the keying and think times of emulated terminals. An item whose deadline is more than a
+ * revolution away stays in its slot until the wheel comes around in the right revolution. The
+ * deadlines are rounded up to the tick.
+ *
+ * <p>The wheel is advanced by the threads that take items, so it has no thread of its own.
+ *
+ * @param <T> the type of the items
+ */
+@ThreadSafe
+public class TimerWheel<T> {
+  private final long tickNanos;
+  private final ArrayDeque<Timer<T>>[] slots;
+  private final int mask;
+  private final long originNanos;
+  private final ArrayDeque<T> expired = new ArrayDeque<>();
+  // the last tick whose slot has been expired
+  private long currentTick;
+  private int size;
+
+  /**
+   * Creates a {@code TimerWheel}.
+   *
+   * @param tickMillis the resolution of the deadlines in milliseconds
+   * @param slotCount the number of the slots, which is rounded up to a power of two
+   */
+  @SuppressWarnings("unchecked")
+  public TimerWheel(long tickMillis, int slotCount) {
+    if (tickMillis < 1 || slotCount < 1) {
+      throw new IllegalArgumentException("The tick and the slot count must be positive");
+    }
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    int capacity = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+    this.slots = new ArrayDeque[capacity];
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new ArrayDeque<>();
+    }
+    this.mask = capacity - 1;
+    this.originNanos = System.nanoTime();
+  }
+
+  /**
+   * Schedules the specified item to be released at the specified deadline. An item whose deadline
+   * has passed is released immediately.
+   *
+   * @param item an item
+   * @param deadlineNanos a deadline obtained from {@link System#nanoTime()}
+   */
+  public synchronized void schedule(T item, long deadlineNanos) {
+    // round up so that an item is never released before its deadline
+    long tick = (deadlineNanos - originNanos + tickNanos - 1) / tickNanos;
+    if (tick <= currentTick) {
+      expired.add(item);
+      notifyAll();
+    } else {
+      slots[(int) (tick & mask)].add(new Timer<>(item, tick));
+    }
+    size++;
+  }
+
+  /**
+   * Takes an item whose deadline has passed, waiting up to the specified time for one.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return an item, or null if no item was released within the timeout
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @Nullable
+  public synchronized T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+    while (true) {
+      long now = System.nanoTime();
+      advance(now);
+      T item = expired.poll();
+      if (item != null) {
+        size--;
+        return item;
+      }
+      long remainingNanos = deadlineNanos - now;
+      if (remainingNanos <= 0) {
+        return null;
+      }
+      // wait until the next tick, or until an item is scheduled without a delay
+      long nextTickNanos = originNanos + (currentTick + 1) * tickNanos - now;
+      TimeUnit.NANOSECONDS.timedWait(this, Math.max(1, Math.min(remainingNanos, nextTickNanos)));
+    }
+  }
+
+  /** Returns the number of the scheduled items that haven't been taken. */
+  public synchronized int size() {
+    return size;
+  }
+
+  private void advance(long now) {
+    long nowTick = (now - originNanos) / tickNanos;
+    // a revolution visits every slot, so skip the ticks of empty revolutions
+    if (nowTick - currentTick > slots.length) {
+      currentTick = nowTick - slots.length;
+    }
+    while (currentTick < nowTick) {
+      currentTick++;
+      Iterator<Timer<T>> iterator = slots[(int) (currentTick & mask)].iterator();
+      while (iterator.hasNext()) {
+        Timer<T> timer = iterator.next();
+        if (timer.tick <= currentTick) {
+          iterator.remove();
+          expired.add(timer.item);
+        }
+      }
+    }
+  }
+
+  private static class Timer<T> {
+    private final T item;
+    private final long tick;
+
+    private Timer(T item, long tick) {
+      this.item = item;
+      this.tick = tick;
+    }
+  }
+}
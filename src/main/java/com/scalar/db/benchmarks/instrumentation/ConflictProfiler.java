@@ -0,0 +1,283 @@
+package com.scalar.db.benchmarks.instrumentation;
+
+import com.scalar.db.api.Operation;
+import com.scalar.db.benchmarks.SpaceSavingSketch;
+import com.scalar.db.io.Column;
+import com.scalar.db.io.Key;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Attributes transaction conflicts to the transaction type and to the table and partition key of
+ * the operation that conflicted, to find the hot spots that cause aborts.
+ *
+ * <p>A conflict of a read or write is attributed to that operation, and a conflict at commit is
+ * attributed to the last write of the transaction, or to its last operation if it has no write.
+ * The transaction type is the one set by {@link #setTransactionType(String)} on the thread that
+ * started the transaction.
+ *
+ * <p>The conflicts are counted in bounded Space-Saving sketches, so a long run over many keys uses
+ * constant memory. Each thread counts into its own sketches, which are merged when the results are
+ * added to the processor state: an item is counted with the minimum count of each full sketch that
+ * doesn't monitor it, which is also added to its error. So a reported count is never below the true
+ * count and overestimates it by at most the reported error.
+ */
+@ThreadSafe
+public class ConflictProfiler {
+  public static final String STATE_NAME = "conflict-hotspots";
+  public static final String TOP_N = "conflict_top_n";
+  public static final int DEFAULT_TOP_N = 10;
+  // each thread monitors more keys than reported so that the merged counts are accurate
+  private static final int CAPACITY_FACTOR = 10;
+  private static final String UNKNOWN = "-";
+  private static final ThreadLocal<String> TRANSACTION_TYPE = new ThreadLocal<>();
+
+  private final int topN;
+  private final LongAdder conflictCount = new LongAdder();
+  private final Queue<ThreadSketches> allSketches = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadSketches> sketches;
+
+  ConflictProfiler(int topN) {
+    if (topN < 1) {
+      throw new IllegalArgumentException("The number of the reported hot spots must be positive");
+    }
+    this.topN = topN;
+    this.sketches =
+        ThreadLocal.withInitial(
+            () -> {
+              ThreadSketches threadSketches = new ThreadSketches(topN * CAPACITY_FACTOR);
+              allSketches.add(threadSketches);
+              return threadSketches;
+            });
+  }
+
+  /**
+   * Sets the type of the transactions that the current thread starts, e.g., the name of a TPC-C
+   * transaction, to which their conflicts are attributed.
+   *
+   * @param type a transaction type
+   */
+  public static void setTransactionType(String type) {
+    TRANSACTION_TYPE.set(type);
+  }
+
+  static String getTransactionType() {
+    String type = TRANSACTION_TYPE.get();
+    return type == null ? UNKNOWN : type;
+  }
+
+  /**
+   * Records a conflict of a transaction of the specified type.
+   *
+   * @param type a transaction type
+   * @param operation the operation to which the conflict is attributed, or null if unknown
+   * @param defaultNamespace the namespace of the operations without a namespace
+   */
+  void record(String type, @Nullable Operation operation, @Nullable String defaultNamespace) {
+    conflictCount.increment();
+    String table = UNKNOWN;
+    String key = UNKNOWN;
+    if (operation != null) {
+      String namespace = operation.forNamespace().orElse(defaultNamespace);
+      if (namespace == null) {
+        namespace = UNKNOWN;
+      }
+      table = namespace + "." + operation.forTable().orElse(UNKNOWN);
+      key = format(operation.getPartitionKey());
+    }
+    ThreadSketches threadSketches = sketches.get();
+    // the monitor is only contended while the results are merged
+    synchronized (threadSketches) {
+      threadSketches.tables.add(new Hotspot(type, table, UNKNOWN));
+      threadSketches.keys.add(new Hotspot(type, table, key));
+    }
+  }
+
+  /**
+   * Merges the sketches of all the threads and adds the most contended tables and keys to the
+   * specified builder for {@code setState()}.
+   *
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  JsonObjectBuilder addStatesTo(JsonObjectBuilder builder) {
+    List<SketchSnapshot> tables = new ArrayList<>();
+    List<SketchSnapshot> keys = new ArrayList<>();
+    for (ThreadSketches threadSketches : allSketches) {
+      synchronized (threadSketches) {
+        tables.add(new SketchSnapshot(threadSketches.tables));
+        keys.add(new SketchSnapshot(threadSketches.keys));
+      }
+    }
+    return builder.add(
+        STATE_NAME,
+        Json.createObjectBuilder()
+            .add("conflicts", conflictCount.toString())
+            .add("tables", toJson(merge(tables)))
+            .add("keys", toJson(merge(keys))));
+  }
+
+  /**
+   * Returns a summary of the most contended tables and keys in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if the conflicts were not profiled
+   */
+  public static String summarize(JsonObject state) {
+    if (state == null || !state.containsKey(STATE_NAME)) {
+      return "";
+    }
+    JsonObject hotspots = state.getJsonObject(STATE_NAME);
+    StringBuilder summary = new StringBuilder("==== Conflict Hotspots ====");
+    summary.append(String.format("%nConflicts: %s", hotspots.getString("conflicts")));
+    summary.append(String.format("%n-- Top tables --"));
+    appendRows(summary, hotspots.getJsonArray("tables"), false);
+    summary.append(String.format("%n-- Top keys --"));
+    appendRows(summary, hotspots.getJsonArray("keys"), true);
+    return summary.toString();
+  }
+
+  /**
+   * Merges the specified sketches into the counts and errors of all the monitored items. A sketch
+   * that doesn't monitor an item may have missed up to its minimum count of the item.
+   */
+  private static Map<Hotspot, long[]> merge(List<SketchSnapshot> snapshots) {
+    Map<Hotspot, long[]> merged = new HashMap<>();
+    for (SketchSnapshot snapshot : snapshots) {
+      for (Hotspot hotspot : snapshot.entries.keySet()) {
+        merged.putIfAbsent(hotspot, new long[2]);
+      }
+    }
+    for (SketchSnapshot snapshot : snapshots) {
+      merged.forEach(
+          (hotspot, counts) -> {
+            SpaceSavingSketch.Entry<Hotspot> entry = snapshot.entries.get(hotspot);
+            if (entry != null) {
+              counts[0] += entry.getCount();
+              counts[1] += entry.getError();
+            } else {
+              counts[0] += snapshot.minCount;
+              counts[1] += snapshot.minCount;
+            }
+          });
+    }
+    return merged;
+  }
+
+  private JsonArrayBuilder toJson(Map<Hotspot, long[]> merged) {
+    List<Map.Entry<Hotspot, long[]>> entries = new ArrayList<>(merged.entrySet());
+    entries.sort((e1, e2) -> Long.compare(e2.getValue()[0], e1.getValue()[0]));
+    JsonArrayBuilder array = Json.createArrayBuilder();
+    for (Map.Entry<Hotspot, long[]> entry : entries.subList(0, Math.min(topN, entries.size()))) {
+      Hotspot hotspot = entry.getKey();
+      array.add(
+          Json.createObjectBuilder()
+              .add("type", hotspot.type)
+              .add("table", hotspot.table)
+              .add("key", hotspot.key)
+              .add("count", Long.toString(entry.getValue()[0]))
+              .add("error", Long.toString(entry.getValue()[1])));
+    }
+    return array;
+  }
+
+  private static void appendRows(StringBuilder summary, JsonArray rows, boolean withKey) {
+    int typeWidth = "Type".length();
+    int tableWidth = "Table".length();
+    for (JsonObject row : rows.getValuesAs(JsonObject.class)) {
+      typeWidth = Math.max(typeWidth, row.getString("type").length());
+      tableWidth = Math.max(tableWidth, row.getString("table").length());
+    }
+    String rowFormat =
+        "%n%-" + typeWidth + "s %-" + tableWidth + "s %10s %10s" + (withKey ? " %s" : "");
+    summary.append(String.format(rowFormat, "Type", "Table", "Conflicts", "Error", "Key"));
+    for (JsonObject row : rows.getValuesAs(JsonObject.class)) {
+      summary.append(
+          String.format(
+              rowFormat,
+              row.getString("type"),
+              row.getString("table"),
+              row.getString("count"),
+              row.getString("error"),
+              row.getString("key")));
+    }
+  }
+
+  private static String format(@Nullable Key key) {
+    if (key == null || key.getColumns().isEmpty()) {
+      return UNKNOWN;
+    }
+    StringBuilder builder = new StringBuilder();
+    for (Column<?> column : key.getColumns()) {
+      if (builder.length() > 0) {
+        builder.append(',');
+      }
+      builder.append(column.getName()).append('=').append(column.getValueAsObject());
+    }
+    return builder.toString();
+  }
+
+  private static class ThreadSketches {
+    private final SpaceSavingSketch<Hotspot> tables;
+    private final SpaceSavingSketch<Hotspot> keys;
+
+    private ThreadSketches(int capacity) {
+      this.tables = new SpaceSavingSketch<>(capacity);
+      this.keys = new SpaceSavingSketch<>(capacity);
+    }
+  }
+
+  private static class SketchSnapshot {
+    private final Map<Hotspot, SpaceSavingSketch.Entry<Hotspot>> entries = new HashMap<>();
+    private final long minCount;
+
+    private SketchSnapshot(SpaceSavingSketch<Hotspot> sketch) {
+      for (SpaceSavingSketch.Entry<Hotspot> entry : sketch.getEntries()) {
+        entries.put(entry.getItem(), entry);
+      }
+      this.minCount = sketch.getMinCount();
+    }
+  }
+
+  private static class Hotspot {
+    private final String type;
+    private final String table;
+    private final String key;
+
+    private Hotspot(String type, String table, String key) {
+      this.type = type;
+      this.table = table;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Hotspot)) {
+        return false;
+      }
+      Hotspot other = (Hotspot) o;
+      return type.equals(other.type) && table.equals(other.table) && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, table, key);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.scalar.db.benchmarks.instrumentation;
+
+import com.scalar.db.api.Operation;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The recorders and the operation labels shared by an instrumented manager and its transactions.
+ */
+@ThreadSafe
+class Instrumentation {
+  final OperationLabels getLabels = new OperationLabels("get");
+  final OperationLabels scanLabels = new OperationLabels("scan");
+  final OperationLabels getScannerLabels = new OperationLabels("getScanner");
+  final OperationLabels putLabels = new OperationLabels("put");
+  final OperationLabels insertLabels = new OperationLabels("insert");
+  final OperationLabels upsertLabels = new OperationLabels("upsert");
+  final OperationLabels updateLabels = new OperationLabels("update");
+  final OperationLabels deleteLabels = new OperationLabels("delete");
+  final OperationLabels mutateLabels = new OperationLabels("mutate");
+  final LatencyRecorder recorder;
+  final ConflictProfiler profiler;
+
+  Instrumentation(LatencyRecorder recorder, ConflictProfiler profiler) {
+    this.recorder = recorder;
+    this.profiler = profiler;
+  }
+
+  void record(String phase, long startNanos) {
+    recorder.record(phase, startNanos, 0);
+  }
+
+  void record(String[] labels, long startNanos) {
+    for (String label : labels) {
+      recorder.record(label, startNanos, 0);
+    }
+  }
+
+  void recordConflict(
+      String transactionType, @Nullable Operation operation, @Nullable String defaultNamespace) {
+    profiler.record(transactionType, operation, defaultNamespace);
+  }
+}
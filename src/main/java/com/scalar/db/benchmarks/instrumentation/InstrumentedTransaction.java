@@ -0,0 +1,296 @@
+package com.scalar.db.benchmarks.instrumentation;
+
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Insert;
+import com.scalar.db.api.Mutation;
+import com.scalar.db.api.Operation;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.api.Update;
+import com.scalar.db.api.Upsert;
+import com.scalar.db.exception.transaction.AbortException;
+import com.scalar.db.exception.transaction.CommitConflictException;
+import com.scalar.db.exception.transaction.CommitException;
+import com.scalar.db.exception.transaction.CrudConflictException;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.exception.transaction.RollbackException;
+import com.scalar.db.exception.transaction.UnknownTransactionStatusException;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * Records the latencies of the operations and the commit or abort of a transaction, and its
+ * conflicts as conflicts of the type of the transaction.
+ *
+ * <p>A conflict at commit is attributed to the last write of the transaction, or to its last
+ * operation if it has no write.
+ */
+@SuppressWarnings("deprecation")
+class InstrumentedTransaction implements DistributedTransaction {
+  private final DistributedTransaction transaction;
+  private final Instrumentation instrumentation;
+  // the operations of a transaction can be issued from other threads, e.g., by parallel reads
+  private final String transactionType;
+  @Nullable private volatile String defaultNamespace;
+  @Nullable private volatile Operation lastOperation;
+  @Nullable private volatile Operation lastMutation;
+
+  InstrumentedTransaction(
+      DistributedTransaction transaction,
+      Instrumentation instrumentation,
+      @Nullable String defaultNamespace,
+      String transactionType) {
+    this.transaction = transaction;
+    this.instrumentation = instrumentation;
+    this.defaultNamespace = defaultNamespace;
+    this.transactionType = transactionType;
+  }
+
+  @Override
+  public String getId() {
+    return transaction.getId();
+  }
+
+  @Deprecated
+  @Override
+  public void with(String namespace, String tableName) {
+    transaction.with(namespace, tableName);
+    defaultNamespace = namespace;
+  }
+
+  @Deprecated
+  @Override
+  public void withNamespace(String namespace) {
+    transaction.withNamespace(namespace);
+    defaultNamespace = namespace;
+  }
+
+  @Deprecated
+  @Override
+  public Optional<String> getNamespace() {
+    return transaction.getNamespace();
+  }
+
+  @Deprecated
+  @Override
+  public void withTable(String tableName) {
+    transaction.withTable(tableName);
+  }
+
+  @Deprecated
+  @Override
+  public Optional<String> getTable() {
+    return transaction.getTable();
+  }
+
+  @Override
+  public Optional<Result> get(Get get) throws CrudException {
+    lastOperation = get;
+    long start = System.nanoTime();
+    try {
+      return transaction.get(get);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, get, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.getLabels.get(get, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public List<Result> scan(Scan scan) throws CrudException {
+    lastOperation = scan;
+    long start = System.nanoTime();
+    try {
+      return transaction.scan(scan);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, scan, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.scanLabels.get(scan, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public Scanner getScanner(Scan scan) throws CrudException {
+    lastOperation = scan;
+    long start = System.nanoTime();
+    try {
+      return transaction.getScanner(scan);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, scan, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.getScannerLabels.get(scan, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void put(Put put) throws CrudException {
+    onMutation(put);
+    long start = System.nanoTime();
+    try {
+      transaction.put(put);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, put, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.putLabels.get(put, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void put(List<Put> puts) throws CrudException {
+    onMutations(puts);
+    long start = System.nanoTime();
+    try {
+      transaction.put(puts);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, first(puts), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.putLabels.get(puts, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void insert(Insert insert) throws CrudException {
+    onMutation(insert);
+    long start = System.nanoTime();
+    try {
+      transaction.insert(insert);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, insert, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.insertLabels.get(insert, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void upsert(Upsert upsert) throws CrudException {
+    onMutation(upsert);
+    long start = System.nanoTime();
+    try {
+      transaction.upsert(upsert);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, upsert, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.upsertLabels.get(upsert, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void update(Update update) throws CrudException {
+    onMutation(update);
+    long start = System.nanoTime();
+    try {
+      transaction.update(update);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, update, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.updateLabels.get(update, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void delete(Delete delete) throws CrudException {
+    onMutation(delete);
+    long start = System.nanoTime();
+    try {
+      transaction.delete(delete);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, delete, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.deleteLabels.get(delete, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void delete(List<Delete> deletes) throws CrudException {
+    onMutations(deletes);
+    long start = System.nanoTime();
+    try {
+      transaction.delete(deletes);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, first(deletes), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.deleteLabels.get(deletes, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void mutate(List<? extends Mutation> mutations) throws CrudException {
+    onMutations(mutations);
+    long start = System.nanoTime();
+    try {
+      transaction.mutate(mutations);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(transactionType, first(mutations), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.mutateLabels.get(mutations, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void commit() throws CommitException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      transaction.commit();
+    } catch (CommitConflictException e) {
+      Operation conflicted = lastMutation != null ? lastMutation : lastOperation;
+      instrumentation.recordConflict(transactionType, conflicted, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record("commit", start);
+    }
+  }
+
+  @Override
+  public void rollback() throws RollbackException {
+    long start = System.nanoTime();
+    try {
+      transaction.rollback();
+    } finally {
+      instrumentation.record("rollback", start);
+    }
+  }
+
+  @Override
+  public void abort() throws AbortException {
+    long start = System.nanoTime();
+    try {
+      transaction.abort();
+    } finally {
+      instrumentation.record("abort", start);
+    }
+  }
+
+  private void onMutation(Mutation mutation) {
+    lastOperation = mutation;
+    lastMutation = mutation;
+  }
+
+  private void onMutations(List<? extends Mutation> mutations) {
+    if (!mutations.isEmpty()) {
+      onMutation(mutations.get(mutations.size() - 1));
+    }
+  }
+
+  @Nullable
+  private static Operation first(List<? extends Operation> operations) {
+    return operations.isEmpty() ? null : operations.get(0);
+  }
+}
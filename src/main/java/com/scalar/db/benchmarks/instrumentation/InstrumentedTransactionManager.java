@@ -0,0 +1,449 @@
+package com.scalar.db.benchmarks.instrumentation;
+
+import com.scalar.db.api.Delete;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Insert;
+import com.scalar.db.api.Isolation;
+import com.scalar.db.api.Mutation;
+import com.scalar.db.api.Operation;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.api.SerializableStrategy;
+import com.scalar.db.api.TransactionState;
+import com.scalar.db.api.Update;
+import com.scalar.db.api.Upsert;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.exception.transaction.CrudConflictException;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.exception.transaction.TransactionNotFoundException;
+import com.scalar.db.exception.transaction.UnknownTransactionStatusException;
+import com.scalar.kelpie.config.Config;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Wraps a {@code DistributedTransactionManager} to record where the time goes inside a
+ * transaction.
+ *
+ * <p>The wrapper records the latencies of beginning a transaction, of each operation (get, scan,
+ * put, delete, and so on), and of commit and abort. An operation is recorded with a per-table label
+ * and a per-namespace label, e.g., "get:ycsb_primary.usertable" and "get:ycsb_primary.*". The
+ * namespace specified by {@code withNamespace()} is used for the operations without a namespace.
+ *
+ * <p>The conflicts are also attributed to tables and keys by a {@link ConflictProfiler}, where a
+ * transaction is of the type set on the thread that begins it.
+ */
+@SuppressWarnings("deprecation")
+public class InstrumentedTransactionManager implements DistributedTransactionManager {
+  public static final String STATE_NAME = "instrumentation";
+
+  private final DistributedTransactionManager manager;
+  private final Instrumentation instrumentation;
+  @Nullable private volatile String defaultNamespace;
+
+  private InstrumentedTransactionManager(
+      DistributedTransactionManager manager, Instrumentation instrumentation) {
+    this.manager = manager;
+    this.instrumentation = instrumentation;
+  }
+
+  /**
+   * Returns a {@code DistributedTransactionManager} that records the latencies of the phases of
+   * transactions and forwards the calls to the specified manager.
+   *
+   * @param manager a {@code DistributedTransactionManager} to wrap
+   * @param config a {@code Config} object
+   * @param conflictTopN the number of the most contended tables and keys to report
+   * @return an instrumented {@code DistributedTransactionManager}
+   */
+  public static DistributedTransactionManager wrap(
+      DistributedTransactionManager manager, Config config, int conflictTopN) {
+    return new InstrumentedTransactionManager(
+        manager,
+        new Instrumentation(
+            new LatencyRecorder(config, STATE_NAME), new ConflictProfiler(conflictTopN)));
+  }
+
+  /**
+   * Adds the latencies per phase and the conflict hot spots to the specified builder if the
+   * specified manager is instrumented.
+   *
+   * @param manager a {@code DistributedTransactionManager}
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  public static JsonObjectBuilder addStatesTo(
+      DistributedTransactionManager manager, JsonObjectBuilder builder) {
+    if (!(manager instanceof InstrumentedTransactionManager)) {
+      return builder;
+    }
+    Instrumentation instrumentation = ((InstrumentedTransactionManager) manager).instrumentation;
+    instrumentation.recorder.addStatesTo(builder);
+    return instrumentation.profiler.addStatesTo(builder);
+  }
+
+  /**
+   * Returns a summary of the latencies per phase in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if the manager was not instrumented
+   */
+  public static String summarize(JsonObject state) {
+    return LatencyRecorder.summarize(state, STATE_NAME, "Latency by Phase");
+  }
+
+  @Deprecated
+  @Override
+  public void with(String namespace, String tableName) {
+    manager.with(namespace, tableName);
+    defaultNamespace = namespace;
+  }
+
+  @Deprecated
+  @Override
+  public void withNamespace(String namespace) {
+    manager.withNamespace(namespace);
+    defaultNamespace = namespace;
+  }
+
+  @Deprecated
+  @Override
+  public Optional<String> getNamespace() {
+    return manager.getNamespace();
+  }
+
+  @Deprecated
+  @Override
+  public void withTable(String tableName) {
+    manager.withTable(tableName);
+  }
+
+  @Deprecated
+  @Override
+  public Optional<String> getTable() {
+    return manager.getTable();
+  }
+
+  @Override
+  public DistributedTransaction begin() throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.begin());
+    } finally {
+      instrumentation.record("begin", start);
+    }
+  }
+
+  @Override
+  public DistributedTransaction begin(String txId) throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.begin(txId));
+    } finally {
+      instrumentation.record("begin", start);
+    }
+  }
+
+  @Override
+  public DistributedTransaction start() throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start());
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Override
+  public DistributedTransaction start(String txId) throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(txId));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(Isolation isolation) throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(isolation));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(String txId, Isolation isolation)
+      throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(txId, isolation));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(Isolation isolation, SerializableStrategy strategy)
+      throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(isolation, strategy));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(SerializableStrategy strategy) throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(strategy));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(String txId, SerializableStrategy strategy)
+      throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(txId, strategy));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public DistributedTransaction start(
+      String txId, Isolation isolation, SerializableStrategy strategy)
+      throws TransactionException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.start(txId, isolation, strategy));
+    } finally {
+      instrumentation.record("start", start);
+    }
+  }
+
+  @Override
+  public DistributedTransaction resume(String txId) throws TransactionNotFoundException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.resume(txId));
+    } finally {
+      instrumentation.record("resume", start);
+    }
+  }
+
+  @Override
+  public DistributedTransaction join(String txId) throws TransactionNotFoundException {
+    long start = System.nanoTime();
+    try {
+      return wrap(manager.join(txId));
+    } finally {
+      instrumentation.record("join", start);
+    }
+  }
+
+  @Override
+  public TransactionState getState(String txId) throws TransactionException {
+    return manager.getState(txId);
+  }
+
+  @Override
+  public TransactionState rollback(String txId) throws TransactionException {
+    return manager.rollback(txId);
+  }
+
+  @Override
+  public TransactionState abort(String txId) throws TransactionException {
+    return manager.abort(txId);
+  }
+
+  @Override
+  public Optional<Result> get(Get get) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      return manager.get(get);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(ConflictProfiler.getTransactionType(), get, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.getLabels.get(get, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public List<Result> scan(Scan scan) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      return manager.scan(scan);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(ConflictProfiler.getTransactionType(), scan, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.scanLabels.get(scan, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public Scanner getScanner(Scan scan) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      return manager.getScanner(scan);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(ConflictProfiler.getTransactionType(), scan, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.getScannerLabels.get(scan, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void put(Put put) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.put(put);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(ConflictProfiler.getTransactionType(), put, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.putLabels.get(put, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void put(List<Put> puts) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.put(puts);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), first(puts), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.putLabels.get(puts, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void insert(Insert insert) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.insert(insert);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), insert, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.insertLabels.get(insert, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void upsert(Upsert upsert) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.upsert(upsert);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), upsert, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.upsertLabels.get(upsert, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void update(Update update) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.update(update);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), update, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.updateLabels.get(update, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void delete(Delete delete) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.delete(delete);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), delete, defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.deleteLabels.get(delete, defaultNamespace), start);
+    }
+  }
+
+  @Deprecated
+  @Override
+  public void delete(List<Delete> deletes) throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.delete(deletes);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), first(deletes), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.deleteLabels.get(deletes, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void mutate(List<? extends Mutation> mutations)
+      throws CrudException, UnknownTransactionStatusException {
+    long start = System.nanoTime();
+    try {
+      manager.mutate(mutations);
+    } catch (CrudConflictException e) {
+      instrumentation.recordConflict(
+          ConflictProfiler.getTransactionType(), first(mutations), defaultNamespace);
+      throw e;
+    } finally {
+      instrumentation.record(instrumentation.mutateLabels.get(mutations, defaultNamespace), start);
+    }
+  }
+
+  @Override
+  public void close() {
+    manager.close();
+  }
+
+  // the transaction is begun on the thread that sets its type
+  private DistributedTransaction wrap(DistributedTransaction transaction) {
+    return new InstrumentedTransaction(
+        transaction, instrumentation, defaultNamespace, ConflictProfiler.getTransactionType());
+  }
+
+  @Nullable
+  private static Operation first(List<? extends Operation> operations) {
+    return operations.isEmpty() ? null : operations.get(0);
+  }
+}
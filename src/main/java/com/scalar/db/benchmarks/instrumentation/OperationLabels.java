@@ -0,0 +1,77 @@
+package com.scalar.db.benchmarks.instrumentation;
+
+import com.scalar.db.api.Operation;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Caches the labels of the operations of a phase so that recording an operation doesn't build
+ * strings. An operation has a per-table label, e.g., "get:tpcc.warehouse", and a per-namespace
+ * label, e.g., "get:tpcc.*". A list of operations over several tables, e.g., a mutate(), only has
+ * the per-namespace label, or "mutate:*" if the tables are in several namespaces.
+ */
+@ThreadSafe
+class OperationLabels {
+  private static final String UNKNOWN = "-";
+  private final String phase;
+  private final String[] allLabels;
+  private final ConcurrentMap<String, ConcurrentMap<String, String[]>> tableLabels =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String[]> namespaceLabels = new ConcurrentHashMap<>();
+
+  OperationLabels(String phase) {
+    this.phase = phase;
+    this.allLabels = new String[] {phase + ":*"};
+  }
+
+  String[] get(Operation operation, @Nullable String defaultNamespace) {
+    String namespace = getNamespace(operation, defaultNamespace);
+    String table = operation.forTable().orElse(UNKNOWN);
+    ConcurrentMap<String, String[]> byTable = tableLabels.get(namespace);
+    if (byTable == null) {
+      // ConcurrentHashMap.computeIfAbsent() locks the bin even if the key exists in Java 8
+      byTable = tableLabels.computeIfAbsent(namespace, n -> new ConcurrentHashMap<>());
+    }
+    String[] labels = byTable.get(table);
+    if (labels == null) {
+      String prefix = phase + ":" + namespace + ".";
+      labels = new String[] {prefix + table, prefix + "*"};
+      byTable.putIfAbsent(table, labels);
+    }
+    return labels;
+  }
+
+  String[] get(List<? extends Operation> operations, @Nullable String defaultNamespace) {
+    if (operations.isEmpty()) {
+      return allLabels;
+    }
+    Operation first = operations.get(0);
+    String namespace = getNamespace(first, defaultNamespace);
+    String table = first.forTable().orElse(UNKNOWN);
+    boolean sameTable = true;
+    for (int i = 1; i < operations.size(); i++) {
+      Operation operation = operations.get(i);
+      if (!getNamespace(operation, defaultNamespace).equals(namespace)) {
+        return allLabels;
+      }
+      sameTable &= operation.forTable().orElse(UNKNOWN).equals(table);
+    }
+    if (sameTable) {
+      return get(first, defaultNamespace);
+    }
+    String[] labels = namespaceLabels.get(namespace);
+    if (labels == null) {
+      labels = new String[] {phase + ":" + namespace + ".*"};
+      namespaceLabels.putIfAbsent(namespace, labels);
+    }
+    return labels;
+  }
+
+  private static String getNamespace(Operation operation, @Nullable String defaultNamespace) {
+    String namespace = operation.forNamespace().orElse(defaultNamespace);
+    return namespace == null ? UNKNOWN : namespace;
+  }
+}
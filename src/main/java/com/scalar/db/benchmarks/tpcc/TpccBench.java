@@ -1,57 +1,129 @@
 package com.scalar.db.benchmarks.tpcc;
 
-import static com.scalar.db.benchmarks.Common.getDatabaseConfig;
-
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.ParallelReader;
+import com.scalar.db.benchmarks.ParallelTasks;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.benchmarks.tpcc.transaction.DeliveryTransaction;
 import com.scalar.db.benchmarks.tpcc.transaction.NewOrderTransaction;
 import com.scalar.db.benchmarks.tpcc.transaction.OrderStatusTransaction;
 import com.scalar.db.benchmarks.tpcc.transaction.PaymentTransaction;
+import com.scalar.db.benchmarks.tpcc.transaction.SplitDeliveryTransaction;
 import com.scalar.db.benchmarks.tpcc.transaction.StockLevelTransaction;
 import com.scalar.db.benchmarks.tpcc.transaction.TpccTransaction;
-import com.scalar.db.config.DatabaseConfig;
 import com.scalar.db.exception.transaction.CommitConflictException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.TransactionException;
-import com.scalar.db.service.TransactionFactory;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.TimeBasedProcessor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import javax.json.Json;
+import javax.json.JsonObjectBuilder;
 
 public class TpccBench extends TimeBasedProcessor {
-  private static final String CONFIG_NAME = "tpcc_config";
-  private static final String NUM_WAREHOUSES = "num_warehouses";
+  static final String CONFIG_NAME = "tpcc_config";
+  static final String NUM_WAREHOUSES = "num_warehouses";
   private static final String BACKOFF = "backoff";
   private static final String USE_TABLE_INDEX = "use_table_index";
+  private static final String USE_PROJECTIONS = "use_projections";
+  private static final String TERMINAL_AFFINITY = "terminal_affinity";
+  private static final String TERMINAL_EMULATION = "terminal_emulation";
+  private static final String TERMINALS_PER_WAREHOUSE = "terminals_per_warehouse";
+  private static final String DEFERRED_DELIVERY = "deferred_delivery";
+  private static final String DELIVERY_CONCURRENCY = "delivery_concurrency";
+  private static final String SPLIT_DELIVERY = "split_delivery";
+  private static final String SPLIT_DELIVERY_CONCURRENCY = "split_delivery_concurrency";
+  private static final String SORT_ORDER_LINES = "sort_order_lines";
+  private static final String[] DELIVERY_DISTRICTS = new String[Warehouse.DISTRICTS];
   private static final String NP_ONLY = "np_only";
   private static final String RATE_NEW_ORDER = "rate_new_order";
   private static final String RATE_PAYMENT = "rate_payment";
   private static final String RATE_ORDER_STATUS = "rate_order_status";
   private static final String RATE_DELIVERY = "rate_delivery";
   private static final String RATE_STOCK_LEVEL = "rate_stock_level";
-  private static final long DEFAULT_NUM_WAREHOUSES = 1;
+  static final long DEFAULT_NUM_WAREHOUSES = 1;
   private static final long DEFAULT_BACKOFF = 0;
   private static final boolean DEFAULT_USE_TABLE_INDEX = false;
+  private static final boolean DEFAULT_USE_PROJECTIONS = false;
+  private static final boolean DEFAULT_PARALLEL_READS = false;
+  private static final long DEFAULT_READ_FANOUT = ParallelReader.DEFAULT_READ_FANOUT;
+  private static final boolean DEFAULT_TERMINAL_AFFINITY = false;
+  private static final boolean DEFAULT_TERMINAL_EMULATION = false;
+  private static final long DEFAULT_TERMINALS_PER_WAREHOUSE = 10;
+  private static final boolean DEFAULT_DEFERRED_DELIVERY = false;
+  private static final long DEFAULT_DELIVERY_CONCURRENCY = 4;
+  private static final boolean DEFAULT_SPLIT_DELIVERY = false;
+  private static final long DEFAULT_SPLIT_DELIVERY_CONCURRENCY = 1;
+  private static final boolean DEFAULT_SORT_ORDER_LINES = false;
+
+  static {
+    for (int i = 0; i < DELIVERY_DISTRICTS.length; i++) {
+      DELIVERY_DISTRICTS[i] = String.format("DeliveryDistrict-%02d", i + 1);
+    }
+  }
+
   private final DistributedTransactionManager manager;
   private final AtomicInteger abortCounter = new AtomicInteger();
+  private final AtomicInteger newOrderCounter = new AtomicInteger();
+  private final AtomicInteger newOrderRollbackCounter = new AtomicInteger();
+  private final AtomicInteger terminalCounter = new AtomicInteger();
+  private final ThreadLocal<TpccTerminal> terminals;
+  @Nullable private final TpccTerminalEmulator emulator;
+  @Nullable private final TpccDeliveryQueue deliveryQueue;
+  @Nullable private final ParallelTasks splitDeliveryTasks;
   private final TpccConfig tpccConfig;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
 
   public TpccBench(Config config) {
     super(config);
-    DatabaseConfig dbConfig = getDatabaseConfig(config);
-    TransactionFactory factory = new TransactionFactory(dbConfig);
-    manager = factory.getTransactionManager();
+    manager = Common.getTransactionManager(config);
     manager.withNamespace(TpccRecord.NAMESPACE);
+    scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    latencyRecorder = new LatencyRecorder(config);
 
     int numWarehouses =
         (int) config.getUserLong(CONFIG_NAME, NUM_WAREHOUSES, DEFAULT_NUM_WAREHOUSES);
     int backoff = (int) config.getUserLong(CONFIG_NAME, BACKOFF, DEFAULT_BACKOFF);
     boolean useTableIndex =
         config.getUserBoolean(CONFIG_NAME, USE_TABLE_INDEX, DEFAULT_USE_TABLE_INDEX);
+    boolean useProjections =
+        config.getUserBoolean(CONFIG_NAME, USE_PROJECTIONS, DEFAULT_USE_PROJECTIONS);
+    boolean parallelReads =
+        config.getUserBoolean(CONFIG_NAME, ParallelReader.PARALLEL_READS, DEFAULT_PARALLEL_READS);
+    if (parallelReads) {
+      ParallelReader.checkTransactionManager(config);
+    }
+    int readFanout =
+        (int) config.getUserLong(CONFIG_NAME, ParallelReader.READ_FANOUT, DEFAULT_READ_FANOUT);
+    boolean terminalAffinity =
+        config.getUserBoolean(CONFIG_NAME, TERMINAL_AFFINITY, DEFAULT_TERMINAL_AFFINITY);
+    boolean deferredDelivery =
+        config.getUserBoolean(CONFIG_NAME, DEFERRED_DELIVERY, DEFAULT_DEFERRED_DELIVERY);
+    boolean splitDelivery =
+        config.getUserBoolean(CONFIG_NAME, SPLIT_DELIVERY, DEFAULT_SPLIT_DELIVERY);
+    int splitDeliveryConcurrency =
+        (int)
+            config.getUserLong(
+                CONFIG_NAME, SPLIT_DELIVERY_CONCURRENCY, DEFAULT_SPLIT_DELIVERY_CONCURRENCY);
+    boolean sortOrderLines =
+        config.getUserBoolean(CONFIG_NAME, SORT_ORDER_LINES, DEFAULT_SORT_ORDER_LINES);
+    int deliveryConcurrency =
+        (int) config.getUserLong(CONFIG_NAME, DELIVERY_CONCURRENCY, DEFAULT_DELIVERY_CONCURRENCY);
+    // the delivery workers also execute transactions
+    int concurrency = (int) config.getConcurrency() + (deferredDelivery ? deliveryConcurrency : 0);
+    // the pools are created only for the enabled modes
+    ParallelReader parallelReader =
+        parallelReads ? new ParallelReader(readFanout, concurrency) : null;
     if (config.hasUserValue(CONFIG_NAME, NP_ONLY) && config.getUserBoolean(CONFIG_NAME, NP_ONLY)) {
       if (hasRateParameter()) {
         throw new RuntimeException(
@@ -63,6 +135,13 @@ public class TpccBench extends TimeBasedProcessor {
               .npOnly()
               .backoff(backoff)
               .useTableIndex(useTableIndex)
+              .useProjections(useProjections)
+              .parallelReader(parallelReader)
+              .terminalAffinity(terminalAffinity)
+              .deferredDelivery(deferredDelivery)
+              .splitDelivery(splitDelivery)
+              .splitDeliveryConcurrency(splitDeliveryConcurrency)
+              .sortOrderLines(sortOrderLines)
               .build();
     } else if (hasRateParameter()) {
       if (!hasAllRateParameters()) {
@@ -78,6 +157,13 @@ public class TpccBench extends TimeBasedProcessor {
               .rateDelivery((int) config.getUserLong(CONFIG_NAME, RATE_DELIVERY))
               .rateStockLevel((int) config.getUserLong(CONFIG_NAME, RATE_STOCK_LEVEL))
               .useTableIndex(useTableIndex)
+              .useProjections(useProjections)
+              .parallelReader(parallelReader)
+              .terminalAffinity(terminalAffinity)
+              .deferredDelivery(deferredDelivery)
+              .splitDelivery(splitDelivery)
+              .splitDeliveryConcurrency(splitDeliveryConcurrency)
+              .sortOrderLines(sortOrderLines)
               .backoff(backoff)
               .build();
     } else {
@@ -87,13 +173,197 @@ public class TpccBench extends TimeBasedProcessor {
               .fullMix()
               .backoff(backoff)
               .useTableIndex(useTableIndex)
+              .useProjections(useProjections)
+              .parallelReader(parallelReader)
+              .terminalAffinity(terminalAffinity)
+              .deferredDelivery(deferredDelivery)
+              .splitDelivery(splitDelivery)
+              .splitDeliveryConcurrency(splitDeliveryConcurrency)
+              .sortOrderLines(sortOrderLines)
               .build();
     }
+
+    if (tpccConfig.splitDelivery() && tpccConfig.getSplitDeliveryConcurrency() > 1) {
+      splitDeliveryTasks =
+          new ParallelTasks(
+              "split-delivery-%d", concurrency * (tpccConfig.getSplitDeliveryConcurrency() - 1));
+    } else {
+      splitDeliveryTasks = null;
+    }
+
+    // each worker thread is a terminal, which is bound to a home warehouse with the affinity
+    if (terminalAffinity) {
+      if (config.getConcurrency() < numWarehouses) {
+        logWarn(
+            "Only "
+                + config.getConcurrency()
+                + " of "
+                + numWarehouses
+                + " warehouses are accessed as home warehouses since "
+                + TERMINAL_AFFINITY
+                + " binds each thread to a warehouse");
+      }
+      terminals =
+          ThreadLocal.withInitial(
+              () -> TpccTerminal.withAffinity(tpccConfig, terminalCounter.getAndIncrement()));
+    } else {
+      TpccTerminal randomTerminal = TpccTerminal.random(tpccConfig);
+      terminals = ThreadLocal.withInitial(() -> randomTerminal);
+    }
+
+    // emulated terminals are multiplexed over the worker threads instead
+    if (config.getUserBoolean(CONFIG_NAME, TERMINAL_EMULATION, DEFAULT_TERMINAL_EMULATION)) {
+      if (config.hasUserValue(CONFIG_NAME, ArrivalScheduler.TARGET_OPS_PER_SEC)) {
+        throw new IllegalArgumentException(
+            TERMINAL_EMULATION
+                + " and "
+                + ArrivalScheduler.TARGET_OPS_PER_SEC
+                + " cannot be specified simultaneously");
+      }
+      int terminalsPerWarehouse =
+          (int)
+              config.getUserLong(
+                  CONFIG_NAME, TERMINALS_PER_WAREHOUSE, DEFAULT_TERMINALS_PER_WAREHOUSE);
+      emulator =
+          new TpccTerminalEmulator(
+              tpccConfig,
+              terminalsPerWarehouse,
+              config.getRampForSec() + config.getRunForSec(),
+              this::generateTpccTransaction);
+    } else {
+      emulator = null;
+    }
+
+    if (deferredDelivery) {
+      deliveryQueue =
+          new TpccDeliveryQueue(
+              tpccConfig, deliveryConcurrency, this::executeWithRetries, latencyRecorder);
+    } else {
+      deliveryQueue = null;
+    }
   }
 
   @Override
   public void executeEach() throws TransactionException {
-    TpccTransaction transaction = generateTpccTransaction();
+    if (emulator != null) {
+      executeEmulated();
+      return;
+    }
+    long startNanos = scheduler.awaitArrival();
+    TpccTransaction transaction = generateTpccTransaction(terminals.get());
+    execute(transaction, startNanos);
+  }
+
+  /**
+   * Executes the transaction of an emulated terminal whose keying time has ended. The response
+   * time is recorded from the end of the keying time.
+   */
+  private void executeEmulated() throws TransactionException {
+    TpccTerminalEmulator.Terminal terminal;
+    try {
+      terminal = emulator.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (terminal == null) {
+      return;
+    }
+    TpccTransaction transaction = terminal.getTransaction();
+    try {
+      execute(transaction, terminal.getDueNanos());
+    } finally {
+      emulator.complete(terminal);
+    }
+  }
+
+  /**
+   * Executes the transaction of a terminal, or queues it if it is a deferred delivery, and records
+   * its latency from the specified start time.
+   *
+   * @param transaction a transaction
+   * @param startNanos the start time of the transaction obtained by {@link System#nanoTime()}
+   * @throws TransactionException if the transaction failed other than by a conflict
+   */
+  private void execute(TpccTransaction transaction, long startNanos) throws TransactionException {
+    String type = transaction.getClass().getSimpleName();
+    if (deliveryQueue != null && transaction instanceof DeliveryTransaction) {
+      // the terminal is acknowledged once the delivery is queued
+      boolean queued;
+      try {
+        queued = deliveryQueue.enqueue((DeliveryTransaction) transaction);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        queued = false;
+      }
+      if (queued) {
+        latencyRecorder.record(type, startNanos, 0);
+      } else {
+        latencyRecorder.recordFailure(type, startNanos, 0);
+      }
+      return;
+    }
+    executeAndRecord(transaction, type, startNanos);
+  }
+
+  /**
+   * Executes the specified transaction with retries and records its latency from the specified
+   * start time, or records it as the failed type if it fails other than by a conflict.
+   */
+  private int executeAndRecord(TpccTransaction transaction, String type, long startNanos)
+      throws TransactionException {
+    int retryCount;
+    try {
+      retryCount = executeWithRetries(transaction, type);
+    } catch (TransactionException | RuntimeException e) {
+      // the retries before the failure are counted only in the abort count
+      latencyRecorder.recordFailure(type, startNanos, 0);
+      throw e;
+    }
+    latencyRecorder.record(type, startNanos, retryCount);
+    if (transaction instanceof NewOrderTransaction) {
+      newOrderCounter.incrementAndGet();
+      if (((NewOrderTransaction) transaction).isRolledBack()) {
+        newOrderRollbackCounter.incrementAndGet();
+      }
+    }
+    return retryCount;
+  }
+
+  /**
+   * Executes the delivery of a district of a split delivery, recording its latency and retries
+   * separately from the whole delivery and from the other districts, e.g., as
+   * "DeliveryDistrict-01".
+   */
+  private int executeDistrictDelivery(TpccTransaction transaction, int districtId)
+      throws TransactionException {
+    return executeAndRecord(transaction, DELIVERY_DISTRICTS[districtId - 1], System.nanoTime());
+  }
+
+  /**
+   * Executes the specified transaction, retrying it on conflicts.
+   *
+   * @param transaction a transaction
+   * @return the number of retries
+   * @throws TransactionException if the transaction failed other than by a conflict
+   */
+  private int executeWithRetries(TpccTransaction transaction) throws TransactionException {
+    return executeWithRetries(transaction, transaction.getClass().getSimpleName());
+  }
+
+  /**
+   * Executes the specified transaction, retrying it on conflicts, which are attributed to the
+   * specified type.
+   *
+   * @param transaction a transaction
+   * @param type a transaction type
+   * @return the number of retries
+   * @throws TransactionException if the transaction failed other than by a conflict
+   */
+  private int executeWithRetries(TpccTransaction transaction, String type)
+      throws TransactionException {
+    ConflictProfiler.setTransactionType(type);
+    int retryCount = 0;
     while (true) {
       try {
         transaction.execute();
@@ -102,39 +372,67 @@ public class TpccBench extends TimeBasedProcessor {
       } catch (CrudConflictException | CommitConflictException e) {
         transaction.abort();
         abortCounter.incrementAndGet();
+        retryCount++;
         Uninterruptibles.sleepUninterruptibly(tpccConfig.getBackoff(), TimeUnit.MILLISECONDS);
       } catch (Exception e) {
         transaction.abort();
         throw e;
       }
     }
+    return retryCount;
   }
 
   @Override
   public void close() {
-    setState(Json.createObjectBuilder().add("abort_count", abortCounter.toString()).build());
+    if (deliveryQueue != null) {
+      try {
+        deliveryQueue.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    JsonObjectBuilder state =
+        Json.createObjectBuilder()
+            .add("abort_count", abortCounter.toString())
+            .add(TpccReporter.NEW_ORDER_COUNT, newOrderCounter.toString())
+            .add(TpccReporter.NEW_ORDER_ROLLBACK_COUNT, newOrderRollbackCounter.toString())
+            .add(TpccReporter.SORT_ORDER_LINES, Boolean.toString(tpccConfig.sortOrderLines()));
+    if (emulator != null) {
+      state.add(TpccReporter.TERMINAL_COUNT, Integer.toString(emulator.getTerminalCount()));
+    }
+    if (deliveryQueue != null) {
+      deliveryQueue.addStatesTo(state);
+    }
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
     manager.close();
   }
 
-  private TpccTransaction generateTpccTransaction() {
+  private TpccTransaction generateTpccTransaction(TpccTerminal terminal) {
     int x = TpccUtil.randomInt(1, 100);
     if (x <= tpccConfig.getRateNewOrder()) {
-      return new NewOrderTransaction(manager, tpccConfig);
+      return new NewOrderTransaction(manager, tpccConfig, terminal);
     } else if (x <= tpccConfig.getRateNewOrder() + tpccConfig.getRatePayment()) {
-      return new PaymentTransaction(manager, tpccConfig);
+      return new PaymentTransaction(manager, tpccConfig, terminal);
     } else if (x
         <= tpccConfig.getRateNewOrder()
             + tpccConfig.getRatePayment()
             + tpccConfig.getRateOrderStatus()) {
-      return new OrderStatusTransaction(manager, tpccConfig);
+      return new OrderStatusTransaction(manager, tpccConfig, terminal);
     } else if (x
         <= tpccConfig.getRateNewOrder()
             + tpccConfig.getRatePayment()
             + tpccConfig.getRateOrderStatus()
             + tpccConfig.getRateDelivery()) {
-      return new DeliveryTransaction(manager, tpccConfig);
+      if (tpccConfig.splitDelivery()) {
+        return new SplitDeliveryTransaction(
+            manager, tpccConfig, terminal, splitDeliveryTasks, this::executeDistrictDelivery);
+      }
+      return new DeliveryTransaction(manager, tpccConfig, terminal);
     } else {
-      return new StockLevelTransaction(manager, tpccConfig);
+      return new StockLevelTransaction(manager, tpccConfig, terminal);
     }
   }
 
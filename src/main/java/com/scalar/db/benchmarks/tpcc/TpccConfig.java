@@ -1,9 +1,13 @@
 package com.scalar.db.benchmarks.tpcc;
 
+import com.scalar.db.benchmarks.ParallelReader;
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 @Immutable
 public class TpccConfig {
+  private static final String[] ALL_COLUMNS = {};
 
   private final int rateNewOrder;
   private final int ratePayment;
@@ -14,6 +18,13 @@ public class TpccConfig {
   private final int backoff;
   private final boolean isNpOnly;
   private final boolean useTableIndex;
+  private final boolean useProjections;
+  private final boolean terminalAffinity;
+  private final boolean deferredDelivery;
+  private final boolean splitDelivery;
+  private final int splitDeliveryConcurrency;
+  private final boolean sortOrderLines;
+  @Nullable private final ParallelReader parallelReader;
 
   /**
    * Constructs a {@code TpccConfig} with the specified {@link TpccConfig.Builder}.
@@ -30,6 +41,13 @@ public class TpccConfig {
     this.backoff = builder.backoff;
     this.isNpOnly = builder.isNpOnly;
     this.useTableIndex = builder.useTableIndex;
+    this.useProjections = builder.useProjections;
+    this.terminalAffinity = builder.terminalAffinity;
+    this.deferredDelivery = builder.deferredDelivery;
+    this.splitDelivery = builder.splitDelivery;
+    this.splitDeliveryConcurrency = builder.splitDeliveryConcurrency;
+    this.sortOrderLines = builder.sortOrderLines;
+    this.parallelReader = builder.parallelReader;
   }
 
   public int getRateNewOrder() {
@@ -68,6 +86,55 @@ public class TpccConfig {
     return useTableIndex;
   }
 
+  public boolean useProjections() {
+    return useProjections;
+  }
+
+  /**
+   * Returns the projections of a read that uses the specified columns. If projections are
+   * disabled, no projections are returned, so that the read fetches all the columns.
+   *
+   * @param columns the columns used by the read
+   * @return the columns, or an empty array if projections are disabled
+   */
+  public String[] projections(String[] columns) {
+    return useProjections ? columns : ALL_COLUMNS;
+  }
+
+  public boolean parallelReads() {
+    return parallelReader != null;
+  }
+
+  /**
+   * Returns the reader of the parallel reads.
+   *
+   * @return a {@code ParallelReader}, or null if the parallel reads are disabled
+   */
+  @Nullable
+  public ParallelReader getParallelReader() {
+    return parallelReader;
+  }
+
+  public boolean terminalAffinity() {
+    return terminalAffinity;
+  }
+
+  public boolean deferredDelivery() {
+    return deferredDelivery;
+  }
+
+  public boolean splitDelivery() {
+    return splitDelivery;
+  }
+
+  public int getSplitDeliveryConcurrency() {
+    return splitDeliveryConcurrency;
+  }
+
+  public boolean sortOrderLines() {
+    return sortOrderLines;
+  }
+
   public static Builder newBuilder() {
     return new Builder();
   }
@@ -83,6 +150,13 @@ public class TpccConfig {
     private int backoff;
     private boolean isNpOnly;
     private boolean useTableIndex;
+    private boolean useProjections;
+    @Nullable private ParallelReader parallelReader;
+    private boolean terminalAffinity;
+    private boolean deferredDelivery;
+    private boolean splitDelivery;
+    private int splitDeliveryConcurrency;
+    private boolean sortOrderLines;
 
     private Builder() {
       rateNewOrder = 45;
@@ -94,6 +168,13 @@ public class TpccConfig {
       backoff = 0;
       isNpOnly = false;
       useTableIndex = false;
+      useProjections = false;
+      parallelReader = null;
+      terminalAffinity = false;
+      deferredDelivery = false;
+      splitDelivery = false;
+      splitDeliveryConcurrency = 1;
+      sortOrderLines = false;
     }
 
     public Builder fullMix() {
@@ -154,12 +235,55 @@ public class TpccConfig {
       return this;
     }
 
+    public Builder useProjections(boolean useProjections) {
+      this.useProjections = useProjections;
+      return this;
+    }
+
+    /**
+     * Sets the reader of the parallel reads, which enables them.
+     *
+     * @param parallelReader a {@code ParallelReader}, or null to disable the parallel reads
+     * @return this builder
+     */
+    public Builder parallelReader(@Nullable ParallelReader parallelReader) {
+      this.parallelReader = parallelReader;
+      return this;
+    }
+
+    public Builder terminalAffinity(boolean terminalAffinity) {
+      this.terminalAffinity = terminalAffinity;
+      return this;
+    }
+
+    public Builder deferredDelivery(boolean deferredDelivery) {
+      this.deferredDelivery = deferredDelivery;
+      return this;
+    }
+
+    public Builder splitDelivery(boolean splitDelivery) {
+      this.splitDelivery = splitDelivery;
+      return this;
+    }
+
+    public Builder splitDeliveryConcurrency(int splitDeliveryConcurrency) {
+      this.splitDeliveryConcurrency = splitDeliveryConcurrency;
+      return this;
+    }
+
+    public Builder sortOrderLines(boolean sortOrderLines) {
+      this.sortOrderLines = sortOrderLines;
+      return this;
+    }
+
     /**
      * Builds a {@code TpccConfig} with the specified parameter.
      *
      * @return a {@code TpccConfig} object
      */
     public TpccConfig build() {
+      splitDeliveryConcurrency =
+          Math.max(1, Math.min(splitDeliveryConcurrency, Warehouse.DISTRICTS));
       int total = rateNewOrder + ratePayment + rateOrderStatus + rateDelivery + rateStockLevel;
       if (total != 100) {
         throw new IllegalStateException("Total rate must be 100.");
@@ -0,0 +1,322 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.scalar.db.benchmarks.tpcc.table.Customer;
+import com.scalar.db.benchmarks.tpcc.table.CustomerSecondary;
+import com.scalar.db.benchmarks.tpcc.table.District;
+import com.scalar.db.benchmarks.tpcc.table.History;
+import com.scalar.db.benchmarks.tpcc.table.Item;
+import com.scalar.db.benchmarks.tpcc.table.NewOrder;
+import com.scalar.db.benchmarks.tpcc.table.Order;
+import com.scalar.db.benchmarks.tpcc.table.OrderLine;
+import com.scalar.db.benchmarks.tpcc.table.OrderSecondary;
+import com.scalar.db.benchmarks.tpcc.table.Stock;
+import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.input.BOMInputStream;
+
+/**
+ * The layouts of the TPC-C CSV files, which are written by {@link TpccCsvGenerator} and read by
+ * {@link TpccLoader}. Each table has a file whose records have the columns in the order of its
+ * header. The files have no header row, and dates are written in "yyyy-MM-dd HH:mm:ss".
+ *
+ * <p>An uncompressed file can be split into chunks on line boundaries, and the chunks are read
+ * from memory-mapped regions of the file, so that multiple threads can parse a large file in
+ * parallel. This assumes that no field contains a line break, which holds for the generated data.
+ */
+public class TpccCsv {
+  public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+  public static final String GZIP_EXTENSION = ".gz";
+  public static final String CUSTOMER = "customer.csv";
+  public static final String CUSTOMER_SECONDARY = "customer_secondary.csv";
+  public static final String DISTRICT = "district.csv";
+  public static final String HISTORY = "history.csv";
+  public static final String ITEM = "item.csv";
+  public static final String NEW_ORDER = "new_order.csv";
+  public static final String ORDER = "oorder.csv";
+  public static final String ORDER_LINE = "order_line.csv";
+  public static final String ORDER_SECONDARY = "order_secondary.csv";
+  public static final String STOCK = "stock.csv";
+  public static final String WAREHOUSE = "warehouse.csv";
+  // the files in the loading order
+  public static final List<String> FILES =
+      ImmutableList.of(
+          WAREHOUSE,
+          ITEM,
+          STOCK,
+          DISTRICT,
+          CUSTOMER,
+          CUSTOMER_SECONDARY,
+          HISTORY,
+          ORDER,
+          NEW_ORDER,
+          ORDER_LINE,
+          ORDER_SECONDARY);
+  private static final int READ_BUFFER_SIZE = 1 << 16;
+  // thread-safe, unlike SimpleDateFormat, so it's shared by all the records
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
+  private static final String[] CUSTOMER_HEADER =
+      "c_w_id,c_d_id,c_id,c_discount,c_credit,c_last,c_first,c_credit_lim,c_balance,c_ytd_payment,c_payment_cnt,c_delivery_cnt,c_street_1,c_street_2,c_city,c_state,c_zip,c_phone,c_since,c_middle,c_data"
+          .split(",");
+  private static final String[] CUSTOMER_SECONDARY_HEADER =
+      "c_w_id,c_d_id,c_last,c_first,c_id".split(",");
+  private static final String[] DISTRICT_HEADER =
+      "d_w_id,d_id,d_ytd,d_tax,d_next_o_id,d_name,d_street_1,d_street_2,d_city,d_state,d_zip"
+          .split(",");
+  private static final String[] HISTORY_HEADER =
+      "h_c_id,h_c_d_id,h_c_w_id,h_d_id,h_w_id,h_date,h_amount,h_data".split(",");
+  private static final String[] ITEM_HEADER = "i_id,i_name,i_price,i_data,i_im_id".split(",");
+  private static final String[] NEW_ORDER_HEADER = "no_w_id,no_d_id,no_o_id".split(",");
+  private static final String[] ORDER_HEADER =
+      "o_w_id,o_d_id,o_id,o_c_id,o_carrier_id,o_ol_cnt,o_all_local,o_entry_d".split(",");
+  private static final String[] ORDER_LINE_HEADER =
+      "ol_w_id,ol_d_id,ol_o_id,ol_number,ol_i_id,ol_delivery_d,ol_amount,ol_supply_w_id,ol_quantity,ol_dist_info"
+          .split(",");
+  private static final String[] ORDER_SECONDARY_HEADER = "o_w_id,o_d_id,o_c_id,o_id".split(",");
+  private static final String[] STOCK_HEADER =
+      "s_w_id,s_i_id,s_quantity,s_ytd,s_order_cnt,s_remote_cnt,s_data,s_dist_01,s_dist_02,s_dist_03,s_dist_04,s_dist_05,s_dist_06,s_dist_07,s_dist_08,s_dist_09,s_dist_10"
+          .split(",");
+  private static final String[] WAREHOUSE_HEADER =
+      "w_id,w_ytd,w_tax,w_name,w_street_1,w_street_2,w_city,w_state,w_zip".split(",");
+  private static final Map<String, String[]> HEADER_MAP =
+      ImmutableMap.<String, String[]>builder()
+          .put(CUSTOMER, CUSTOMER_HEADER)
+          .put(CUSTOMER_SECONDARY, CUSTOMER_SECONDARY_HEADER)
+          .put(DISTRICT, DISTRICT_HEADER)
+          .put(HISTORY, HISTORY_HEADER)
+          .put(ITEM, ITEM_HEADER)
+          .put(NEW_ORDER, NEW_ORDER_HEADER)
+          .put(ORDER, ORDER_HEADER)
+          .put(ORDER_LINE, ORDER_LINE_HEADER)
+          .put(ORDER_SECONDARY, ORDER_SECONDARY_HEADER)
+          .put(STOCK, STOCK_HEADER)
+          .put(WAREHOUSE, WAREHOUSE_HEADER)
+          .build();
+  // the columns of dates, which are stored as BIGINT columns of milliseconds since the epoch
+  private static final Set<String> DATE_COLUMNS =
+      ImmutableSet.of(
+          Customer.KEY_SINCE, History.KEY_DATE, Order.KEY_ENTRY_D, OrderLine.KEY_DELIVERY_D);
+  private static final Map<Class<? extends TpccRecord>, String> FILE_MAP =
+      ImmutableMap.<Class<? extends TpccRecord>, String>builder()
+          .put(Customer.class, CUSTOMER)
+          .put(CustomerSecondary.class, CUSTOMER_SECONDARY)
+          .put(District.class, DISTRICT)
+          .put(History.class, HISTORY)
+          .put(Item.class, ITEM)
+          .put(NewOrder.class, NEW_ORDER)
+          .put(Order.class, ORDER)
+          .put(OrderLine.class, ORDER_LINE)
+          .put(OrderSecondary.class, ORDER_SECONDARY)
+          .put(Stock.class, STOCK)
+          .put(Warehouse.class, WAREHOUSE)
+          .build();
+
+  private TpccCsv() {}
+
+  /**
+   * Returns the column names of the specified file in the order of the columns in a record.
+   *
+   * @param file a file name, e.g., "warehouse.csv"
+   * @return the column names
+   */
+  public static String[] getHeader(String file) {
+    String[] header = HEADER_MAP.get(file);
+    if (header == null) {
+      throw new IllegalArgumentException("unknown CSV file: " + file);
+    }
+    return header;
+  }
+
+  /**
+   * Returns the name of the file that the specified record is written to.
+   *
+   * @param record a record
+   * @return a file name, e.g., "warehouse.csv"
+   */
+  public static String getFileName(TpccRecord record) {
+    String file = FILE_MAP.get(record.getClass());
+    if (file == null) {
+      throw new IllegalArgumentException("unknown record: " + record.getClass().getName());
+    }
+    return file;
+  }
+
+  /**
+   * Returns whether or not the specified column is a date.
+   *
+   * @param column a column name
+   * @return true if the column is a date
+   */
+  public static boolean isDateColumn(String column) {
+    return DATE_COLUMNS.contains(column);
+  }
+
+  /**
+   * Parses a date written in "yyyy-MM-dd HH:mm:ss" in the default time zone.
+   *
+   * @param date a date string
+   * @return a {@code Date} object
+   */
+  public static Date parseDate(String date) {
+    return Date.from(
+        LocalDateTime.parse(date, DATE_FORMATTER).atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  /**
+   * Formats a date in "yyyy-MM-dd HH:mm:ss" in the default time zone.
+   *
+   * @param date a {@code Date} object
+   * @return a date string
+   */
+  public static String formatDate(Date date) {
+    return DATE_FORMATTER.format(
+        LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+  }
+
+  /**
+   * Splits the specified CSV file into chunks of about {@code chunkSize} bytes on line boundaries.
+   * A compressed file, i.e., a file that is opened as "*.csv.gz", can't be split and is returned as
+   * a single chunk of {@code [-1, -1)}, which means the whole stream.
+   *
+   * @param file a CSV file
+   * @param chunkSize the target size of a chunk in bytes
+   * @return a list of the start (inclusive) and end (exclusive) offsets of the chunks
+   * @throws IOException if the file can't be read
+   */
+  public static List<long[]> split(File file, long chunkSize) throws IOException {
+    List<long[]> chunks = new ArrayList<>();
+    if (!file.exists()) {
+      chunks.add(new long[] {-1, -1});
+      return chunks;
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = 0;
+      while (start < size) {
+        long end = size;
+        if (start + chunkSize < size) {
+          end = findLineEnd(channel, start + chunkSize);
+        }
+        chunks.add(new long[] {start, end});
+        start = end;
+      }
+    }
+    return chunks;
+  }
+
+  /**
+   * Opens a chunk of the specified CSV file returned by {@link #split(File, long)}. The chunk is
+   * read from a memory-mapped region of the file, or streamed if the file is compressed.
+   *
+   * @param file a CSV file
+   * @param chunk the start (inclusive) and end (exclusive) offsets of the chunk
+   * @return a {@code Reader} of the records in the chunk
+   * @throws IOException if the file can't be opened
+   */
+  public static Reader open(File file, long[] chunk) throws IOException {
+    InputStream in;
+    if (chunk[0] < 0) {
+      in = open(file);
+    } else {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        // the mapping stays valid after the channel is closed
+        in =
+            new ByteBufferInputStream(
+                channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]));
+      }
+    }
+    if (chunk[0] <= 0) {
+      in = new BOMInputStream(in);
+    }
+    return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+  }
+
+  // returns the offset right after the first line break at or after the specified position
+  private static long findLineEnd(FileChannel channel, long position) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    long size = channel.size();
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  /**
+   * Opens the specified CSV file. If it doesn't exist, the file compressed with gzip, e.g.,
+   * "warehouse.csv.gz", is opened instead.
+   *
+   * @param file a CSV file
+   * @return an {@code InputStream} of the uncompressed records
+   * @throws IOException if the file can't be opened
+   */
+  public static InputStream open(File file) throws IOException {
+    File compressed = new File(file.getPath() + GZIP_EXTENSION);
+    if (!file.exists() && compressed.exists()) {
+      return new GZIPInputStream(new FileInputStream(compressed), READ_BUFFER_SIZE);
+    }
+    return new FileInputStream(file);
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import static com.scalar.db.benchmarks.tpcc.TpccLoader.CONFIG_NAME;
+import static com.scalar.db.benchmarks.tpcc.TpccLoader.CSV_FILE_DIRECTORY;
+import static com.scalar.db.benchmarks.tpcc.TpccLoader.LOAD_GENERATOR_CONCURRENCY;
+
+import com.scalar.kelpie.config.Config;
+import com.scalar.kelpie.modules.PreProcessor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the initial TPC-C records and writes them to the CSV files in "csv_file_directory"
+ * instead of loading them, so that a large dataset can be generated once and loaded by {@link
+ * TpccLoader} many times without paying the cost of the random generation.
+ *
+ * <p>The warehouses are split into contiguous ranges, and each generator thread writes its range to
+ * its own part files. The part files are concatenated into the files of {@link TpccCsv} in the
+ * order of the warehouses at the end. With "csv_gzip = true", the files are compressed with gzip;
+ * the concatenated parts form a valid multi-member gzip file, which {@link TpccLoader} reads.
+ */
+public class TpccCsvGenerator extends PreProcessor {
+  private static final String CSV_GZIP = "csv_gzip";
+  private static final String PART_EXTENSION = ".part";
+  private final Path directory;
+  private final int generatorConcurrency;
+  private final int startWarehouse;
+  private final int endWarehouse;
+  private final boolean gzip;
+
+  public TpccCsvGenerator(Config config) {
+    super(config);
+    if (!config.hasUserValue(CONFIG_NAME, CSV_FILE_DIRECTORY)) {
+      throw new IllegalArgumentException(CSV_FILE_DIRECTORY + " must be specified");
+    }
+    this.directory = Paths.get(config.getUserString(CONFIG_NAME, CSV_FILE_DIRECTORY));
+    this.generatorConcurrency =
+        (int)
+            config.getUserLong(
+                CONFIG_NAME,
+                LOAD_GENERATOR_CONCURRENCY,
+                (long) Runtime.getRuntime().availableProcessors());
+    int[] warehouses = TpccLoader.getWarehouseRange(config);
+    this.startWarehouse = warehouses[0];
+    this.endWarehouse = warehouses[1];
+    this.gzip = config.getUserBoolean(CONFIG_NAME, CSV_GZIP, false);
+  }
+
+  @Override
+  public void execute() {
+    long start = System.currentTimeMillis();
+    String extension = gzip ? TpccCsv.GZIP_EXTENSION : "";
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("failed to create " + directory, e);
+    }
+
+    int numWarehouses = endWarehouse - startWarehouse + 1;
+    int generators = Math.max(1, Math.min(generatorConcurrency, numWarehouses));
+    int warehousesPerGenerator = (numWarehouses + generators - 1) / generators;
+    ExecutorService executor = Executors.newFixedThreadPool(generators + 1);
+    Date date = new Date();
+    List<Future<?>> futures = new ArrayList<>();
+
+    // the items are written to the first part, followed by the warehouses of the generators
+    futures.add(
+        executor.submit(
+            () -> {
+              try (TpccCsvWriter writer = newWriter(extension, 0)) {
+                new TpccDataGenerator(writer, true, date).generateItems();
+              }
+              return null;
+            }));
+    for (int i = 0; i < generators; ++i) {
+      int first = startWarehouse + warehousesPerGenerator * i;
+      int last = Math.min(first + warehousesPerGenerator - 1, endWarehouse);
+      if (first > last) {
+        break;
+      }
+      int part = i + 1;
+      futures.add(
+          executor.submit(
+              () -> {
+                try (TpccCsvWriter writer = newWriter(extension, part)) {
+                  TpccDataGenerator generator = new TpccDataGenerator(writer, true, date);
+                  for (int warehouseId = first; warehouseId <= last; warehouseId++) {
+                    generator.generateWarehouse(warehouseId);
+                  }
+                }
+                logInfo("warehouses " + first + "-" + last + " have been generated");
+                return null;
+              }));
+    }
+
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException | InterruptedException e) {
+      throw new RuntimeException("failed to generate records", e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    try {
+      for (String file : TpccCsv.FILES) {
+        concatenate(file + extension, generators + 1);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("failed to concatenate the CSV files", e);
+    }
+    logInfo(
+        "CSV files of warehouses "
+            + startWarehouse
+            + "-"
+            + endWarehouse
+            + " have been written to "
+            + directory
+            + " in "
+            + (System.currentTimeMillis() - start) / 1000
+            + " s");
+  }
+
+  @Override
+  public void close() {}
+
+  private TpccCsvWriter newWriter(String extension, int part) {
+    return new TpccCsvWriter(directory, extension + PART_EXTENSION + part, gzip);
+  }
+
+  // concatenates the part files in order with zero-copy transfers, and removes them
+  private void concatenate(String file, int parts) throws IOException {
+    try (FileChannel out =
+        FileChannel.open(
+            directory.resolve(file),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (int part = 0; part < parts; part++) {
+        Path partFile = directory.resolve(file + PART_EXTENSION + part);
+        if (!Files.exists(partFile)) {
+          continue;
+        }
+        try (FileChannel in = FileChannel.open(partFile, StandardOpenOption.READ)) {
+          long size = in.size();
+          long position = 0;
+          while (position < size) {
+            position += in.transferTo(position, size - position, out);
+          }
+        }
+        Files.delete(partFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Writes the records generated by {@link TpccDataGenerator} to CSV files in the layouts of {@link
+ * TpccCsv}, a file per table. Each file is written through a large buffer to a file channel and
+ * optionally compressed with gzip. This class is not thread-safe and is used by a single generator
+ * thread.
+ */
+public class TpccCsvWriter implements TpccRecordSink, Closeable {
+  private static final int BUFFER_SIZE = 1 << 20;
+  private final Path directory;
+  private final String suffix;
+  private final boolean gzip;
+  private final Map<String, CSVPrinter> printers = new HashMap<>();
+  private final List<Object> values = new ArrayList<>();
+
+  /**
+   * Constructs a {@code TpccCsvWriter}. The records are written to the files whose names are the
+   * names in {@link TpccCsv} followed by the specified suffix, e.g., "warehouse.csv.gz.part0".
+   *
+   * @param directory a directory of the files
+   * @param suffix a suffix of the file names
+   * @param gzip whether or not to compress the files with gzip
+   */
+  public TpccCsvWriter(Path directory, String suffix, boolean gzip) {
+    this.directory = directory;
+    this.suffix = suffix;
+    this.gzip = gzip;
+  }
+
+  /**
+   * Writes a record to the file of its table.
+   *
+   * @param record a record to write
+   * @throws UncheckedIOException if the record can't be written
+   */
+  @Override
+  public void add(TpccRecord record) {
+    String file = TpccCsv.getFileName(record);
+    values.clear();
+    for (String column : TpccCsv.getHeader(file)) {
+      Object value = record.getColumn(column);
+      if (value != null && TpccCsv.isDateColumn(column)) {
+        value = TpccCsv.formatDate(new Date((Long) value));
+      }
+      values.add(value);
+    }
+    try {
+      CSVPrinter printer = printers.get(file);
+      if (printer == null) {
+        printer = open(file);
+        printers.put(file, printer);
+      }
+      printer.printRecord(values);
+    } catch (IOException e) {
+      throw new UncheckedIOException("failed to write a record to " + file + suffix, e);
+    }
+  }
+
+  /** Does nothing since the records are buffered until the files are closed. */
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (CSVPrinter printer : printers.values()) {
+      try {
+        printer.close();
+      } catch (IOException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    printers.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private CSVPrinter open(String file) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            directory.resolve(file + suffix),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+    if (gzip) {
+      out = new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+    return new CSVPrinter(
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE),
+        CSVFormat.DEFAULT);
+  }
+}
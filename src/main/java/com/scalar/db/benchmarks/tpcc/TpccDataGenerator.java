@@ -0,0 +1,146 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.Customer;
+import com.scalar.db.benchmarks.tpcc.table.CustomerSecondary;
+import com.scalar.db.benchmarks.tpcc.table.District;
+import com.scalar.db.benchmarks.tpcc.table.History;
+import com.scalar.db.benchmarks.tpcc.table.Item;
+import com.scalar.db.benchmarks.tpcc.table.NewOrder;
+import com.scalar.db.benchmarks.tpcc.table.Order;
+import com.scalar.db.benchmarks.tpcc.table.OrderLine;
+import com.scalar.db.benchmarks.tpcc.table.OrderSecondary;
+import com.scalar.db.benchmarks.tpcc.table.Stock;
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the initial TPC-C records and passes them to a {@link TpccRecordSink}. A generator is
+ * used by a single thread, and multiple generators can generate different warehouses in parallel.
+ */
+public class TpccDataGenerator {
+  private final TpccRecordSink sink;
+  private final boolean useTableIndex;
+  private final Date date;
+
+  /**
+   * Constructs a {@code TpccDataGenerator}.
+   *
+   * @param sink a destination of the generated records
+   * @param useTableIndex whether or not to generate the records of the table-based index
+   * @param date a date set to the date columns of the generated records
+   */
+  public TpccDataGenerator(TpccRecordSink sink, boolean useTableIndex, Date date) {
+    this.sink = sink;
+    this.useTableIndex = useTableIndex;
+    this.date = date;
+  }
+
+  /**
+   * Generates the item records.
+   *
+   * @throws InterruptedException if interrupted while waiting for the sink
+   */
+  public void generateItems() throws InterruptedException {
+    for (int itemId = 1; itemId <= Item.ITEMS; itemId++) {
+      sink.add(new Item(itemId));
+    }
+    sink.flush();
+  }
+
+  /**
+   * Generates the records of the specified warehouse, i.e., the warehouse, its stocks, districts,
+   * customers, histories, orders, order lines, and new orders.
+   *
+   * @param warehouseId a warehouse ID
+   * @throws InterruptedException if interrupted while waiting for the sink
+   */
+  public void generateWarehouse(int warehouseId) throws InterruptedException {
+    generateStocks(warehouseId);
+    for (int districtId = 1; districtId <= Warehouse.DISTRICTS; districtId++) {
+      generateDistrict(warehouseId, districtId);
+    }
+  }
+
+  /**
+   * Generates the warehouse record and the stocks of the specified warehouse.
+   *
+   * @param warehouseId a warehouse ID
+   * @throws InterruptedException if interrupted while waiting for the sink
+   */
+  public void generateStocks(int warehouseId) throws InterruptedException {
+    sink.add(new Warehouse(warehouseId));
+    for (int stockId = 1; stockId <= Warehouse.STOCKS; stockId++) {
+      sink.add(new Stock(warehouseId, stockId));
+    }
+    sink.flush();
+  }
+
+  /**
+   * Generates the records of the specified district, i.e., the district, its customers, histories,
+   * orders, order lines, and new orders.
+   *
+   * @param warehouseId a warehouse ID
+   * @param districtId a district ID
+   * @throws InterruptedException if interrupted while waiting for the sink
+   */
+  public void generateDistrict(int warehouseId, int districtId) throws InterruptedException {
+    sink.add(new District(warehouseId, districtId));
+    generateCustomers(warehouseId, districtId);
+    generateOrders(warehouseId, districtId);
+    sink.flush();
+  }
+
+  private void generateCustomers(int warehouseId, int districtId) throws InterruptedException {
+    for (int customerId = 1; customerId <= District.CUSTOMERS; customerId++) {
+      Customer customer = new Customer(warehouseId, districtId, customerId, date);
+      String last = customer.getLastName();
+      String first = customer.getFirstName();
+      // customer_secondary
+      if (useTableIndex) {
+        sink.add(new CustomerSecondary(warehouseId, districtId, last, first, customerId));
+      } else {
+        customer.buildIndexColumn();
+      }
+      // customer
+      sink.add(customer);
+      // history
+      sink.add(new History(customerId, districtId, warehouseId, districtId, warehouseId, date));
+    }
+  }
+
+  private void generateOrders(int warehouseId, int districtId) throws InterruptedException {
+    List<Integer> customers = new ArrayList<>();
+    for (int customerId = 1; customerId <= District.CUSTOMERS; customerId++) {
+      customers.add(customerId);
+    }
+    Collections.shuffle(customers, ThreadLocalRandom.current());
+    Integer[] permutation = customers.toArray(new Integer[District.CUSTOMERS]);
+
+    for (int orderId = 1; orderId <= District.ORDERS; orderId++) {
+      int customerId = permutation[orderId - 1];
+      Order order = new Order(warehouseId, districtId, orderId, customerId, date);
+      // order & order-secondary
+      if (useTableIndex) {
+        sink.add(new OrderSecondary(warehouseId, districtId, customerId, orderId));
+      } else {
+        order.buildIndexColumn();
+      }
+      sink.add(order);
+      int orderLineCount = order.getOrderLineCount();
+      for (int number = 1; number <= orderLineCount; number++) {
+        int itemId = TpccUtil.randomInt(1, Item.ITEMS);
+        // order-line
+        sink.add(
+            new OrderLine(warehouseId, districtId, orderId, number, warehouseId, itemId, date));
+      }
+      if (orderId > 2100) {
+        // new-order
+        sink.add(new NewOrder(warehouseId, districtId, orderId));
+      }
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.tpcc.transaction.DeliveryTransaction;
+import com.scalar.db.benchmarks.tpcc.transaction.TpccTransactionRunner;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes delivery transactions in the background, as the TPC-C specification allows for the
+ * deferred execution of the delivery transaction.
+ *
+ * <p>A terminal enqueues a delivery request and gets the acknowledgment immediately. The requests
+ * are queued per warehouse, and a pool of delivery workers serves the warehouses round-robin: a
+ * worker executes one delivery of a warehouse and then puts the warehouse at the back of the pool's
+ * queue if it has more requests, so a busy warehouse can't keep a worker while the others wait. The
+ * deliveries of a warehouse are executed one by one in the order of the requests, since they
+ * compete for the same oldest new-orders, while the deliveries of different warehouses are executed
+ * in parallel. A warehouse queues at most 100 requests, and a terminal waits for a free slot beyond
+ * that, so the acknowledgment slows down when the workers can't keep up.
+ *
+ * <p>When the queue is closed at the end of the run, it stops taking requests, and the requests
+ * that are still queued are reported as pending instead of being executed after the run.
+ *
+ * <p>The time that a request waits in the queue and the time that its transaction takes are
+ * recorded separately, along with the total time from the request to the completion, which the
+ * specification requires to be within 80 seconds for 90% of the deliveries.
+ */
+@ThreadSafe
+public class TpccDeliveryQueue {
+  public static final String QUEUEING = "DeferredDeliveryQueueing";
+  public static final String EXECUTION = "DeferredDeliveryExecution";
+  public static final String COMPLETION = "DeferredDelivery";
+  private static final String SKIPPED_DISTRICTS = "skipped-delivery-districts";
+  private static final String FAILED_DELIVERIES = "failed-deliveries";
+  private static final String PENDING_DELIVERIES = "pending-deliveries";
+  private static final int MAX_REQUESTS_PER_WAREHOUSE = 100;
+  // the deliveries in execution are waited for at most this time when the queue is closed
+  private static final long SHUTDOWN_TIMEOUT_SEC = 60;
+  private static final Logger LOGGER = LoggerFactory.getLogger(TpccDeliveryQueue.class);
+
+  private final WarehouseQueue[] queues;
+  private final ExecutorService workers;
+  private final TpccTransactionRunner runner;
+  private final LatencyRecorder latencyRecorder;
+  private final LongAdder skippedDistricts = new LongAdder();
+  private final LongAdder failedDeliveries = new LongAdder();
+  private final LongAdder pendingDeliveries = new LongAdder();
+  private volatile boolean closed;
+
+  /**
+   * Creates a {@code TpccDeliveryQueue}.
+   *
+   * @param config a {@code TpccConfig} object
+   * @param concurrency the number of the delivery workers
+   * @param runner a function that executes a transaction with retries on conflicts
+   * @param latencyRecorder a recorder of the queueing, execution, and completion times
+   */
+  public TpccDeliveryQueue(
+      TpccConfig config,
+      int concurrency,
+      TpccTransactionRunner runner,
+      LatencyRecorder latencyRecorder) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("The number of delivery workers must be positive");
+    }
+    this.queues = new WarehouseQueue[config.getNumWarehouse() + 1];
+    for (int i = 1; i < queues.length; i++) {
+      queues[i] = new WarehouseQueue();
+    }
+    this.workers =
+        Executors.newFixedThreadPool(
+            concurrency,
+            new ThreadFactoryBuilder().setNameFormat("delivery-worker-%d").setDaemon(true).build());
+    this.runner = runner;
+    this.latencyRecorder = latencyRecorder;
+  }
+
+  /**
+   * Enqueues the specified delivery transaction, which is executed by a delivery worker later. If
+   * the queue of the warehouse is full, this waits until a request is taken by a worker.
+   *
+   * @param transaction a delivery transaction
+   * @return true if the delivery is queued, or false if the queue has been closed
+   * @throws InterruptedException if interrupted while waiting for a free slot
+   */
+  public boolean enqueue(DeliveryTransaction transaction) throws InterruptedException {
+    WarehouseQueue queue = queues[transaction.getWarehouseId()];
+    // the time waiting for a free slot is a part of the queueing time
+    Request request = new Request(transaction, System.nanoTime());
+    synchronized (queue) {
+      while (!closed && queue.requests.size() >= MAX_REQUESTS_PER_WAREHOUSE) {
+        queue.wait();
+      }
+      if (closed) {
+        return false;
+      }
+      queue.requests.add(request);
+      pendingDeliveries.increment();
+      if (!queue.scheduled) {
+        schedule(queue);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stops taking requests and stops the delivery workers after the deliveries in execution are
+   * completed, waiting for a while. The queued deliveries are not executed and are reported as
+   * pending.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void close() throws InterruptedException {
+    closed = true;
+    for (int i = 1; i < queues.length; i++) {
+      WarehouseQueue queue = queues[i];
+      synchronized (queue) {
+        queue.notifyAll();
+      }
+    }
+    workers.shutdown();
+    if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Adds the number of the skipped districts and the failed and pending deliveries to the
+   * specified builder for {@code setState()}.
+   *
+   * @param builder a {@code JsonObjectBuilder} of the processor state
+   * @return the specified builder
+   */
+  public JsonObjectBuilder addStatesTo(JsonObjectBuilder builder) {
+    return builder
+        .add(SKIPPED_DISTRICTS, skippedDistricts.toString())
+        .add(FAILED_DELIVERIES, failedDeliveries.toString())
+        .add(PENDING_DELIVERIES, pendingDeliveries.toString());
+  }
+
+  /**
+   * Returns a summary of the deferred deliveries in the specified processor state.
+   *
+   * @param state a processor state
+   * @return a summary, or an empty string if the state doesn't have the deferred deliveries
+   */
+  public static String summarize(JsonObject state) {
+    if (state == null || !state.containsKey(SKIPPED_DISTRICTS)) {
+      return "";
+    }
+    return "==== Deferred Delivery ====\n"
+        + "Skipped districts: "
+        + state.getString(SKIPPED_DISTRICTS)
+        + "\nFailed deliveries: "
+        + state.getString(FAILED_DELIVERIES)
+        + "\nPending deliveries at the end: "
+        + state.getString(PENDING_DELIVERIES);
+  }
+
+  /**
+   * Submits the specified warehouse to the workers. This is called with the monitor of the queue
+   * held, so that the workers are not shut down by {@link #close()} in between.
+   */
+  @GuardedBy("queue")
+  private void schedule(WarehouseQueue queue) {
+    queue.scheduled = true;
+    workers.execute(() -> executeNext(queue));
+  }
+
+  /** Executes the next delivery of the specified warehouse and resubmits it if it has more. */
+  private void executeNext(WarehouseQueue queue) {
+    Request request;
+    synchronized (queue) {
+      request = closed ? null : queue.requests.poll();
+      if (request == null) {
+        queue.scheduled = false;
+        return;
+      }
+      queue.notifyAll();
+    }
+    pendingDeliveries.decrement();
+    execute(request);
+    synchronized (queue) {
+      if (closed || queue.requests.isEmpty()) {
+        queue.scheduled = false;
+      } else {
+        schedule(queue);
+      }
+    }
+  }
+
+  private void execute(Request request) {
+    DeliveryTransaction transaction = request.transaction;
+    long startNanos = System.nanoTime();
+    latencyRecorder.record(QUEUEING, request.enqueueNanos, 0);
+    try {
+      int retryCount = runner.run(transaction);
+      latencyRecorder.record(EXECUTION, startNanos, retryCount);
+      latencyRecorder.record(COMPLETION, request.enqueueNanos, retryCount);
+      skippedDistricts.add(transaction.getSkippedDistrictCount());
+    } catch (Exception e) {
+      failedDeliveries.increment();
+      LOGGER.warn("Deferred delivery failed", e);
+    }
+  }
+
+  private static class Request {
+    private final DeliveryTransaction transaction;
+    private final long enqueueNanos;
+
+    private Request(DeliveryTransaction transaction, long enqueueNanos) {
+      this.transaction = transaction;
+      this.enqueueNanos = enqueueNanos;
+    }
+  }
+
+  private static class WarehouseQueue {
+    @GuardedBy("this")
+    private final Queue<Request> requests = new ArrayDeque<>();
+
+    // whether or not the warehouse is queued or being served by a worker
+    @GuardedBy("this")
+    private boolean scheduled;
+  }
+}
@@ -0,0 +1,36 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.LoadCheckpoint;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A unit of the TPC-C load, e.g., a district, whose records are loaded in batches by multiple
+ * consumer threads. The unit is marked as completed in the {@link LoadCheckpoint} when the producer
+ * has queued all the batches of the unit and all of them have been committed. A batch that fails
+ * to be loaded leaves the unit incomplete, so that the unit is loaded again when resuming.
+ */
+@ThreadSafe
+public class TpccLoadUnit {
+  private final LoadCheckpoint checkpoint;
+  private final int id;
+  // the number of the batches being loaded, plus one held by the producer until the unit ends
+  private final AtomicInteger pending = new AtomicInteger(1);
+
+  public TpccLoadUnit(LoadCheckpoint checkpoint, int id) {
+    this.checkpoint = checkpoint;
+    this.id = id;
+  }
+
+  /** Called before a batch of the unit is queued. */
+  public void retain() {
+    pending.incrementAndGet();
+  }
+
+  /** Called when a batch of the unit has been committed, or when the producer ends the unit. */
+  public void release() {
+    if (pending.decrementAndGet() == 0) {
+      checkpoint.complete(id);
+    }
+  }
+}
@@ -1,11 +1,26 @@
 package com.scalar.db.benchmarks.tpcc;
 
 import static com.scalar.db.benchmarks.Common.getDatabaseConfig;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.CUSTOMER;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.CUSTOMER_SECONDARY;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.DISTRICT;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.HISTORY;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.ITEM;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.NEW_ORDER;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.ORDER;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.ORDER_LINE;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.ORDER_SECONDARY;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.STOCK;
+import static com.scalar.db.benchmarks.tpcc.TpccCsv.WAREHOUSE;
 
-import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LoadCheckpoint;
 import com.scalar.db.benchmarks.tpcc.table.Customer;
 import com.scalar.db.benchmarks.tpcc.table.CustomerSecondary;
 import com.scalar.db.benchmarks.tpcc.table.District;
@@ -19,19 +34,18 @@ import com.scalar.db.benchmarks.tpcc.table.Stock;
 import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
 import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.config.DatabaseConfig;
-import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.db.exception.transaction.AbortException;
 import com.scalar.db.service.TransactionFactory;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.PreProcessor;
-import java.io.BufferedReader;
+import io.github.resilience4j.retry.Retry;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -44,77 +58,45 @@ import javax.annotation.Nullable;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
-import org.apache.commons.io.input.BOMInputStream;
 
 public class TpccLoader extends PreProcessor {
-  private static final String CONFIG_NAME = "tpcc_config";
+  static final String CONFIG_NAME = "tpcc_config";
   private static final String LOAD_CONCURRENCY = "load_concurrency";
+  private static final String LOAD_BATCH_SIZE = "load_batch_size";
+  static final String LOAD_GENERATOR_CONCURRENCY = "load_generator_concurrency";
   private static final String NUM_WAREHOUSES = "num_warehouses";
   private static final String START_WAREHOUSE = "load_start_warehouse";
   private static final String END_WAREHOUSE = "load_end_warehouse";
   private static final String SKIP_ITEM_LOAD = "skip_item_load";
   private static final String USE_TABLE_INDEX = "use_table_index";
-  private static final String CSV_FILE_DIRECTORY = "csv_file_directory";
+  static final String CSV_FILE_DIRECTORY = "csv_file_directory";
   private static final long DEFAULT_LOAD_CONCURRENCY = 1;
+  private static final long DEFAULT_LOAD_BATCH_SIZE = 1;
   private static final long DEFAULT_START_WAREHOUSE = 1;
   private static final boolean DEFAULT_SKIP_ITEM_LOAD = false;
   private static final boolean DEFAULT_USE_TABLE_INDEX = false;
+  private static final String DEFAULT_CHECKPOINT_FILE = "tpcc-load.checkpoint";
   private static final int QUEUE_SIZE = 10000;
-  private static final String CUSTOMER = "customer.csv";
-  private static final String CUSTOMER_SECONDARY = "customer_secondary.csv";
-  private static final String DISTRICT = "district.csv";
-  private static final String HISTORY = "history.csv";
-  private static final String ITEM = "item.csv";
-  private static final String NEW_ORDER = "new_order.csv";
-  private static final String ORDER = "oorder.csv";
-  private static final String ORDER_LINE = "order_line.csv";
-  private static final String ORDER_SECONDARY = "order_secondary.csv";
-  private static final String STOCK = "stock.csv";
-  private static final String WAREHOUSE = "warehouse.csv";
-  private static final String[] CUSTOMER_HEADER =
-      "c_w_id,c_d_id,c_id,c_discount,c_credit,c_last,c_first,c_credit_lim,c_balance,c_ytd_payment,c_payment_cnt,c_delivery_cnt,c_street_1,c_street_2,c_city,c_state,c_zip,c_phone,c_since,c_middle,c_data"
-          .split(",");
-  private static final String[] CUSTOMER_SECONDARY_HEADER =
-      "c_w_id,c_d_id,c_last,c_first,c_id".split(",");
-  private static final String[] DISTRICT_HEADER =
-      "d_w_id,d_id,d_ytd,d_tax,d_next_o_id,d_name,d_street_1,d_street_2,d_city,d_state,d_zip"
-          .split(",");
-  private static final String[] HISTORY_HEADER =
-      "h_c_id,h_c_d_id,h_c_w_id,h_d_id,h_w_id,h_date,h_amount,h_data".split(",");
-  private static final String[] ITEM_HEADER = "i_id,i_name,i_price,i_data,i_im_id".split(",");
-  private static final String[] NEW_ORDER_HEADER = "no_w_id,no_d_id,no_o_id".split(",");
-  private static final String[] ORDER_HEADER =
-      "o_w_id,o_d_id,o_id,o_c_id,o_carrier_id,o_ol_cnt,o_all_local,o_entry_d".split(",");
-  private static final String[] ORDER_LINE_HEADER =
-      "ol_w_id,ol_d_id,ol_o_id,ol_number,ol_i_id,ol_delivery_d,ol_amount,ol_supply_w_id,ol_quantity,ol_dist_info"
-          .split(",");
-  private static final String[] ORDER_SECONDARY_HEADER = "o_w_id,o_d_id,o_c_id,o_id".split(",");
-  private static final String[] STOCK_HEADER =
-      "s_w_id,s_i_id,s_quantity,s_ytd,s_order_cnt,s_remote_cnt,s_data,s_dist_01,s_dist_02,s_dist_03,s_dist_04,s_dist_05,s_dist_06,s_dist_07,s_dist_08,s_dist_09,s_dist_10"
-          .split(",");
-  private static final String[] WAREHOUSE_HEADER =
-      "w_id,w_ytd,w_tax,w_name,w_street_1,w_street_2,w_city,w_state,w_zip".split(",");
-  private static final Map<String, String[]> HEADER_MAP =
-      ImmutableMap.<String, String[]>builder()
-          .put(CUSTOMER, CUSTOMER_HEADER)
-          .put(CUSTOMER_SECONDARY, CUSTOMER_SECONDARY_HEADER)
-          .put(DISTRICT, DISTRICT_HEADER)
-          .put(HISTORY, HISTORY_HEADER)
-          .put(ITEM, ITEM_HEADER)
-          .put(NEW_ORDER, NEW_ORDER_HEADER)
-          .put(ORDER, ORDER_HEADER)
-          .put(ORDER_LINE, ORDER_LINE_HEADER)
-          .put(ORDER_SECONDARY, ORDER_SECONDARY_HEADER)
-          .put(STOCK, STOCK_HEADER)
-          .put(WAREHOUSE, WAREHOUSE_HEADER)
-          .build();
+  private static final long CSV_CHUNK_SIZE = 64L << 20;
+  // tells a consumer thread that all the records have been queued
+  private static final TpccRecordBatch POISON_PILL = new TpccRecordBatch(new ArrayList<>(), null);
+  // the checkpoint units of generated records: the items, and each warehouse with its stocks and
+  // each of its districts
+  private static final int ITEM_UNIT = 0;
+  private static final int UNITS_PER_WAREHOUSE = 1 + Warehouse.DISTRICTS;
   private final DistributedTransactionManager manager;
+  private final Retry retry = Common.getRetryWithFixedWaitDuration("load");
   private final int concurrency;
+  private final int batchSize;
+  private final int generatorConcurrency;
   private final int startWarehouse;
   private final int endWarehouse;
   private final boolean skipItemLoad;
   private final boolean useTableIndex;
   @Nullable private final String directory;
+  // the client-side cost of producing the records and of converting them to puts
+  private final AllocationMeter recordMeter = new AllocationMeter();
+  private final AllocationMeter putMeter = new AllocationMeter();
 
   public TpccLoader(Config config) {
     super(config);
@@ -125,6 +107,17 @@ public class TpccLoader extends PreProcessor {
 
     this.concurrency =
         (int) config.getUserLong(CONFIG_NAME, LOAD_CONCURRENCY, DEFAULT_LOAD_CONCURRENCY);
+    this.batchSize =
+        (int) config.getUserLong(CONFIG_NAME, LOAD_BATCH_SIZE, DEFAULT_LOAD_BATCH_SIZE);
+    if (batchSize < 1) {
+      throw new IllegalArgumentException(LOAD_BATCH_SIZE + " must be positive");
+    }
+    this.generatorConcurrency =
+        (int)
+            config.getUserLong(
+                CONFIG_NAME,
+                LOAD_GENERATOR_CONCURRENCY,
+                (long) Runtime.getRuntime().availableProcessors());
     this.skipItemLoad = config.getUserBoolean(CONFIG_NAME, SKIP_ITEM_LOAD, DEFAULT_SKIP_ITEM_LOAD);
     this.useTableIndex =
         config.getUserBoolean(CONFIG_NAME, USE_TABLE_INDEX, DEFAULT_USE_TABLE_INDEX);
@@ -134,29 +127,59 @@ public class TpccLoader extends PreProcessor {
       this.directory = null;
     }
 
+    int[] warehouses = getWarehouseRange(config);
+    this.startWarehouse = warehouses[0];
+    this.endWarehouse = warehouses[1];
+  }
+
+  /**
+   * Returns the range of the warehouses to load or generate, which is specified with
+   * "load_start_warehouse" and either "num_warehouses" or "load_end_warehouse".
+   *
+   * @param config a {@code Config} object
+   * @return an array of the start and end warehouse IDs (both inclusive)
+   */
+  static int[] getWarehouseRange(Config config) {
     if (config.hasUserValue(CONFIG_NAME, END_WAREHOUSE)
         && config.hasUserValue(CONFIG_NAME, NUM_WAREHOUSES)) {
       throw new RuntimeException(
           END_WAREHOUSE + " and " + NUM_WAREHOUSES + " cannot be specified simultaneously");
     }
 
-    this.startWarehouse =
+    int startWarehouse =
         (int) config.getUserLong(CONFIG_NAME, START_WAREHOUSE, DEFAULT_START_WAREHOUSE);
+    int endWarehouse;
     if (!config.hasUserValue(CONFIG_NAME, END_WAREHOUSE)
         && !config.hasUserValue(CONFIG_NAME, NUM_WAREHOUSES)) {
-      this.endWarehouse = this.startWarehouse;
+      endWarehouse = startWarehouse;
     } else if (config.hasUserValue(CONFIG_NAME, NUM_WAREHOUSES)) {
-      this.endWarehouse =
-          this.startWarehouse + (int) config.getUserLong(CONFIG_NAME, NUM_WAREHOUSES) - 1;
+      endWarehouse = startWarehouse + (int) config.getUserLong(CONFIG_NAME, NUM_WAREHOUSES) - 1;
     } else {
-      this.endWarehouse = (int) config.getUserLong(CONFIG_NAME, END_WAREHOUSE);
+      endWarehouse = (int) config.getUserLong(CONFIG_NAME, END_WAREHOUSE);
     }
+    return new int[] {startWarehouse, endWarehouse};
   }
 
   @Override
   public void execute() {
+    try (LoadCheckpoint checkpoint = createCheckpoint()) {
+      if (checkpoint.getCompletedCount() > 0) {
+        logInfo(
+            "resuming the load: "
+                + checkpoint.getCompletedCount()
+                + " of "
+                + checkpoint.getUnitCount()
+                + " units have been loaded");
+      }
+      load(checkpoint);
+    }
+  }
+
+  private void load(LoadCheckpoint checkpoint) {
     ExecutorService executor = Executors.newFixedThreadPool(concurrency + 1);
-    BlockingQueue<TpccRecord> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    // the queue holds about the same number of records regardless of the batch size
+    BlockingQueue<TpccRecordBatch> queue =
+        new ArrayBlockingQueue<>(Math.max(1, QUEUE_SIZE / batchSize));
     AtomicBoolean isAllQueued = new AtomicBoolean();
     AtomicInteger queuedCounter = new AtomicInteger();
     AtomicInteger succeededCounter = new AtomicInteger();
@@ -166,20 +189,18 @@ public class TpccLoader extends PreProcessor {
       executor.execute(
           () -> {
             while (true) {
-              TpccRecord record = queue.poll();
-              if (record == null) {
-                if (isAllQueued.get()) {
-                  break;
-                }
-                Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
-                continue;
+              TpccRecordBatch batch = Uninterruptibles.takeUninterruptibly(queue);
+              if (batch == POISON_PILL) {
+                break;
               }
+              List<TpccRecord> records = batch.getRecords();
               try {
-                insert(manager, record);
-                succeededCounter.incrementAndGet();
+                insert(manager, records, checkpoint.isResuming());
+                batch.markLoaded();
+                succeededCounter.addAndGet(records.size());
               } catch (Exception e) {
                 e.printStackTrace();
-                failedCounter.incrementAndGet();
+                failedCounter.addAndGet(records.size());
               }
             }
           });
@@ -190,170 +211,256 @@ public class TpccLoader extends PreProcessor {
             () -> {
               while (!isAllQueued.get()
                   || succeededCounter.get() + failedCounter.get() < queuedCounter.get()) {
-                logInfo(succeededCounter.get() + " succeeded, " + failedCounter + " failed");
+                logInfo(
+                    succeededCounter.get()
+                        + " succeeded, "
+                        + failedCounter
+                        + " failed, "
+                        + queue.size()
+                        + " batches in queue");
                 Uninterruptibles.sleepUninterruptibly(1000, TimeUnit.MILLISECONDS);
               }
             });
 
-    if (directory != null) {
-      queueCsv(new File(directory, WAREHOUSE), queue, queuedCounter);
-      queueCsv(new File(directory, ITEM), queue, queuedCounter);
-      queueCsv(new File(directory, STOCK), queue, queuedCounter);
-      queueCsv(new File(directory, DISTRICT), queue, queuedCounter);
-      queueCsv(new File(directory, CUSTOMER), queue, queuedCounter);
-      queueCsv(new File(directory, CUSTOMER_SECONDARY), queue, queuedCounter);
-      queueCsv(new File(directory, HISTORY), queue, queuedCounter);
-      queueCsv(new File(directory, ORDER), queue, queuedCounter);
-      queueCsv(new File(directory, NEW_ORDER), queue, queuedCounter);
-      queueCsv(new File(directory, ORDER_LINE), queue, queuedCounter);
-      queueCsv(new File(directory, ORDER_SECONDARY), queue, queuedCounter);
-    } else {
-      try {
-        if (!skipItemLoad) {
-          for (int itemId = 1; itemId <= Item.ITEMS; itemId++) {
-            queue.put(new Item(itemId));
-            queuedCounter.incrementAndGet();
-          }
-        }
-        queueWarehouses(queue, queuedCounter);
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
+    try {
+      if (directory != null) {
+        queueCsvFiles(queue, queuedCounter, checkpoint);
+      } else {
+        generate(queue, queuedCounter, checkpoint);
       }
+    } finally {
+      // the consumers and the progress log are stopped even if producing the records failed, so
+      // that the failure is thrown after the queued batches are inserted instead of hanging
+      isAllQueued.set(true);
+      for (int i = 0; i < concurrency; ++i) {
+        Uninterruptibles.putUninterruptibly(queue, POISON_PILL);
+      }
+      executor.shutdown();
+      Uninterruptibles.awaitTerminationUninterruptibly(executor);
     }
-    isAllQueued.set(true);
 
     try {
       future.get();
-      executor.shutdown();
-      Uninterruptibles.awaitTerminationUninterruptibly(executor);
     } catch (java.util.concurrent.ExecutionException | InterruptedException e) {
       throw new RuntimeException(e);
     }
 
+    logInfo(
+        "records were produced with "
+            + recordMeter.describe("record")
+            + ", and converted to puts with "
+            + putMeter.describe("record"));
+    if (failedCounter.get() > 0) {
+      logWarn(
+          failedCounter.get()
+              + " records failed to be inserted. Run the loader again with "
+              + LoadCheckpoint.RESUME
+              + " = true to load the units that have not been completed");
+      return;
+    }
     logInfo("all records have been inserted");
   }
 
+  private LoadCheckpoint createCheckpoint() {
+    int unitCount;
+    String fingerprint;
+    if (directory != null) {
+      unitCount = TpccCsv.FILES.size();
+      fingerprint = "csv " + new File(directory).getAbsolutePath();
+    } else {
+      unitCount = 1 + (endWarehouse - startWarehouse + 1) * UNITS_PER_WAREHOUSE;
+      fingerprint = "warehouses " + startWarehouse + "-" + endWarehouse;
+    }
+    fingerprint += " " + USE_TABLE_INDEX + "=" + useTableIndex;
+    return LoadCheckpoint.create(
+        config, CONFIG_NAME, DEFAULT_CHECKPOINT_FILE, unitCount, "tpcc " + fingerprint);
+  }
+
   @Override
   public void close() {
     manager.close();
   }
 
-  private void queueWarehouses(BlockingQueue<TpccRecord> queue, AtomicInteger counter)
-      throws InterruptedException {
+  private void generate(
+      BlockingQueue<TpccRecordBatch> queue, AtomicInteger counter, LoadCheckpoint checkpoint) {
+    int numWarehouses = endWarehouse - startWarehouse + 1;
+    int generators = Math.max(1, Math.min(generatorConcurrency, numWarehouses));
+    int warehousesPerGenerator = (numWarehouses + generators - 1) / generators;
+    ExecutorService executor = Executors.newFixedThreadPool(generators);
     Date date = new Date();
-    for (int warehouseId = startWarehouse; warehouseId <= endWarehouse; warehouseId++) {
-      queue.put(new Warehouse(warehouseId));
-      counter.incrementAndGet();
-      for (int stockId = 1; stockId <= Warehouse.STOCKS; stockId++) {
-        queue.put(new Stock(warehouseId, stockId));
-        counter.incrementAndGet();
+    List<Future<?>> futures = new ArrayList<>();
+
+    if (!skipItemLoad && !checkpoint.isCompleted(ITEM_UNIT)) {
+      futures.add(
+          executor.submit(
+              () -> {
+                recordMeter.begin();
+                TpccRecordBatcher batcher = new TpccRecordBatcher(queue, counter, batchSize);
+                batcher.beginUnit(new TpccLoadUnit(checkpoint, ITEM_UNIT));
+                newGenerator(batcher, date).generateItems();
+                batcher.endUnit();
+                recordMeter.end(batcher.getRecordCount());
+                return null;
+              }));
+    }
+    // each generator thread generates a contiguous range of warehouses
+    for (int i = 0; i < generators; ++i) {
+      int start = startWarehouse + warehousesPerGenerator * i;
+      int end = Math.min(start + warehousesPerGenerator - 1, endWarehouse);
+      if (start > end) {
+        break;
       }
-      queueDistricts(queue, counter, warehouseId, date);
+      futures.add(
+          executor.submit(
+              () -> {
+                recordMeter.begin();
+                TpccRecordBatcher batcher = new TpccRecordBatcher(queue, counter, batchSize);
+                TpccDataGenerator generator = newGenerator(batcher, date);
+                for (int warehouseId = start; warehouseId <= end; warehouseId++) {
+                  // skips the stocks and the districts that have been loaded
+                  int unit = 1 + (warehouseId - startWarehouse) * UNITS_PER_WAREHOUSE;
+                  if (!checkpoint.isCompleted(unit)) {
+                    batcher.beginUnit(new TpccLoadUnit(checkpoint, unit));
+                    generator.generateStocks(warehouseId);
+                  }
+                  for (int districtId = 1; districtId <= Warehouse.DISTRICTS; districtId++) {
+                    if (!checkpoint.isCompleted(unit + districtId)) {
+                      batcher.beginUnit(new TpccLoadUnit(checkpoint, unit + districtId));
+                      generator.generateDistrict(warehouseId, districtId);
+                    }
+                  }
+                }
+                batcher.endUnit();
+                recordMeter.end(batcher.getRecordCount());
+                return null;
+              }));
     }
-  }
 
-  private void queueDistricts(
-      BlockingQueue<TpccRecord> queue, AtomicInteger counter, int warehouseId, Date date)
-      throws InterruptedException {
-    for (int districtId = 1; districtId <= Warehouse.DISTRICTS; districtId++) {
-      queue.put(new District(warehouseId, districtId));
-      counter.incrementAndGet();
-      queueCustomers(queue, counter, warehouseId, districtId, date);
-      queueOrders(queue, counter, warehouseId, districtId, date);
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (java.util.concurrent.ExecutionException | InterruptedException e) {
+      throw new RuntimeException("failed to generate records", e);
+    } finally {
+      executor.shutdownNow();
     }
   }
 
-  private void queueCustomers(
-      BlockingQueue<TpccRecord> queue,
-      AtomicInteger counter,
-      int warehouseId,
-      int districtId,
-      Date date)
-      throws InterruptedException {
-    for (int customerId = 1; customerId <= District.CUSTOMERS; customerId++) {
-      Customer customer = new Customer(warehouseId, districtId, customerId, date);
-      String last = customer.getLastName();
-      String first = customer.getFirstName();
-      // customer_secondary
-      if (useTableIndex) {
-        queue.put(new CustomerSecondary(warehouseId, districtId, last, first, customerId));
-        counter.incrementAndGet();
-      } else {
-        customer.buildIndexColumn();
-      }
-      // customer
-      queue.put(customer);
-      counter.incrementAndGet();
-      // history
-      queue.put(new History(customerId, districtId, warehouseId, districtId, warehouseId, date));
-      counter.incrementAndGet();
+  private TpccDataGenerator newGenerator(TpccRecordBatcher batcher, Date date) {
+    return new TpccDataGenerator(batcher, useTableIndex, date);
+  }
+
+  private void insert(
+      DistributedTransactionManager manager, List<TpccRecord> records, boolean overwrite) {
+    // the puts are created once and reused if the transaction is retried
+    putMeter.begin();
+    List<Put> puts = new ArrayList<>(records.size());
+    for (TpccRecord record : records) {
+      puts.add(record.createPut());
     }
+    putMeter.end(records.size());
+
+    Runnable insert =
+        () -> {
+          DistributedTransaction tx = null;
+          try {
+            tx = manager.start();
+            tx.withNamespace(TpccRecord.NAMESPACE);
+            for (Put put : puts) {
+              if (overwrite) {
+                // a record of a partially loaded unit can't be overwritten without reading it
+                tx.get(prepareGet(put));
+              }
+              tx.put(put);
+            }
+            tx.commit();
+          } catch (Exception e) {
+            if (tx != null) {
+              try {
+                tx.abort();
+              } catch (AbortException ex) {
+                logWarn("abort failed", ex);
+              }
+            }
+            throw new RuntimeException("failed to insert " + records.size() + " records", e);
+          }
+        };
+    Retry.decorateRunnable(retry, insert).run();
   }
 
-  private void queueOrders(
-      BlockingQueue<TpccRecord> queue,
-      AtomicInteger counter,
-      int warehouseId,
-      int districtId,
-      Date date)
-      throws InterruptedException {
-    List<Integer> customers = new ArrayList<>();
-    for (int customerId = 1; customerId <= District.CUSTOMERS; customerId++) {
-      customers.add(customerId);
+  private static Get prepareGet(Put put) {
+    String namespace = put.forNamespace().orElse(TpccRecord.NAMESPACE);
+    String table = put.forTable().get();
+    if (!put.getClusteringKey().isPresent()) {
+      return Get.newBuilder()
+          .namespace(namespace)
+          .table(table)
+          .partitionKey(put.getPartitionKey())
+          .build();
     }
-    Collections.shuffle(customers);
-    Integer[] permutation = customers.toArray(new Integer[District.CUSTOMERS]);
+    return Get.newBuilder()
+        .namespace(namespace)
+        .table(table)
+        .partitionKey(put.getPartitionKey())
+        .clusteringKey(put.getClusteringKey().get())
+        .build();
+  }
 
-    for (int orderId = 1; orderId <= District.ORDERS; orderId++) {
-      int customerId = permutation[orderId - 1];
-      Order order = new Order(warehouseId, districtId, orderId, customerId, date);
-      // order & order-secondary
-      if (useTableIndex) {
-        queue.put(new OrderSecondary(warehouseId, districtId, customerId, orderId));
-        counter.incrementAndGet();
-      } else {
-        order.buildIndexColumn();
+  private void queueCsvFiles(
+      BlockingQueue<TpccRecordBatch> queue, AtomicInteger counter, LoadCheckpoint checkpoint) {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, generatorConcurrency));
+    List<Future<?>> futures = new ArrayList<>();
+
+    // each file is a checkpoint unit, and large files are parsed in chunks by multiple threads
+    for (int unit = 0; unit < TpccCsv.FILES.size(); unit++) {
+      if (checkpoint.isCompleted(unit)) {
+        continue;
       }
-      queue.put(order);
-      counter.incrementAndGet();
-      int orderLineCount = order.getOrderLineCount();
-      for (int number = 1; number <= orderLineCount; number++) {
-        int itemId = TpccUtil.randomInt(1, Item.ITEMS);
-        // order-line
-        queue.put(
-            new OrderLine(warehouseId, districtId, orderId, number, warehouseId, itemId, date));
-        counter.incrementAndGet();
+      File file = new File(directory, TpccCsv.FILES.get(unit));
+      List<long[]> chunks;
+      try {
+        chunks = TpccCsv.split(file, CSV_CHUNK_SIZE);
+      } catch (IOException e) {
+        throw new UncheckedIOException("failed to read a CSV file: " + file.getPath(), e);
       }
-      if (orderId > 2100) {
-        // new-order
-        queue.put(new NewOrder(warehouseId, districtId, orderId));
-        counter.incrementAndGet();
+      TpccLoadUnit loadUnit = new TpccLoadUnit(checkpoint, unit);
+      for (long[] chunk : chunks) {
+        // released by the batcher of the chunk when all of its batches have been queued
+        loadUnit.retain();
+        futures.add(
+            executor.submit(
+                () -> {
+                  recordMeter.begin();
+                  TpccRecordBatcher batcher = new TpccRecordBatcher(queue, counter, batchSize);
+                  queueCsv(file, chunk, batcher, loadUnit);
+                  recordMeter.end(batcher.getRecordCount());
+                  return null;
+                }));
       }
+      loadUnit.release();
     }
-  }
 
-  private void insert(DistributedTransactionManager manager, TpccRecord record)
-      throws TransactionException {
-    DistributedTransaction tx = manager.start();
-    tx.withNamespace(TpccRecord.NAMESPACE);
     try {
-      tx.put(record.createPut());
-      tx.commit();
-    } catch (Exception e) {
-      tx.abort();
-      throw e;
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (java.util.concurrent.ExecutionException | InterruptedException e) {
+      throw new RuntimeException("failed to read CSV files", e);
+    } finally {
+      executor.shutdownNow();
     }
   }
 
-  private void queueCsv(File file, BlockingQueue<TpccRecord> queue, AtomicInteger counter) {
+  private void queueCsv(File file, long[] chunk, TpccRecordBatcher batcher, TpccLoadUnit unit) {
     CSVFormat format =
         CSVFormat.Builder.create(CSVFormat.DEFAULT)
-            .setHeader(HEADER_MAP.get(file.getName()))
+            .setHeader(TpccCsv.getHeader(file.getName()))
             .build();
 
-    try (BufferedReader reader =
-        new BufferedReader(new InputStreamReader(new BOMInputStream(new FileInputStream(file))))) {
+    try (Reader reader = TpccCsv.open(file, chunk)) {
       CSVParser parser = CSVParser.parse(reader, format);
+      batcher.beginUnit(unit);
       for (CSVRecord record : parser) {
         switch (file.getName()) {
           case CUSTOMER:
@@ -361,42 +468,42 @@ public class TpccLoader extends PreProcessor {
             if (!useTableIndex) {
               customer.buildIndexColumn();
             }
-            queue.put(customer);
+            batcher.add(customer);
             break;
           case CUSTOMER_SECONDARY:
-            queue.put(new CustomerSecondary(record));
+            batcher.add(new CustomerSecondary(record));
             break;
           case DISTRICT:
-            queue.put(new District(record));
+            batcher.add(new District(record));
             break;
           case HISTORY:
-            queue.put(new History(record));
+            batcher.add(new History(record));
             break;
           case ITEM:
-            queue.put(new Item(record));
+            batcher.add(new Item(record));
             break;
           case NEW_ORDER:
-            queue.put(new NewOrder(record));
+            batcher.add(new NewOrder(record));
             break;
           case ORDER:
-            queue.put(new Order(record));
+            batcher.add(new Order(record));
             break;
           case ORDER_LINE:
-            queue.put(new OrderLine(record));
+            batcher.add(new OrderLine(record));
             break;
           case ORDER_SECONDARY:
-            queue.put(new OrderSecondary(record));
+            batcher.add(new OrderSecondary(record));
             break;
           case STOCK:
-            queue.put(new Stock(record));
+            batcher.add(new Stock(record));
             break;
           case WAREHOUSE:
-            queue.put(new Warehouse(record));
+            batcher.add(new Warehouse(record));
             break;
           default:
         }
-        counter.incrementAndGet();
       }
+      batcher.endUnit();
     } catch (Exception e) {
       throw new RuntimeException("failed to load a CSV file: " + file.getPath(), e);
     }
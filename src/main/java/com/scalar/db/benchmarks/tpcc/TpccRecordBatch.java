@@ -0,0 +1,27 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/** Records of the same table loaded in a single transaction, and the unit they belong to. */
+public class TpccRecordBatch {
+  private final List<TpccRecord> records;
+  @Nullable private final TpccLoadUnit unit;
+
+  public TpccRecordBatch(List<TpccRecord> records, @Nullable TpccLoadUnit unit) {
+    this.records = records;
+    this.unit = unit;
+  }
+
+  public List<TpccRecord> getRecords() {
+    return records;
+  }
+
+  /** Called when the records have been committed. */
+  public void markLoaded() {
+    if (unit != null) {
+      unit.release();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Groups records of the same table into batches and passes full batches to a queue. Each batch is
+ * loaded in a single transaction. The producer calls {@link #flush()} at partition boundaries,
+ * e.g., after each district, so that a batch contains related records such as the order lines of
+ * the orders in a district. This class is not thread-safe and is used by a single producer thread.
+ *
+ * <p>The batches queued between {@link #beginUnit(TpccLoadUnit)} and {@link #endUnit()} belong to
+ * the unit, which is completed when all of them have been loaded.
+ */
+public class TpccRecordBatcher implements TpccRecordSink {
+  private final BlockingQueue<TpccRecordBatch> queue;
+  private final AtomicInteger counter;
+  private final int batchSize;
+  private final Map<Class<?>, List<TpccRecord>> batches = new HashMap<>();
+  @Nullable private TpccLoadUnit unit;
+  private long recordCount;
+
+  public TpccRecordBatcher(
+      BlockingQueue<TpccRecordBatch> queue, AtomicInteger counter, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("the batch size must be positive");
+    }
+    this.queue = queue;
+    this.counter = counter;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Adds a record to the batch of its table, and queues the batch if it becomes full.
+   *
+   * @param record a record to load
+   * @throws InterruptedException if interrupted while waiting for the queue
+   */
+  @Override
+  public void add(TpccRecord record) throws InterruptedException {
+    List<TpccRecord> batch = batches.computeIfAbsent(record.getClass(), c -> new ArrayList<>());
+    batch.add(record);
+    recordCount++;
+    if (batch.size() >= batchSize) {
+      put(batch);
+      batches.remove(record.getClass());
+    }
+  }
+
+  /**
+   * Queues all the batches that are not full yet.
+   *
+   * @throws InterruptedException if interrupted while waiting for the queue
+   */
+  @Override
+  public void flush() throws InterruptedException {
+    for (List<TpccRecord> batch : batches.values()) {
+      if (!batch.isEmpty()) {
+        put(batch);
+      }
+    }
+    batches.clear();
+  }
+
+  /**
+   * Starts a unit. The batches queued until {@link #endUnit()} belong to the unit.
+   *
+   * @param unit a unit to start
+   * @throws InterruptedException if interrupted while waiting for the queue
+   */
+  public void beginUnit(TpccLoadUnit unit) throws InterruptedException {
+    endUnit();
+    this.unit = unit;
+  }
+
+  /**
+   * Queues the remaining batches of the current unit and ends the unit, if any.
+   *
+   * @throws InterruptedException if interrupted while waiting for the queue
+   */
+  public void endUnit() throws InterruptedException {
+    flush();
+    if (unit != null) {
+      unit.release();
+      unit = null;
+    }
+  }
+
+  /**
+   * Returns the number of the records added to this batcher.
+   *
+   * @return the number of the records
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  private void put(List<TpccRecord> batch) throws InterruptedException {
+    if (unit != null) {
+      unit.retain();
+    }
+    queue.put(new TpccRecordBatch(batch, unit));
+    counter.addAndGet(batch.size());
+  }
+}
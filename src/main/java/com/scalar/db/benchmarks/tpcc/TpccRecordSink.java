@@ -0,0 +1,22 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.TpccRecord;
+
+/** A destination of the records generated by {@link TpccDataGenerator}. */
+public interface TpccRecordSink {
+
+  /**
+   * Accepts a generated record.
+   *
+   * @param record a generated record
+   * @throws InterruptedException if interrupted while waiting for the destination
+   */
+  void add(TpccRecord record) throws InterruptedException;
+
+  /**
+   * Called at a partition boundary, e.g., after each district, to pass the buffered records on.
+   *
+   * @throws InterruptedException if interrupted while waiting for the destination
+   */
+  void flush() throws InterruptedException;
+}
@@ -1,10 +1,40 @@
 package com.scalar.db.benchmarks.tpcc;
 
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.PostProcessor;
 import com.scalar.kelpie.stats.Stats;
+import javax.json.JsonObject;
 
 public class TpccReporter extends PostProcessor {
+  public static final String TERMINAL_COUNT = "terminal_count";
+  public static final String SORT_ORDER_LINES = "sort_order_lines";
+  public static final String NEW_ORDER_COUNT = "new_order_count";
+  public static final String NEW_ORDER_ROLLBACK_COUNT = "new_order_rollback_count";
+  // the percentage of the new-orders rolled back by the specification
+  private static final double NEW_ORDER_ROLLBACK_PERCENTAGE = 1;
+  // the transaction types, their minimum percentages in the mix, and their 90th percentile
+  // response time limits in milliseconds by the TPC-C specification
+  private static final String[] TYPES = {
+    "NewOrderTransaction",
+    "PaymentTransaction",
+    "OrderStatusTransaction",
+    "DeliveryTransaction",
+    "StockLevelTransaction"
+  };
+  // the delivery is recorded with this type in the split delivery mode
+  private static final String SPLIT_DELIVERY = "SplitDeliveryTransaction";
+  private static final int DELIVERY_INDEX = 3;
+  private static final double[] MIN_MIX_PERCENTAGES = {0, 43, 4, 4, 4};
+  private static final double[] P90_LIMIT_MILLIS = {5000, 5000, 5000, 5000, 20000};
+  // the limit of the time from a deferred delivery request to its completion
+  private static final double DEFERRED_DELIVERY_P90_LIMIT_MILLIS = 80000;
+  // the maximum tpmC per warehouse with the keying and think times
+  private static final double MAX_TPMC_PER_WAREHOUSE = 12.86;
 
   public TpccReporter(Config config) {
     super(config);
@@ -17,13 +47,182 @@ public class TpccReporter extends PostProcessor {
       return;
     }
     getSummary();
+    // the waits for the arrivals and for the emulated terminals are measured by Kelpie
+    if (ArrivalScheduler.ranOpenLoop(getPreviousState())
+        || getPreviousState().containsKey(TERMINAL_COUNT)) {
+      logInfo(ArrivalScheduler.PACED_LATENCY_NOTE);
+    }
     logInfo(
         "==== Statistics Details ====\n"
             + "Transaction abort count: "
             + getPreviousState().getString("abort_count")
             + "\n");
+    String latencySummary = LatencyRecorder.summarize(getPreviousState());
+    if (!latencySummary.isEmpty()) {
+      logInfo(latencySummary);
+    }
+    String specSummary = summarizeSpecMetrics(getPreviousState());
+    if (!specSummary.isEmpty()) {
+      logInfo(specSummary);
+    }
+    String conflictSummary = summarizeConflictRates(getPreviousState());
+    if (!conflictSummary.isEmpty()) {
+      logInfo(conflictSummary);
+    }
+    String hotspotSummary = ConflictProfiler.summarize(getPreviousState());
+    if (!hotspotSummary.isEmpty()) {
+      logInfo(hotspotSummary);
+    }
+    String deliverySummary = TpccDeliveryQueue.summarize(getPreviousState());
+    if (!deliverySummary.isEmpty()) {
+      logInfo(deliverySummary);
+    }
+    String phaseSummary = InstrumentedTransactionManager.summarize(getPreviousState());
+    if (!phaseSummary.isEmpty()) {
+      logInfo(phaseSummary);
+    }
+    String clientSummary = AllocationMeter.summarize(getPreviousState());
+    if (!clientSummary.isEmpty()) {
+      logInfo(clientSummary);
+    }
+    String openLoopSummary = ArrivalScheduler.summarize(getPreviousState());
+    if (!openLoopSummary.isEmpty()) {
+      logInfo(openLoopSummary);
+    }
   }
 
   @Override
   public void close() {}
+
+  /**
+   * Returns tpmC and the checks of the transaction mix and the 90th percentile response times by
+   * the TPC-C specification. tpmC is the number of new-order transactions per minute in the
+   * measurement interval. It is comparable with published figures only if the terminals are
+   * emulated with keying and think times.
+   */
+  private String summarizeSpecMetrics(JsonObject state) {
+    if (state == null || !state.containsKey(LatencyRecorder.STATE_NAME)) {
+      return "";
+    }
+    JsonObject types = state.getJsonObject(LatencyRecorder.STATE_NAME);
+    String[] names = TYPES.clone();
+    if (!types.containsKey(names[DELIVERY_INDEX]) && types.containsKey(SPLIT_DELIVERY)) {
+      names[DELIVERY_INDEX] = SPLIT_DELIVERY;
+    }
+    long[] counts = new long[names.length];
+    long total = 0;
+    for (int i = 0; i < names.length; i++) {
+      if (types.containsKey(names[i])) {
+        counts[i] = Long.parseLong(types.getJsonObject(names[i]).getString("count"));
+        total += counts[i];
+      }
+    }
+    if (total == 0) {
+      return "";
+    }
+
+    long numWarehouses =
+        config.getUserLong(
+            TpccBench.CONFIG_NAME, TpccBench.NUM_WAREHOUSES, TpccBench.DEFAULT_NUM_WAREHOUSES);
+    double tpmC = counts[0] * 60.0 / Math.max(1, config.getRunForSec());
+    StringBuilder summary = new StringBuilder("==== TPC-C Metrics ====");
+    if (state.containsKey(TERMINAL_COUNT)) {
+      summary
+          .append(String.format("%nEmulated terminals: %s", state.getString(TERMINAL_COUNT)))
+          .append(String.format("%ntpmC: %.2f", tpmC))
+          .append(
+              String.format(
+                  "%ntpmC per warehouse: %.2f (at most %.2f with keying and think times)",
+                  tpmC / numWarehouses, MAX_TPMC_PER_WAREHOUSE));
+    } else {
+      summary.append(
+          String.format(
+              "%ntpmC: %.2f (without keying and think times, not comparable with published"
+                  + " figures)",
+              tpmC));
+    }
+    if (state.containsKey(NEW_ORDER_ROLLBACK_COUNT)) {
+      long newOrders = Long.parseLong(state.getString(NEW_ORDER_COUNT));
+      long rollbacks = Long.parseLong(state.getString(NEW_ORDER_ROLLBACK_COUNT));
+      summary.append(
+          String.format(
+              "%nRolled-back new-orders: %d of %d (%.2f%%, about %.0f%% by the specification)",
+              rollbacks,
+              newOrders,
+              100.0 * rollbacks / Math.max(1, newOrders),
+              NEW_ORDER_ROLLBACK_PERCENTAGE));
+    }
+
+    String rowFormat = "%n%-24s %10s %8s %8s %10s %10s %6s";
+    summary.append(
+        String.format(
+            rowFormat, "Type", "Count", "Mix(%)", "Min(%)", "p90(ms)", "Limit(ms)", "Check"));
+    for (int i = 0; i < names.length; i++) {
+      double mix = 100.0 * counts[i] / total;
+      boolean mixOk = mix >= MIN_MIX_PERCENTAGES[i];
+      String p90 = "-";
+      boolean p90Ok = true;
+      if (types.containsKey(names[i])) {
+        p90 = types.getJsonObject(names[i]).getString("p90");
+        p90Ok = Double.parseDouble(p90) <= P90_LIMIT_MILLIS[i];
+      }
+      summary.append(
+          String.format(
+              rowFormat,
+              names[i],
+              counts[i],
+              String.format("%.2f", mix),
+              MIN_MIX_PERCENTAGES[i] > 0 ? String.format("%.0f", MIN_MIX_PERCENTAGES[i]) : "-",
+              p90,
+              String.format("%.0f", P90_LIMIT_MILLIS[i]),
+              mixOk && p90Ok ? "OK" : "NG"));
+    }
+    if (types.containsKey(TpccDeliveryQueue.COMPLETION)) {
+      JsonObject deferred = types.getJsonObject(TpccDeliveryQueue.COMPLETION);
+      String p90 = deferred.getString("p90");
+      summary.append(
+          String.format(
+              rowFormat,
+              TpccDeliveryQueue.COMPLETION,
+              deferred.getString("count"),
+              "-",
+              "-",
+              p90,
+              String.format("%.0f", DEFERRED_DELIVERY_P90_LIMIT_MILLIS),
+              Double.parseDouble(p90) <= DEFERRED_DELIVERY_P90_LIMIT_MILLIS ? "OK" : "NG"));
+    }
+    return summary.toString();
+  }
+
+  /**
+   * Returns the conflict rate of each transaction type, i.e., the ratio of the attempts aborted by
+   * conflicts to all the attempts. Comparing the rates of runs with and without sorting the
+   * order-lines shows how many conflicts come from the order of the stock accesses.
+   */
+  private static String summarizeConflictRates(JsonObject state) {
+    if (state == null || !state.containsKey(LatencyRecorder.STATE_NAME)) {
+      return "";
+    }
+    JsonObject types = state.getJsonObject(LatencyRecorder.STATE_NAME);
+    StringBuilder summary = new StringBuilder("==== Conflict Rate ====");
+    if (state.containsKey(SORT_ORDER_LINES)) {
+      summary.append(String.format("%nOrder-lines sorted: %s", state.getString(SORT_ORDER_LINES)));
+    }
+    String rowFormat = "%n%-26s %10s %10s %14s";
+    summary.append(String.format(rowFormat, "Type", "Count", "Retries", "Conflict(%)"));
+    for (String type : types.keySet()) {
+      JsonObject stats = types.getJsonObject(type);
+      long count = Long.parseLong(stats.getString("count"));
+      long retries = Long.parseLong(stats.getString("retry-count"));
+      long attempts = count + retries;
+      summary.append(
+          String.format(
+              rowFormat,
+              type,
+              count,
+              retries,
+              attempts == 0 ? "-" : String.format("%.3f", 100.0 * retries / attempts)));
+    }
+    return summary.toString();
+  }
 }
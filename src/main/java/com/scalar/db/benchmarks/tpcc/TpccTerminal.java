@@ -0,0 +1,63 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A terminal that chooses the home warehouse and district of the transactions it issues.
+ *
+ * <p>A random terminal chooses them uniformly for every transaction. A terminal with affinity
+ * always uses the same warehouse and district, like a terminal of the TPC-C terminal model. The
+ * terminals with affinity are spread over the warehouses first and then over the districts, i.e.,
+ * terminal {@code i} is bound to warehouse {@code i % W + 1} and district {@code i / W % 10 + 1},
+ * so that more terminals than warehouses share a warehouse on different districts. Remote accesses
+ * such as remote supply warehouses and remote customers are still chosen randomly relative to the
+ * home warehouse.
+ */
+@Immutable
+public class TpccTerminal {
+  private static final int RANDOM = 0;
+
+  private final int numWarehouse;
+  private final int warehouseId;
+  private final int districtId;
+
+  private TpccTerminal(int numWarehouse, int warehouseId, int districtId) {
+    this.numWarehouse = numWarehouse;
+    this.warehouseId = warehouseId;
+    this.districtId = districtId;
+  }
+
+  /**
+   * Returns a terminal that chooses a random warehouse and district for every transaction.
+   *
+   * @param config a {@code TpccConfig} object
+   * @return a {@code TpccTerminal} object
+   */
+  public static TpccTerminal random(TpccConfig config) {
+    return new TpccTerminal(config.getNumWarehouse(), RANDOM, RANDOM);
+  }
+
+  /**
+   * Returns the terminal of the specified index, which is bound to a home warehouse and district.
+   *
+   * @param config a {@code TpccConfig} object
+   * @param index an index of the terminal starting from 0
+   * @return a {@code TpccTerminal} object
+   */
+  public static TpccTerminal withAffinity(TpccConfig config, int index) {
+    int numWarehouse = config.getNumWarehouse();
+    return new TpccTerminal(
+        numWarehouse,
+        index % numWarehouse + 1,
+        index / numWarehouse % Warehouse.DISTRICTS + 1);
+  }
+
+  public int getWarehouseId() {
+    return warehouseId == RANDOM ? TpccUtil.randomInt(1, numWarehouse) : warehouseId;
+  }
+
+  public int getDistrictId() {
+    return districtId == RANDOM ? TpccUtil.randomInt(1, Warehouse.DISTRICTS) : districtId;
+  }
+}
@@ -0,0 +1,172 @@
+package com.scalar.db.benchmarks.tpcc;
+
+import com.scalar.db.benchmarks.TimerWheel;
+import com.scalar.db.benchmarks.tpcc.transaction.NewOrderTransaction;
+import com.scalar.db.benchmarks.tpcc.transaction.OrderStatusTransaction;
+import com.scalar.db.benchmarks.tpcc.transaction.PaymentTransaction;
+import com.scalar.db.benchmarks.tpcc.transaction.TpccTransaction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Emulates TPC-C terminals with keying and think times.
+ *
+ * <p>Each emulated terminal repeats the cycle of the TPC-C terminal model: it selects a
+ * transaction, waits for the keying time of the transaction, submits it, and waits for a think
+ * time after the response. The keying times are the minimums of the specification, and the think
+ * times are negative-exponentially distributed with the mean of the specification, truncated at 10
+ * times the mean. A terminal is only a small object in a {@link TimerWheel} while it is keying or
+ * thinking, so thousands of terminals are multiplexed over the worker threads, which take the
+ * terminals whose transactions are due.
+ *
+ * <p>The response time of a transaction is measured from the end of the keying time, so it
+ * includes the time that the transaction waited for a worker thread. Kelpie measures the wait in
+ * {@link #take()} as a part of the operation, so Kelpie's own latency statistics are not meaningful
+ * with the emulation.
+ */
+@ThreadSafe
+public class TpccTerminalEmulator {
+  private static final long TICK_MILLIS = 10;
+  // covers the longest cycle (18 seconds of keying time and 120 seconds of think time)
+  private static final int SLOT_COUNT = 16384;
+  private static final long POLL_MILLIS = 100;
+  private static final int MAX_THINK_TIME_FACTOR = 10;
+
+  private final TimerWheel<Terminal> wheel = new TimerWheel<>(TICK_MILLIS, SLOT_COUNT);
+  private final TpccConfig config;
+  private final int terminalCount;
+  private final long runNanos;
+  private final Function<TpccTerminal, TpccTransaction> transactionFactory;
+  private volatile long endNanos;
+
+  /**
+   * Creates a {@code TpccTerminalEmulator}.
+   *
+   * @param config a {@code TpccConfig} object
+   * @param terminalsPerWarehouse the number of terminals per warehouse
+   * @param runSec the time in seconds for which the terminals run, including the ramp-up time
+   * @param transactionFactory a function that generates the next transaction of a terminal
+   */
+  public TpccTerminalEmulator(
+      TpccConfig config,
+      int terminalsPerWarehouse,
+      long runSec,
+      Function<TpccTerminal, TpccTransaction> transactionFactory) {
+    if (terminalsPerWarehouse < 1) {
+      throw new IllegalArgumentException("The number of terminals per warehouse must be positive");
+    }
+    this.config = config;
+    this.terminalCount = config.getNumWarehouse() * terminalsPerWarehouse;
+    this.runNanos = TimeUnit.SECONDS.toNanos(runSec);
+    this.transactionFactory = transactionFactory;
+  }
+
+  public int getTerminalCount() {
+    return terminalCount;
+  }
+
+  /**
+   * Takes a terminal whose transaction is due, waiting until one is due. The terminals start
+   * keying when a terminal is taken for the first time. The taken terminal must be returned with
+   * {@link #complete(Terminal)} after its transaction finishes.
+   *
+   * @return a terminal, or null if the run ended before any terminal was due
+   * @throws InterruptedException if interrupted while waiting
+   */
+  @Nullable
+  public Terminal take() throws InterruptedException {
+    start();
+    while (System.nanoTime() - endNanos < 0) {
+      Terminal terminal = wheel.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      if (terminal != null) {
+        return terminal;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Makes the specified terminal think after its transaction and then key the next transaction.
+   *
+   * @param terminal a terminal taken by {@link #take()}
+   */
+  public void complete(Terminal terminal) {
+    long thinkNanos = getThinkTimeNanos(terminal.transaction);
+    schedule(terminal, System.nanoTime() + thinkNanos);
+  }
+
+  private void start() {
+    if (endNanos != 0) {
+      return;
+    }
+    synchronized (this) {
+      if (endNanos != 0) {
+        return;
+      }
+      long now = System.nanoTime();
+      for (int i = 0; i < terminalCount; i++) {
+        Terminal terminal = new Terminal(TpccTerminal.withAffinity(config, i));
+        // start as if the terminals had just completed a transaction so that they don't submit
+        // their first transactions at the same time
+        schedule(terminal, now + getThinkTimeNanos(null));
+      }
+      endNanos = now + runNanos;
+    }
+  }
+
+  private void schedule(Terminal terminal, long nowNanos) {
+    terminal.transaction = transactionFactory.apply(terminal.terminal);
+    terminal.dueNanos = nowNanos + getKeyingTimeNanos(terminal.transaction);
+    wheel.schedule(terminal, terminal.dueNanos);
+  }
+
+  private static long getKeyingTimeNanos(TpccTransaction transaction) {
+    if (transaction instanceof NewOrderTransaction) {
+      return TimeUnit.SECONDS.toNanos(18);
+    } else if (transaction instanceof PaymentTransaction) {
+      return TimeUnit.SECONDS.toNanos(3);
+    } else {
+      // order-status, delivery, and stock-level
+      return TimeUnit.SECONDS.toNanos(2);
+    }
+  }
+
+  private static long getThinkTimeNanos(@Nullable TpccTransaction transaction) {
+    long meanNanos;
+    if (transaction == null
+        || transaction instanceof NewOrderTransaction
+        || transaction instanceof PaymentTransaction) {
+      meanNanos = TimeUnit.SECONDS.toNanos(12);
+    } else if (transaction instanceof OrderStatusTransaction) {
+      meanNanos = TimeUnit.SECONDS.toNanos(10);
+    } else {
+      // delivery and stock-level
+      meanNanos = TimeUnit.SECONDS.toNanos(5);
+    }
+    double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+    return (long) Math.min(-Math.log(random) * meanNanos, MAX_THINK_TIME_FACTOR * meanNanos);
+  }
+
+  /** An emulated terminal with the transaction that it is keying or has submitted. */
+  public static class Terminal {
+    private final TpccTerminal terminal;
+    private TpccTransaction transaction;
+    private long dueNanos;
+
+    private Terminal(TpccTerminal terminal) {
+      this.terminal = terminal;
+    }
+
+    public TpccTransaction getTransaction() {
+      return transaction;
+    }
+
+    /** Returns the time when the transaction was submitted, i.e., the end of its keying time. */
+    public long getDueNanos() {
+      return dueNanos;
+    }
+  }
+}
@@ -23,6 +23,10 @@ public class TpccUtil {
   public static final int CUSTOMER_ID = 987;
   public static final int ORDER_LINE_ITEM_ID = 5987;
 
+  // the customer columns to find the midpoint customer by last name
+  private static final String[] CUSTOMER_COLUMNS = {Customer.KEY_ID, Customer.KEY_FIRST};
+  private static final String[] CUSTOMER_SECONDARY_COLUMNS = {CustomerSecondary.KEY_CUSTOMER_ID};
+
   /**
    * Returns a customer ID by scanning Customer table using secondary index.
    *
@@ -30,13 +34,24 @@ public class TpccUtil {
    * @param warehouseId a warehouse ID
    * @param districtId a district ID
    * @param customerLastName a {@code String} of customer last name
+   * @param config a {@code TpccConfig} object
    * @return a customer ID
    * @throws TransactionException if the scan failed
    */
   public static int getCustomerIdBySecondaryIndex(
-      DistributedTransaction tx, int warehouseId, int districtId, String customerLastName)
+      DistributedTransaction tx,
+      int warehouseId,
+      int districtId,
+      String customerLastName,
+      TpccConfig config)
       throws TransactionException {
-    List<Result> results = tx.scan(Customer.createScan(warehouseId, districtId, customerLastName));
+    List<Result> results =
+        tx.scan(
+            Customer.createScan(
+                warehouseId,
+                districtId,
+                customerLastName,
+                config.projections(CUSTOMER_COLUMNS)));
     results.sort(Customer.FIRST_NAME_COMPARATOR);
     int offset = (results.size() + 1) / 2 - 1; // locate midpoint customer
     return results.get(offset).getValue(Customer.KEY_ID).get().getAsInt();
@@ -49,14 +64,24 @@ public class TpccUtil {
    * @param warehouseId a warehouse ID
    * @param districtId a district ID
    * @param customerLastName a {@code String} of customer last name
+   * @param config a {@code TpccConfig} object
    * @return a customer ID
    * @throws TransactionException if the scan failed
    */
   public static int getCustomerIdByTableIndex(
-      DistributedTransaction tx, int warehouseId, int districtId, String customerLastName)
+      DistributedTransaction tx,
+      int warehouseId,
+      int districtId,
+      String customerLastName,
+      TpccConfig config)
       throws TransactionException {
     List<Result> results =
-        tx.scan(CustomerSecondary.createScan(warehouseId, districtId, customerLastName));
+        tx.scan(
+            CustomerSecondary.createScan(
+                warehouseId,
+                districtId,
+                customerLastName,
+                config.projections(CUSTOMER_SECONDARY_COLUMNS)));
     int offset = (results.size() + 1) / 2 - 1; // locate midpoint customer
     return results.get(offset).getValue(CustomerSecondary.KEY_CUSTOMER_ID).get().getAsInt();
   }
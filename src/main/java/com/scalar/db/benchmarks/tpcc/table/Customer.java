@@ -4,17 +4,12 @@ import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.benchmarks.tpcc.TpccCsv;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import org.apache.commons.csv.CSVRecord;
 
 public class Customer extends TpccRecord {
@@ -78,29 +73,23 @@ public class Customer extends TpccRecord {
       double ytdPayment,
       int paymentCount,
       String data) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-    partitionKeyMap.put(KEY_ID, customerId);
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_BALANCE, balance);
-    valueMap.put(KEY_YTD_PAYMENT, ytdPayment);
-    valueMap.put(KEY_PAYMENT_CNT, paymentCount);
-    valueMap.put(KEY_DATA, data);
+    super(4);
+    partitionKey = createPartitionKey(warehouseId, districtId, customerId);
+
+    addColumn(KEY_BALANCE, balance);
+    addColumn(KEY_YTD_PAYMENT, ytdPayment);
+    addColumn(KEY_PAYMENT_CNT, paymentCount);
+    addColumn(KEY_DATA, data);
   }
 
   /** Constructs a {@code Customer} for delivery transaction. */
   public Customer(
       int warehouseId, int districtId, int customerId, double balance, int deliveryCount) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-    partitionKeyMap.put(KEY_ID, customerId);
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_BALANCE, balance);
-    valueMap.put(KEY_DELIVERY_CNT, deliveryCount);
+    super(2);
+    partitionKey = createPartitionKey(warehouseId, districtId, customerId);
+
+    addColumn(KEY_BALANCE, balance);
+    addColumn(KEY_DELIVERY_CNT, deliveryCount);
   }
 
   /**
@@ -111,34 +100,31 @@ public class Customer extends TpccRecord {
    * @param customerId a customer ID
    */
   public Customer(int warehouseId, int districtId, int customerId, Date date) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-    partitionKeyMap.put(KEY_ID, customerId);
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_FIRST, TpccUtil.randomAlphaString(MIN_FIRST, MAX_FIRST));
-    valueMap.put(KEY_MIDDLE, "OE");
+    super(19);
+    partitionKey = createPartitionKey(warehouseId, districtId, customerId);
+
+    addColumn(KEY_FIRST, TpccUtil.randomAlphaString(MIN_FIRST, MAX_FIRST));
+    addColumn(KEY_MIDDLE, "OE");
     if (customerId <= 1000) {
-      valueMap.put(KEY_LAST, TpccUtil.getLastName(customerId - 1));
+      addColumn(KEY_LAST, TpccUtil.getLastName(customerId - 1));
     } else {
-      valueMap.put(KEY_LAST, TpccUtil.getNonUniformRandomLastNameForLoad());
+      addColumn(KEY_LAST, TpccUtil.getNonUniformRandomLastNameForLoad());
     }
-    valueMap.put(KEY_DISCOUNT, TpccUtil.randomDouble(0, 5000, 10000));
+    addColumn(KEY_DISCOUNT, TpccUtil.randomDouble(0, 5000, 10000));
     if (TpccUtil.randomInt(0, 99) < 10) {
-      valueMap.put(KEY_CREDIT, "BC");
+      addColumn(KEY_CREDIT, "BC");
     } else {
-      valueMap.put(KEY_CREDIT, "GC");
+      addColumn(KEY_CREDIT, "GC");
     }
-    valueMap.put(KEY_CREDIT_LIM, 50000.00);
-    valueMap.put(KEY_BALANCE, 10.00);
-    valueMap.put(KEY_YTD_PAYMENT, 10.00);
-    valueMap.put(KEY_PAYMENT_CNT, 1);
-    valueMap.put(KEY_DELIVERY_CNT, 0);
-    valueMap.put(KEY_ADDRESS, new Address(COLUMN_PREFIX));
-    valueMap.put(KEY_PHONE, TpccUtil.randomNumberString(PHONE_SIZE));
-    valueMap.put(KEY_SINCE, date);
-    valueMap.put(KEY_DATA, TpccUtil.randomAlphaString(MIN_DATA, MAX_DATA));
+    addColumn(KEY_CREDIT_LIM, 50000.00);
+    addColumn(KEY_BALANCE, 10.00);
+    addColumn(KEY_YTD_PAYMENT, 10.00);
+    addColumn(KEY_PAYMENT_CNT, 1);
+    addColumn(KEY_DELIVERY_CNT, 0);
+    addColumns(new Address(COLUMN_PREFIX));
+    addColumn(KEY_PHONE, TpccUtil.randomNumberString(PHONE_SIZE));
+    addColumn(KEY_SINCE, date);
+    addColumn(KEY_DATA, TpccUtil.randomAlphaString(MIN_DATA, MAX_DATA));
   }
 
   /**
@@ -146,25 +132,25 @@ public class Customer extends TpccRecord {
    *
    * @param record a {@code CSVRecord} object
    */
-  public Customer(CSVRecord record) throws ParseException {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
-    partitionKeyMap.put(KEY_ID, Integer.parseInt(record.get(KEY_ID)));
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_FIRST, record.get(KEY_FIRST));
-    valueMap.put(KEY_MIDDLE, record.get(KEY_MIDDLE));
-    valueMap.put(KEY_LAST, record.get(KEY_LAST));
-    valueMap.put(KEY_DISCOUNT, Double.parseDouble(record.get(KEY_DISCOUNT)));
-    valueMap.put(KEY_CREDIT, record.get(KEY_CREDIT));
-    valueMap.put(KEY_CREDIT_LIM, Double.parseDouble(record.get(KEY_CREDIT_LIM)));
-    valueMap.put(KEY_BALANCE, Double.parseDouble(record.get(KEY_BALANCE)));
-    valueMap.put(KEY_YTD_PAYMENT, Double.parseDouble(record.get(KEY_YTD_PAYMENT)));
-    valueMap.put(KEY_PAYMENT_CNT, Integer.parseInt(record.get(KEY_PAYMENT_CNT)));
-    valueMap.put(KEY_DELIVERY_CNT, Integer.parseInt(record.get(KEY_DELIVERY_CNT)));
-    valueMap.put(
-        KEY_ADDRESS,
+  public Customer(CSVRecord record) {
+    super(19);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)),
+            Integer.parseInt(record.get(KEY_ID)));
+
+    addColumn(KEY_FIRST, record.get(KEY_FIRST));
+    addColumn(KEY_MIDDLE, record.get(KEY_MIDDLE));
+    addColumn(KEY_LAST, record.get(KEY_LAST));
+    addColumn(KEY_DISCOUNT, Double.parseDouble(record.get(KEY_DISCOUNT)));
+    addColumn(KEY_CREDIT, record.get(KEY_CREDIT));
+    addColumn(KEY_CREDIT_LIM, Double.parseDouble(record.get(KEY_CREDIT_LIM)));
+    addColumn(KEY_BALANCE, Double.parseDouble(record.get(KEY_BALANCE)));
+    addColumn(KEY_YTD_PAYMENT, Double.parseDouble(record.get(KEY_YTD_PAYMENT)));
+    addColumn(KEY_PAYMENT_CNT, Integer.parseInt(record.get(KEY_PAYMENT_CNT)));
+    addColumn(KEY_DELIVERY_CNT, Integer.parseInt(record.get(KEY_DELIVERY_CNT)));
+    addColumns(
         new Address(
             COLUMN_PREFIX,
             record.get(KEY_STREET_1),
@@ -172,10 +158,9 @@ public class Customer extends TpccRecord {
             record.get(KEY_CITY),
             record.get(KEY_STATE),
             record.get(KEY_ZIP)));
-    valueMap.put(KEY_PHONE, record.get(KEY_PHONE));
-    valueMap.put(KEY_DATA, record.get(KEY_DATA));
-    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    valueMap.put(KEY_SINCE, dateFormat.parse(record.get(KEY_SINCE)));
+    addColumn(KEY_PHONE, record.get(KEY_PHONE));
+    addColumn(KEY_DATA, record.get(KEY_DATA));
+    addColumn(KEY_SINCE, TpccCsv.parseDate(record.get(KEY_SINCE)));
   }
 
   /**
@@ -187,11 +172,11 @@ public class Customer extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId, int customerId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    keys.add(new IntValue(KEY_ID, customerId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .addInt(KEY_ID, customerId)
+        .build();
   }
 
   private static String createIndexString(int warehouseId, int districtId, String lastName) {
@@ -203,9 +188,10 @@ public class Customer extends TpccRecord {
    *
    * @return a {@code Scan} object
    */
-  public static Scan createScan(int warehouseId, int districtId, String lastName) {
+  public static Scan createScan(
+      int warehouseId, int districtId, String lastName, String... projections) {
     Key key = new Key(KEY_INDEX, createIndexString(warehouseId, districtId, lastName));
-    return new Scan(key).forTable(TABLE_NAME);
+    return new Scan(key).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -214,11 +200,13 @@ public class Customer extends TpccRecord {
    * @param warehouseId a warehouse ID
    * @param districtId a district ID
    * @param customerId a customer ID
+   * @param projections the columns to read, or none to read all the columns
    * @return a {@code Get} object
    */
-  public static Get createGet(int warehouseId, int districtId, int customerId) {
+  public static Get createGet(
+      int warehouseId, int districtId, int customerId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId, customerId);
-    return new Get(partitionKey).forTable(TABLE_NAME);
+    return new Get(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -228,25 +216,22 @@ public class Customer extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 
   /** Builds a column for secondary index. */
   public void buildIndexColumn() {
-    int warehouseId = (int) partitionKeyMap.get(KEY_WAREHOUSE_ID);
-    int districtId = (int) partitionKeyMap.get(KEY_DISTRICT_ID);
-    String lastName = (String) valueMap.get(KEY_LAST);
-    String index = createIndexString(warehouseId, districtId, lastName);
-    valueMap.put(KEY_INDEX, index);
+    int warehouseId = (Integer) getColumn(KEY_WAREHOUSE_ID);
+    int districtId = (Integer) getColumn(KEY_DISTRICT_ID);
+    String index = createIndexString(warehouseId, districtId, getLastName());
+    addColumn(KEY_INDEX, index);
   }
 
   public String getFirstName() {
-    return (String) valueMap.get(KEY_FIRST);
+    return (String) getColumn(KEY_FIRST);
   }
 
   public String getLastName() {
-    return (String) valueMap.get(KEY_LAST);
+    return (String) getColumn(KEY_LAST);
   }
 }
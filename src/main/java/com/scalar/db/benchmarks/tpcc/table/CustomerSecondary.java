@@ -2,12 +2,8 @@ package com.scalar.db.benchmarks.tpcc.table;
 
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Scan;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class CustomerSecondary extends TpccRecord {
@@ -31,14 +27,10 @@ public class CustomerSecondary extends TpccRecord {
    */
   public CustomerSecondary(
       int warehouseId, int districtId, String last, String first, int customerId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-    partitionKeyMap.put(KEY_LAST, last);
+    super(0);
+    partitionKey = createPartitionKey(warehouseId, districtId, last);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_FIRST, first);
-    clusteringKeyMap.put(KEY_CUSTOMER_ID, customerId);
+    clusteringKey = createClusteringKey(first, customerId);
   }
 
   /**
@@ -47,14 +39,15 @@ public class CustomerSecondary extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public CustomerSecondary(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
-    partitionKeyMap.put(KEY_LAST, record.get(KEY_LAST));
+    super(0);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)),
+            record.get(KEY_LAST));
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_FIRST, record.get(KEY_FIRST));
-    clusteringKeyMap.put(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
+    clusteringKey =
+        createClusteringKey(record.get(KEY_FIRST), Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
   }
 
   /**
@@ -66,11 +59,11 @@ public class CustomerSecondary extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId, String lastName) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    keys.add(new TextValue(KEY_LAST, lastName));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .addText(KEY_LAST, lastName)
+        .build();
   }
 
   /**
@@ -81,10 +74,10 @@ public class CustomerSecondary extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createClusteringKey(String firstName, int customerId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new TextValue(KEY_FIRST, firstName));
-    keys.add(new IntValue(KEY_CUSTOMER_ID, customerId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addText(KEY_FIRST, firstName)
+        .addInt(KEY_CUSTOMER_ID, customerId)
+        .build();
   }
 
   /**
@@ -94,9 +87,7 @@ public class CustomerSecondary extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    Key clusteringKey = createClusteringKey();
-    return new Put(partitionKey, clusteringKey).forTable(TABLE_NAME);
+    return createPut(TABLE_NAME);
   }
 
   /**
@@ -104,8 +95,9 @@ public class CustomerSecondary extends TpccRecord {
    *
    * @return a {@code Scan} object
    */
-  public static Scan createScan(int warehouseId, int districtId, String lastName) {
+  public static Scan createScan(
+      int warehouseId, int districtId, String lastName, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId, lastName);
-    return new Scan(partitionKey).forTable(TABLE_NAME);
+    return new Scan(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 }
@@ -3,12 +3,8 @@ package com.scalar.db.benchmarks.tpcc.table;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class District extends TpccRecord {
@@ -41,12 +37,10 @@ public class District extends TpccRecord {
    * @param ytd a YTD balance
    */
   public District(int warehouseId, int districtId, double ytd) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_ID, districtId);
+    super(1);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_YTD, ytd);
+    addColumn(KEY_YTD, ytd);
   }
 
   /**
@@ -57,12 +51,10 @@ public class District extends TpccRecord {
    * @param nextOrderId a next order ID
    */
   public District(int warehouseId, int districtId, int nextOrderId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_ID, districtId);
+    super(1);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NEXT_O_ID, nextOrderId);
+    addColumn(KEY_NEXT_O_ID, nextOrderId);
   }
 
   /**
@@ -72,16 +64,14 @@ public class District extends TpccRecord {
    * @param districtId a district ID
    */
   public District(int warehouseId, int districtId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_ID, districtId);
+    super(9);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
-    valueMap.put(KEY_ADDRESS, new Address(COLUMN_PREFIX));
-    valueMap.put(KEY_TAX, TpccUtil.randomDouble(0, 2000, 10000));
-    valueMap.put(KEY_YTD, 30000.00);
-    valueMap.put(KEY_NEXT_O_ID, 3001);
+    addColumn(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
+    addColumns(new Address(COLUMN_PREFIX));
+    addColumn(KEY_TAX, TpccUtil.randomDouble(0, 2000, 10000));
+    addColumn(KEY_YTD, 30000.00);
+    addColumn(KEY_NEXT_O_ID, 3001);
   }
 
   /**
@@ -90,14 +80,14 @@ public class District extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public District(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_ID, Integer.parseInt(record.get(KEY_ID)));
+    super(9);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_ID)));
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, record.get(KEY_NAME));
-    valueMap.put(
-        KEY_ADDRESS,
+    addColumn(KEY_NAME, record.get(KEY_NAME));
+    addColumns(
         new Address(
             COLUMN_PREFIX,
             record.get(KEY_STREET_1),
@@ -105,9 +95,9 @@ public class District extends TpccRecord {
             record.get(KEY_CITY),
             record.get(KEY_STATE),
             record.get(KEY_ZIP)));
-    valueMap.put(KEY_TAX, Double.parseDouble(record.get(KEY_TAX)));
-    valueMap.put(KEY_YTD, Double.parseDouble(record.get(KEY_YTD)));
-    valueMap.put(KEY_NEXT_O_ID, Integer.parseInt(record.get(KEY_NEXT_O_ID)));
+    addColumn(KEY_TAX, Double.parseDouble(record.get(KEY_TAX)));
+    addColumn(KEY_YTD, Double.parseDouble(record.get(KEY_YTD)));
+    addColumn(KEY_NEXT_O_ID, Integer.parseInt(record.get(KEY_NEXT_O_ID)));
   }
 
   /**
@@ -118,10 +108,10 @@ public class District extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_ID, districtId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_ID, districtId)
+        .build();
   }
 
   /**
@@ -129,11 +119,12 @@ public class District extends TpccRecord {
    *
    * @param warehouseId a warehouse ID
    * @param districtId a district ID
+   * @param projections the columns to read, or none to read all the columns
    * @return a {@code Get} object
    */
-  public static Get createGet(int warehouseId, int districtId) {
+  public static Get createGet(int warehouseId, int districtId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId);
-    return new Get(partitionKey).forTable(TABLE_NAME);
+    return new Get(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -143,8 +134,6 @@ public class District extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 }
@@ -1,15 +1,10 @@
 package com.scalar.db.benchmarks.tpcc.table;
 
 import com.scalar.db.api.Put;
+import com.scalar.db.benchmarks.tpcc.TpccCsv;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.UUID;
 import org.apache.commons.csv.CSVRecord;
 
@@ -51,18 +46,17 @@ public class History extends TpccRecord {
       Date date,
       double amount,
       String data) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, UUID.randomUUID().toString());
+    super(8);
+    partitionKey = createPartitionKey(UUID.randomUUID().toString());
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, customerId);
-    valueMap.put(KEY_CUSTOMER_DID, customerDistrictId);
-    valueMap.put(KEY_CUSTOMER_WID, customerWarehouseId);
-    valueMap.put(KEY_DISTRICT_ID, districtId);
-    valueMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    valueMap.put(KEY_DATE, date);
-    valueMap.put(KEY_AMOUNT, amount);
-    valueMap.put(KEY_DATA, data);
+    addColumn(KEY_CUSTOMER_ID, customerId);
+    addColumn(KEY_CUSTOMER_DID, customerDistrictId);
+    addColumn(KEY_CUSTOMER_WID, customerWarehouseId);
+    addColumn(KEY_DISTRICT_ID, districtId);
+    addColumn(KEY_WAREHOUSE_ID, warehouseId);
+    addColumn(KEY_DATE, date);
+    addColumn(KEY_AMOUNT, amount);
+    addColumn(KEY_DATA, data);
   }
 
   /**
@@ -82,18 +76,17 @@ public class History extends TpccRecord {
       int districtId,
       int warehouseId,
       Date date) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, UUID.randomUUID().toString());
+    super(8);
+    partitionKey = createPartitionKey(UUID.randomUUID().toString());
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, customerId);
-    valueMap.put(KEY_CUSTOMER_DID, customerDistrictId);
-    valueMap.put(KEY_CUSTOMER_WID, customerWarehouseId);
-    valueMap.put(KEY_DISTRICT_ID, districtId);
-    valueMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    valueMap.put(KEY_DATE, date);
-    valueMap.put(KEY_AMOUNT, 10.00);
-    valueMap.put(KEY_DATA, TpccUtil.randomAlphaString(MIN_DATA, MAX_DATA));
+    addColumn(KEY_CUSTOMER_ID, customerId);
+    addColumn(KEY_CUSTOMER_DID, customerDistrictId);
+    addColumn(KEY_CUSTOMER_WID, customerWarehouseId);
+    addColumn(KEY_DISTRICT_ID, districtId);
+    addColumn(KEY_WAREHOUSE_ID, warehouseId);
+    addColumn(KEY_DATE, date);
+    addColumn(KEY_AMOUNT, 10.00);
+    addColumn(KEY_DATA, TpccUtil.randomAlphaString(MIN_DATA, MAX_DATA));
   }
 
   /**
@@ -101,20 +94,28 @@ public class History extends TpccRecord {
    *
    * @param record a {@code CSVRecord} object
    */
-  public History(CSVRecord record) throws ParseException {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, UUID.randomUUID().toString());
+  public History(CSVRecord record) {
+    super(8);
+    partitionKey = createPartitionKey(UUID.randomUUID().toString());
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
-    valueMap.put(KEY_CUSTOMER_DID, Integer.parseInt(record.get(KEY_CUSTOMER_DID)));
-    valueMap.put(KEY_CUSTOMER_WID, Integer.parseInt(record.get(KEY_CUSTOMER_WID)));
-    valueMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
-    valueMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    valueMap.put(KEY_DATE, dateFormat.parse(record.get(KEY_DATE)));
-    valueMap.put(KEY_AMOUNT, Double.parseDouble(record.get(KEY_AMOUNT)));
-    valueMap.put(KEY_DATA, record.get(KEY_DATA));
+    addColumn(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
+    addColumn(KEY_CUSTOMER_DID, Integer.parseInt(record.get(KEY_CUSTOMER_DID)));
+    addColumn(KEY_CUSTOMER_WID, Integer.parseInt(record.get(KEY_CUSTOMER_WID)));
+    addColumn(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
+    addColumn(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
+    addColumn(KEY_DATE, TpccCsv.parseDate(record.get(KEY_DATE)));
+    addColumn(KEY_AMOUNT, Double.parseDouble(record.get(KEY_AMOUNT)));
+    addColumn(KEY_DATA, record.get(KEY_DATA));
+  }
+
+  /**
+   * Creates a partition {@code Key}.
+   *
+   * @param historyId a history ID
+   * @return a {@code Key} object
+   */
+  public static Key createPartitionKey(String historyId) {
+    return Key.ofText(KEY_ID, historyId);
   }
 
   /**
@@ -124,8 +125,6 @@ public class History extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 }
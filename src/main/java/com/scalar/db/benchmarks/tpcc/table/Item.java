@@ -4,10 +4,7 @@ import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class Item extends TpccRecord {
@@ -33,14 +30,13 @@ public class Item extends TpccRecord {
    * @param itemId an item ID
    */
   public Item(int itemId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, itemId);
+    super(4);
+    partitionKey = createPartitionKey(itemId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
-    valueMap.put(KEY_PRICE, TpccUtil.randomDouble(100, 1000, 100));
-    valueMap.put(KEY_DATA, TpccUtil.getRandomStringWithOriginal(MIN_DATA, MAX_DATA, 10));
-    valueMap.put(KEY_IM_ID, TpccUtil.randomInt(1, 10000));
+    addColumn(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
+    addColumn(KEY_PRICE, TpccUtil.randomDouble(100, 1000, 100));
+    addColumn(KEY_DATA, TpccUtil.getRandomStringWithOriginal(MIN_DATA, MAX_DATA, 10));
+    addColumn(KEY_IM_ID, TpccUtil.randomInt(1, 10000));
   }
 
   /**
@@ -49,14 +45,13 @@ public class Item extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public Item(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, Integer.parseInt(record.get(KEY_ID)));
+    super(4);
+    partitionKey = createPartitionKey(Integer.parseInt(record.get(KEY_ID)));
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, record.get(KEY_NAME));
-    valueMap.put(KEY_PRICE, Double.parseDouble(record.get(KEY_PRICE)));
-    valueMap.put(KEY_DATA, record.get(KEY_DATA));
-    valueMap.put(KEY_IM_ID, Integer.parseInt(record.get(KEY_IM_ID)));
+    addColumn(KEY_NAME, record.get(KEY_NAME));
+    addColumn(KEY_PRICE, Double.parseDouble(record.get(KEY_PRICE)));
+    addColumn(KEY_DATA, record.get(KEY_DATA));
+    addColumn(KEY_IM_ID, Integer.parseInt(record.get(KEY_IM_ID)));
   }
 
   /**
@@ -66,18 +61,19 @@ public class Item extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int itemId) {
-    return new Key(KEY_ID, itemId);
+    return Key.ofInt(KEY_ID, itemId);
   }
 
   /**
    * Creates a {@code Get} object.
    *
    * @param itemId an item ID
+   * @param projections the columns to read, or none to read all the columns
    * @return a {@code Get} object
    */
-  public static Get createGet(int itemId) {
+  public static Get createGet(int itemId, String... projections) {
     Key partitionKey = createPartitionKey(itemId);
-    return new Get(partitionKey).forTable(TABLE_NAME);
+    return new Get(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -87,8 +83,6 @@ public class Item extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 }
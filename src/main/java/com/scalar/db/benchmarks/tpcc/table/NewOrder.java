@@ -4,11 +4,8 @@ import com.scalar.db.api.Delete;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Scan;
 import com.scalar.db.api.Scan.Ordering;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class NewOrder extends TpccRecord {
@@ -28,12 +25,10 @@ public class NewOrder extends TpccRecord {
    * @param orderId an order ID
    */
   public NewOrder(int warehouseId, int districtId, int orderId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
+    super(0);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, orderId);
+    clusteringKey = createClusteringKey(orderId);
   }
 
   /**
@@ -42,12 +37,13 @@ public class NewOrder extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public NewOrder(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
+    super(0);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)));
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, Integer.parseInt(record.get(KEY_ORDER_ID)));
+    clusteringKey = createClusteringKey(Integer.parseInt(record.get(KEY_ORDER_ID)));
   }
 
   /**
@@ -58,10 +54,10 @@ public class NewOrder extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .build();
   }
 
   /**
@@ -71,7 +67,7 @@ public class NewOrder extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createClusteringKey(int orderId) {
-    return new Key(KEY_ORDER_ID, orderId);
+    return Key.ofInt(KEY_ORDER_ID, orderId);
   }
 
   /**
@@ -81,9 +77,7 @@ public class NewOrder extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    Key clusteringKey = createClusteringKey();
-    return new Put(partitionKey, clusteringKey).forTable(TABLE_NAME);
+    return createPut(TABLE_NAME);
   }
 
   /** Creates a {@code Delete} object. */
@@ -94,10 +88,11 @@ public class NewOrder extends TpccRecord {
   }
 
   /** Creates a {@code Scan} object for the oldest outstanding new-order. */
-  public static Scan createScan(int warehouseId, int districtId) {
+  public static Scan createScan(int warehouseId, int districtId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId);
     return new Scan(partitionKey)
         .forTable(TABLE_NAME)
+        .withProjections(Arrays.asList(projections))
         .withOrdering(new Ordering(KEY_ORDER_ID, Scan.Ordering.Order.ASC))
         .withLimit(1);
   }
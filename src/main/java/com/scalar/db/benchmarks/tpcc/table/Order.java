@@ -4,17 +4,12 @@ import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Result;
 import com.scalar.db.api.Scan;
+import com.scalar.db.benchmarks.tpcc.TpccCsv;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import org.apache.commons.csv.CSVRecord;
 
 public class Order extends TpccRecord {
@@ -47,15 +42,12 @@ public class Order extends TpccRecord {
    * @param carrierId a carrier ID
    */
   public Order(int warehouseId, int districtId, int orderId, int carrierId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
+    super(1);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ID, orderId);
+    clusteringKey = createClusteringKey(orderId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CARRIER_ID, carrierId);
+    addColumn(KEY_CARRIER_ID, carrierId);
   }
 
   /**
@@ -79,19 +71,16 @@ public class Order extends TpccRecord {
       int number,
       int local,
       Date date) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ID, orderId);
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, customerId);
-    valueMap.put(KEY_CARRIER_ID, carrierId);
-    valueMap.put(KEY_OL_CNT, number);
-    valueMap.put(KEY_ALL_LOCAL, local);
-    valueMap.put(KEY_ENTRY_D, date);
+    super(6);
+    partitionKey = createPartitionKey(warehouseId, districtId);
+
+    clusteringKey = createClusteringKey(orderId);
+
+    addColumn(KEY_CUSTOMER_ID, customerId);
+    addColumn(KEY_CARRIER_ID, carrierId);
+    addColumn(KEY_OL_CNT, number);
+    addColumn(KEY_ALL_LOCAL, local);
+    addColumn(KEY_ENTRY_D, date);
   }
 
   /**
@@ -104,23 +93,20 @@ public class Order extends TpccRecord {
    * @param date entry date of this order
    */
   public Order(int warehouseId, int districtId, int orderId, int customerId, Date date) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
+    super(6);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ID, orderId);
+    clusteringKey = createClusteringKey(orderId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, customerId);
+    addColumn(KEY_CUSTOMER_ID, customerId);
     if (orderId < 2101) {
-      valueMap.put(KEY_CARRIER_ID, TpccUtil.randomInt(1, 10));
+      addColumn(KEY_CARRIER_ID, TpccUtil.randomInt(1, 10));
     } else {
-      valueMap.put(KEY_CARRIER_ID, 0);
+      addColumn(KEY_CARRIER_ID, 0);
     }
-    valueMap.put(KEY_OL_CNT, TpccUtil.randomInt(OrderLine.MIN_PER_ORDER, OrderLine.MAX_PER_ORDER));
-    valueMap.put(KEY_ALL_LOCAL, 1);
-    valueMap.put(KEY_ENTRY_D, date);
+    addColumn(KEY_OL_CNT, TpccUtil.randomInt(OrderLine.MIN_PER_ORDER, OrderLine.MAX_PER_ORDER));
+    addColumn(KEY_ALL_LOCAL, 1);
+    addColumn(KEY_ENTRY_D, date);
   }
 
   /**
@@ -128,25 +114,24 @@ public class Order extends TpccRecord {
    *
    * @param record a {@code CSVRecord} object
    */
-  public Order(CSVRecord record) throws ParseException {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
+  public Order(CSVRecord record) {
+    super(6);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)));
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ID, Integer.parseInt(record.get(KEY_ID)));
+    clusteringKey = createClusteringKey(Integer.parseInt(record.get(KEY_ID)));
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
+    addColumn(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
     if (!record.get(KEY_CARRIER_ID).isEmpty() && !record.get(KEY_CARRIER_ID).equals("\\N")) {
-      valueMap.put(KEY_CARRIER_ID, Integer.parseInt(record.get(KEY_CARRIER_ID)));
+      addColumn(KEY_CARRIER_ID, Integer.parseInt(record.get(KEY_CARRIER_ID)));
     } else {
-      valueMap.put(KEY_CARRIER_ID, 0);
+      addColumn(KEY_CARRIER_ID, 0);
     }
-    valueMap.put(KEY_OL_CNT, Integer.parseInt(record.get(KEY_OL_CNT)));
-    valueMap.put(KEY_ALL_LOCAL, Integer.parseInt(record.get(KEY_ALL_LOCAL)));
-    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    valueMap.put(KEY_ENTRY_D, dateFormat.parse(record.get(KEY_ENTRY_D)));
+    addColumn(KEY_OL_CNT, Integer.parseInt(record.get(KEY_OL_CNT)));
+    addColumn(KEY_ALL_LOCAL, Integer.parseInt(record.get(KEY_ALL_LOCAL)));
+    addColumn(KEY_ENTRY_D, TpccCsv.parseDate(record.get(KEY_ENTRY_D)));
   }
 
   /**
@@ -157,10 +142,10 @@ public class Order extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .build();
   }
 
   /**
@@ -170,7 +155,7 @@ public class Order extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createClusteringKey(int orderId) {
-    return new Key(KEY_ID, orderId);
+    return Key.ofInt(KEY_ID, orderId);
   }
 
   private static String createIndexString(int warehouseId, int districtId, int customerId) {
@@ -184,16 +169,19 @@ public class Order extends TpccRecord {
    *
    * @return a {@code Scan} object
    */
-  public static Scan createScan(int warehouseId, int districtId, int customerId) {
+  public static Scan createScan(
+      int warehouseId, int districtId, int customerId, String... projections) {
     Key key = new Key(KEY_INDEX, createIndexString(warehouseId, districtId, customerId));
-    return new Scan(key).forTable(TABLE_NAME);
+    return new Scan(key).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /** Creates a {@code Get} object. */
-  public static Get createGet(int warehouseId, int districtId, int orderId) {
+  public static Get createGet(int warehouseId, int districtId, int orderId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId);
     Key clusteringKey = createClusteringKey(orderId);
-    return new Get(partitionKey, clusteringKey).forTable(TABLE_NAME);
+    return new Get(partitionKey, clusteringKey)
+        .forTable(TABLE_NAME)
+        .withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -203,22 +191,19 @@ public class Order extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    Key clusteringKey = createClusteringKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey, clusteringKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 
   /** Builds a column for secondary index. */
   public void buildIndexColumn() {
-    int warehouseId = (int) partitionKeyMap.get(KEY_WAREHOUSE_ID);
-    int districtId = (int) partitionKeyMap.get(KEY_DISTRICT_ID);
-    int customerId = (int) valueMap.get(KEY_CUSTOMER_ID);
+    int warehouseId = (Integer) getColumn(KEY_WAREHOUSE_ID);
+    int districtId = (Integer) getColumn(KEY_DISTRICT_ID);
+    int customerId = (Integer) getColumn(KEY_CUSTOMER_ID);
     String index = createIndexString(warehouseId, districtId, customerId);
-    valueMap.put(KEY_INDEX, index);
+    addColumn(KEY_INDEX, index);
   }
 
   public int getOrderLineCount() {
-    return (Integer) valueMap.get(KEY_OL_CNT);
+    return (Integer) getColumn(KEY_OL_CNT);
   }
 }
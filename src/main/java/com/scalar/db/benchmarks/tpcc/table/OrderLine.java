@@ -2,16 +2,11 @@ package com.scalar.db.benchmarks.tpcc.table;
 
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Scan;
+import com.scalar.db.benchmarks.tpcc.TpccCsv;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import org.apache.commons.csv.CSVRecord;
 
 public class OrderLine extends TpccRecord {
@@ -43,16 +38,12 @@ public class OrderLine extends TpccRecord {
    * @param deliveryDate district information
    */
   public OrderLine(int warehouseId, int districtId, int orderId, int number, Date deliveryDate) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
+    super(1);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, orderId);
-    clusteringKeyMap.put(KEY_NUMBER, number);
+    clusteringKey = createClusteringKey(orderId, number);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_DELIVERY_D, deliveryDate);
+    addColumn(KEY_DELIVERY_D, deliveryDate);
   }
 
   /**
@@ -78,21 +69,16 @@ public class OrderLine extends TpccRecord {
       int quantity,
       int itemId,
       String info) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, orderId);
-    clusteringKeyMap.put(KEY_NUMBER, number);
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_ITEM_ID, itemId);
-    valueMap.put(KEY_SUPPLY_W_ID, supplyWarehouseId);
-    valueMap.put(KEY_DELIVERY_D, null);
-    valueMap.put(KEY_AMOUNT, amount);
-    valueMap.put(KEY_QUANTITY, quantity);
-    valueMap.put(KEY_DIST_INFO, info);
+    super(6);
+    partitionKey = createPartitionKey(warehouseId, districtId);
+
+    clusteringKey = createClusteringKey(orderId, number);
+
+    addColumn(KEY_ITEM_ID, itemId);
+    addColumn(KEY_SUPPLY_W_ID, supplyWarehouseId);
+    addColumn(KEY_AMOUNT, amount);
+    addColumn(KEY_QUANTITY, quantity);
+    addColumn(KEY_DIST_INFO, info);
   }
 
   /**
@@ -114,26 +100,21 @@ public class OrderLine extends TpccRecord {
       int supplyWarehouseId,
       int itemId,
       Date date) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
+    super(6);
+    partitionKey = createPartitionKey(warehouseId, districtId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, orderId);
-    clusteringKeyMap.put(KEY_NUMBER, number);
+    clusteringKey = createClusteringKey(orderId, number);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_ITEM_ID, itemId);
-    valueMap.put(KEY_SUPPLY_W_ID, supplyWarehouseId);
+    addColumn(KEY_ITEM_ID, itemId);
+    addColumn(KEY_SUPPLY_W_ID, supplyWarehouseId);
     if (orderId < 2101) {
-      valueMap.put(KEY_DELIVERY_D, date);
-      valueMap.put(KEY_AMOUNT, 0.00);
+      addColumn(KEY_DELIVERY_D, date);
+      addColumn(KEY_AMOUNT, 0.00);
     } else {
-      valueMap.put(KEY_DELIVERY_D, null);
-      valueMap.put(KEY_AMOUNT, TpccUtil.randomDouble(1, 999999, 100));
+      addColumn(KEY_AMOUNT, TpccUtil.randomDouble(1, 999999, 100));
     }
-    valueMap.put(KEY_QUANTITY, 5);
-    valueMap.put(KEY_DIST_INFO, TpccUtil.randomAlphaString(DIST_INFO_SIZE));
+    addColumn(KEY_QUANTITY, 5);
+    addColumn(KEY_DIST_INFO, TpccUtil.randomAlphaString(DIST_INFO_SIZE));
   }
 
   /**
@@ -141,26 +122,25 @@ public class OrderLine extends TpccRecord {
    *
    * @param record a {@code CSVRecord} object
    */
-  public OrderLine(CSVRecord record) throws ParseException {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
-
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, Integer.parseInt(record.get(KEY_ORDER_ID)));
-    clusteringKeyMap.put(KEY_NUMBER, Integer.parseInt(record.get(KEY_NUMBER)));
-
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_ITEM_ID, Integer.parseInt(record.get(KEY_ITEM_ID)));
-    valueMap.put(KEY_SUPPLY_W_ID, Integer.parseInt(record.get(KEY_SUPPLY_W_ID)));
-    valueMap.put(KEY_AMOUNT, Double.parseDouble(record.get(KEY_AMOUNT)));
-    valueMap.put(KEY_QUANTITY, Integer.parseInt(record.get(KEY_QUANTITY)));
-    valueMap.put(KEY_DIST_INFO, record.get(KEY_DIST_INFO));
+  public OrderLine(CSVRecord record) {
+    super(6);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)));
+
+    clusteringKey =
+        createClusteringKey(
+            Integer.parseInt(record.get(KEY_ORDER_ID)),
+            Integer.parseInt(record.get(KEY_NUMBER)));
+
+    addColumn(KEY_ITEM_ID, Integer.parseInt(record.get(KEY_ITEM_ID)));
+    addColumn(KEY_SUPPLY_W_ID, Integer.parseInt(record.get(KEY_SUPPLY_W_ID)));
+    addColumn(KEY_AMOUNT, Double.parseDouble(record.get(KEY_AMOUNT)));
+    addColumn(KEY_QUANTITY, Integer.parseInt(record.get(KEY_QUANTITY)));
+    addColumn(KEY_DIST_INFO, record.get(KEY_DIST_INFO));
     if (!record.get(KEY_DELIVERY_D).isEmpty() && !record.get(KEY_DELIVERY_D).equals("\\N")) {
-      SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-      valueMap.put(KEY_DELIVERY_D, dateFormat.parse(record.get(KEY_DELIVERY_D)));
-    } else {
-      valueMap.put(KEY_DELIVERY_D, null);
+      addColumn(KEY_DELIVERY_D, TpccCsv.parseDate(record.get(KEY_DELIVERY_D)));
     }
   }
 
@@ -172,18 +152,18 @@ public class OrderLine extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .build();
   }
 
   /** Creates a clustering {@code Key}. */
   public static Key createClusteringKey(int orderId, int orderLineNumber) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_ORDER_ID, orderId));
-    keys.add(new IntValue(KEY_NUMBER, orderLineNumber));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_ORDER_ID, orderId)
+        .addInt(KEY_NUMBER, orderLineNumber)
+        .build();
   }
 
   /**
@@ -193,22 +173,25 @@ public class OrderLine extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    Key clusteringKey = createClusteringKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey, clusteringKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 
   /** Creates a {@code Scan} object for order-lines with a specified order ID. */
-  public static Scan createScan(int warehouseId, int districtId, int orderId) {
-    return createScan(warehouseId, districtId, orderId, orderId);
+  public static Scan createScan(
+      int warehouseId, int districtId, int orderId, String... projections) {
+    return createScan(warehouseId, districtId, orderId, orderId, projections);
   }
 
   /** Creates a {@code Scan} object for order-lines with a range of order IDs. */
-  public static Scan createScan(int warehouseId, int districtId, int orderIdStart, int orderIdEnd) {
+  public static Scan createScan(
+      int warehouseId, int districtId, int orderIdStart, int orderIdEnd, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId);
     Key start = new Key(OrderLine.KEY_ORDER_ID, orderIdStart);
     Key end = new Key(OrderLine.KEY_ORDER_ID, orderIdEnd);
-    return new Scan(partitionKey).forTable(TABLE_NAME).withStart(start).withEnd(end);
+    return new Scan(partitionKey)
+        .forTable(TABLE_NAME)
+        .withProjections(Arrays.asList(projections))
+        .withStart(start)
+        .withEnd(end);
   }
 }
@@ -3,11 +3,8 @@ package com.scalar.db.benchmarks.tpcc.table;
 import com.scalar.db.api.Put;
 import com.scalar.db.api.Scan;
 import com.scalar.db.api.Scan.Ordering;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class OrderSecondary extends TpccRecord {
@@ -27,13 +24,10 @@ public class OrderSecondary extends TpccRecord {
    * @param orderId an order ID
    */
   public OrderSecondary(int warehouseId, int districtId, int customerId, int orderId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_DISTRICT_ID, districtId);
-    partitionKeyMap.put(KEY_CUSTOMER_ID, customerId);
+    super(0);
+    partitionKey = createPartitionKey(warehouseId, districtId, customerId);
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, orderId);
+    clusteringKey = createClusteringKey(orderId);
   }
 
   /**
@@ -42,13 +36,14 @@ public class OrderSecondary extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public OrderSecondary(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_DISTRICT_ID, Integer.parseInt(record.get(KEY_DISTRICT_ID)));
-    partitionKeyMap.put(KEY_CUSTOMER_ID, Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
+    super(0);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_DISTRICT_ID)),
+            Integer.parseInt(record.get(KEY_CUSTOMER_ID)));
 
-    clusteringKeyMap = new LinkedHashMap<>();
-    clusteringKeyMap.put(KEY_ORDER_ID, Integer.parseInt(record.get(KEY_ORDER_ID)));
+    clusteringKey = createClusteringKey(Integer.parseInt(record.get(KEY_ORDER_ID)));
   }
 
   /**
@@ -60,11 +55,11 @@ public class OrderSecondary extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int districtId, int customerId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_DISTRICT_ID, districtId));
-    keys.add(new IntValue(KEY_CUSTOMER_ID, customerId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_DISTRICT_ID, districtId)
+        .addInt(KEY_CUSTOMER_ID, customerId)
+        .build();
   }
 
   /**
@@ -74,9 +69,7 @@ public class OrderSecondary extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createClusteringKey(int orderId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_ORDER_ID, orderId));
-    return new Key(keys);
+    return Key.newBuilder().addInt(KEY_ORDER_ID, orderId).build();
   }
 
   /**
@@ -86,9 +79,7 @@ public class OrderSecondary extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    Key clusteringKey = createClusteringKey();
-    return new Put(partitionKey, clusteringKey).forTable(TABLE_NAME);
+    return createPut(TABLE_NAME);
   }
 
   /**
@@ -97,12 +88,15 @@ public class OrderSecondary extends TpccRecord {
    * @param warehouseId a warehouse ID
    * @param districtId a district ID
    * @param customerId a customer ID
+   * @param projections the columns to read, or none to read all the columns
    * @return a {@code Scan} object for the last order of a customer
    */
-  public static Scan createScan(int warehouseId, int districtId, int customerId) {
+  public static Scan createScan(
+      int warehouseId, int districtId, int customerId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, districtId, customerId);
     return new Scan(partitionKey)
         .forTable(TABLE_NAME)
+        .withProjections(Arrays.asList(projections))
         .withOrdering(new Ordering(KEY_ORDER_ID, Scan.Ordering.Order.DESC))
         .withLimit(1);
   }
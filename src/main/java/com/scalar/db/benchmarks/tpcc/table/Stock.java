@@ -3,12 +3,8 @@ package com.scalar.db.benchmarks.tpcc.table;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
-import com.scalar.db.io.IntValue;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class Stock extends TpccRecord {
@@ -50,15 +46,13 @@ public class Stock extends TpccRecord {
    */
   public Stock(
       int warehouseId, int itemId, int quantity, double ytd, int orderCount, int remoteCount) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_ITEM_ID, itemId);
+    super(4);
+    partitionKey = createPartitionKey(warehouseId, itemId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_QUANTITY, quantity);
-    valueMap.put(KEY_YTD, ytd);
-    valueMap.put(KEY_ORDER_CNT, orderCount);
-    valueMap.put(KEY_REMOTE_CNT, remoteCount);
+    addColumn(KEY_QUANTITY, quantity);
+    addColumn(KEY_YTD, ytd);
+    addColumn(KEY_ORDER_CNT, orderCount);
+    addColumn(KEY_REMOTE_CNT, remoteCount);
   }
 
   /**
@@ -68,19 +62,17 @@ public class Stock extends TpccRecord {
    * @param itemId an item ID
    */
   public Stock(int warehouseId, int itemId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, warehouseId);
-    partitionKeyMap.put(KEY_ITEM_ID, itemId);
+    super(15);
+    partitionKey = createPartitionKey(warehouseId, itemId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_QUANTITY, TpccUtil.randomInt(10, 100));
-    valueMap.put(KEY_YTD, 0.00);
-    valueMap.put(KEY_ORDER_CNT, 0);
-    valueMap.put(KEY_REMOTE_CNT, 0);
-    valueMap.put(KEY_DATA, TpccUtil.getRandomStringWithOriginal(MIN_DATA, MAX_DATA, 10));
+    addColumn(KEY_QUANTITY, TpccUtil.randomInt(10, 100));
+    addColumn(KEY_YTD, 0.00);
+    addColumn(KEY_ORDER_CNT, 0);
+    addColumn(KEY_REMOTE_CNT, 0);
+    addColumn(KEY_DATA, TpccUtil.getRandomStringWithOriginal(MIN_DATA, MAX_DATA, 10));
     for (int i = 0; i < 10; i++) {
       String key = KEY_DIST_PREFIX + String.format("%02d", i + 1);
-      valueMap.put(key, TpccUtil.randomAlphaString(DIST_SIZE));
+      addColumn(key, TpccUtil.randomAlphaString(DIST_SIZE));
     }
   }
 
@@ -90,19 +82,20 @@ public class Stock extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public Stock(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_WAREHOUSE_ID, Integer.parseInt(record.get(KEY_WAREHOUSE_ID)));
-    partitionKeyMap.put(KEY_ITEM_ID, Integer.parseInt(record.get(KEY_ITEM_ID)));
+    super(15);
+    partitionKey =
+        createPartitionKey(
+            Integer.parseInt(record.get(KEY_WAREHOUSE_ID)),
+            Integer.parseInt(record.get(KEY_ITEM_ID)));
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_QUANTITY, Integer.parseInt(record.get(KEY_QUANTITY)));
-    valueMap.put(KEY_YTD, Double.parseDouble(record.get(KEY_YTD)));
-    valueMap.put(KEY_ORDER_CNT, Integer.parseInt(record.get(KEY_ORDER_CNT)));
-    valueMap.put(KEY_REMOTE_CNT, Integer.parseInt(record.get(KEY_REMOTE_CNT)));
-    valueMap.put(KEY_DATA, record.get(KEY_DATA));
+    addColumn(KEY_QUANTITY, Integer.parseInt(record.get(KEY_QUANTITY)));
+    addColumn(KEY_YTD, Double.parseDouble(record.get(KEY_YTD)));
+    addColumn(KEY_ORDER_CNT, Integer.parseInt(record.get(KEY_ORDER_CNT)));
+    addColumn(KEY_REMOTE_CNT, Integer.parseInt(record.get(KEY_REMOTE_CNT)));
+    addColumn(KEY_DATA, record.get(KEY_DATA));
     for (int i = 0; i < 10; i++) {
       String key = KEY_DIST_PREFIX + String.format("%02d", i + 1);
-      valueMap.put(key, record.get(key));
+      addColumn(key, record.get(key));
     }
   }
 
@@ -114,10 +107,10 @@ public class Stock extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId, int itemId) {
-    ArrayList<Value<?>> keys = new ArrayList<>();
-    keys.add(new IntValue(KEY_WAREHOUSE_ID, warehouseId));
-    keys.add(new IntValue(KEY_ITEM_ID, itemId));
-    return new Key(keys);
+    return Key.newBuilder()
+        .addInt(KEY_WAREHOUSE_ID, warehouseId)
+        .addInt(KEY_ITEM_ID, itemId)
+        .build();
   }
 
   /**
@@ -125,11 +118,12 @@ public class Stock extends TpccRecord {
    *
    * @param warehouseId a warehouse ID
    * @param itemId an item ID
+   * @param projections the columns to read, or none to read all the columns
    * @return a {@code Get} object
    */
-  public static Get createGet(int warehouseId, int itemId) {
+  public static Get createGet(int warehouseId, int itemId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId, itemId);
-    return new Get(partitionKey).forTable(TABLE_NAME);
+    return new Get(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -139,8 +133,6 @@ public class Stock extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 }
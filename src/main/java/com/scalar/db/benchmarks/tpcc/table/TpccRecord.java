@@ -1,80 +1,115 @@
 package com.scalar.db.benchmarks.tpcc.table;
 
 import com.scalar.db.api.Put;
-import com.scalar.db.io.BigIntValue;
-import com.scalar.db.io.DoubleValue;
-import com.scalar.db.io.IntValue;
+import com.scalar.db.api.PutBuilder;
+import com.scalar.db.io.BigIntColumn;
+import com.scalar.db.io.Column;
+import com.scalar.db.io.DoubleColumn;
+import com.scalar.db.io.IntColumn;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.TextValue;
-import com.scalar.db.io.Value;
+import com.scalar.db.io.TextColumn;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Map;
+import java.util.List;
+import javax.annotation.Nullable;
 
+/**
+ * A record of a TPC-C table. The keys and the columns of a record are built as ScalarDB {@code Key}
+ * and {@code Column} objects when the record is constructed, so that creating a {@code Put} doesn't
+ * box the values or convert them through an intermediate map. A date is stored as a {@code BIGINT}
+ * column of the milliseconds since the epoch.
+ */
 public abstract class TpccRecord {
 
   public static final String NAMESPACE = "tpcc";
 
-  protected Map<String, Object> partitionKeyMap;
-  protected Map<String, Object> clusteringKeyMap;
-  protected Map<String, Object> valueMap;
-
-  private Value<?> createSingleValue(String key, Object object) {
-    if (object instanceof Integer) {
-      return new IntValue(key, (Integer) object);
-    } else if (object instanceof Double) {
-      return new DoubleValue(key, (Double) object);
-    } else if (object instanceof String) {
-      return new TextValue(key, (String) object);
-    } else if (object instanceof Date) {
-      return new BigIntValue(key, ((Date) object).getTime());
+  protected Key partitionKey;
+  @Nullable protected Key clusteringKey;
+  private final List<Column<?>> columns;
+
+  protected TpccRecord(int columnCount) {
+    columns = new ArrayList<>(columnCount);
+  }
+
+  protected void addColumn(String name, int value) {
+    columns.add(IntColumn.of(name, value));
+  }
+
+  protected void addColumn(String name, double value) {
+    columns.add(DoubleColumn.of(name, value));
+  }
+
+  protected void addColumn(String name, @Nullable String value) {
+    if (value != null) {
+      columns.add(TextColumn.of(name, value));
     }
-    return null;
   }
 
-  /** Creates a partition {@code Key}. */
-  public Key createPartitionKey() {
-    ArrayList<Value<?>> values = new ArrayList<>();
-    partitionKeyMap.forEach(
-        (key, value) -> {
-          if (value != null) {
-            values.add(createSingleValue(key, value));
-          }
-        });
-    return new Key(values);
+  protected void addColumn(String name, @Nullable Date value) {
+    if (value != null) {
+      columns.add(BigIntColumn.of(name, value.getTime()));
+    }
+  }
+
+  protected void addColumns(Address address) {
+    address.addColumnsTo(columns);
+  }
+
+  public Key getPartitionKey() {
+    return partitionKey;
   }
 
-  /** Creates a clustering {@code Key}. */
-  public Key createClusteringKey() {
-    ArrayList<Value<?>> values = new ArrayList<>();
-    clusteringKeyMap.forEach(
-        (key, value) -> {
-          if (value != null) {
-            values.add(createSingleValue(key, value));
-          }
-        });
-    return new Key(values);
+  @Nullable
+  public Key getClusteringKey() {
+    return clusteringKey;
   }
 
   /**
-   * Creates an {@code ArrayList} of {@code Value<?>}.
+   * Returns the value of the specified column, e.g., to write the record to a CSV file. A date is
+   * returned as a {@code Long} of the milliseconds since the epoch.
    *
-   * @return an {@code ArrayList} of {@code Value<?>}
+   * @param name a column name
+   * @return the value of the column, or null if the column is null or not in the record
    */
-  public ArrayList<Value<?>> createValues() {
-    ArrayList<Value<?>> values = new ArrayList<>();
-    valueMap.forEach(
-        (key, value) -> {
-          if (value != null) {
-            if (value instanceof Address) {
-              values.addAll(((Address) value).createValues());
-            } else {
-              values.add(createSingleValue(key, value));
-            }
-          }
-        });
-    return values;
+  @Nullable
+  public Object getColumn(String name) {
+    Column<?> column = findColumn(partitionKey.getColumns(), name);
+    if (column == null && clusteringKey != null) {
+      column = findColumn(clusteringKey.getColumns(), name);
+    }
+    if (column == null) {
+      column = findColumn(columns, name);
+    }
+    return column == null ? null : column.getValueAsObject();
+  }
+
+  /**
+   * Creates a {@code Put} of the record for the specified table.
+   *
+   * @param tableName a table name
+   * @return a {@code Put} object
+   */
+  protected Put createPut(String tableName) {
+    PutBuilder.Buildable builder =
+        Put.newBuilder().namespace(NAMESPACE).table(tableName).partitionKey(partitionKey);
+    if (clusteringKey != null) {
+      builder = builder.clusteringKey(clusteringKey);
+    }
+    for (Column<?> column : columns) {
+      builder = builder.value(column);
+    }
+    return builder.build();
   }
 
   public abstract Put createPut();
+
+  @Nullable
+  private static Column<?> findColumn(List<Column<?>> columns, String name) {
+    for (Column<?> column : columns) {
+      if (column.getName().equals(name)) {
+        return column;
+      }
+    }
+    return null;
+  }
 }
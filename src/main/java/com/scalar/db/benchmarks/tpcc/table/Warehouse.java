@@ -4,10 +4,7 @@ import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.io.Key;
-import com.scalar.db.io.Value;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import org.apache.commons.csv.CSVRecord;
 
 public class Warehouse extends TpccRecord {
@@ -37,11 +34,10 @@ public class Warehouse extends TpccRecord {
    * @param ytd a YTD balance
    */
   public Warehouse(int warehouseId, double ytd) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, warehouseId);
+    super(1);
+    partitionKey = createPartitionKey(warehouseId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_YTD, ytd);
+    addColumn(KEY_YTD, ytd);
   }
 
   /**
@@ -50,14 +46,13 @@ public class Warehouse extends TpccRecord {
    * @param warehouseId a warehouse ID
    */
   public Warehouse(int warehouseId) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, warehouseId);
+    super(8);
+    partitionKey = createPartitionKey(warehouseId);
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
-    valueMap.put(KEY_ADDRESS, new Address(COLUMN_PREFIX));
-    valueMap.put(KEY_TAX, TpccUtil.randomDouble(0, 2000, 10000));
-    valueMap.put(KEY_YTD, 300000.00);
+    addColumn(KEY_NAME, TpccUtil.randomAlphaString(MIN_NAME, MAX_NAME));
+    addColumns(new Address(COLUMN_PREFIX));
+    addColumn(KEY_TAX, TpccUtil.randomDouble(0, 2000, 10000));
+    addColumn(KEY_YTD, 300000.00);
   }
 
   /**
@@ -66,13 +61,11 @@ public class Warehouse extends TpccRecord {
    * @param record a {@code CSVRecord} object
    */
   public Warehouse(CSVRecord record) {
-    partitionKeyMap = new LinkedHashMap<>();
-    partitionKeyMap.put(KEY_ID, Integer.parseInt(record.get(KEY_ID)));
+    super(8);
+    partitionKey = createPartitionKey(Integer.parseInt(record.get(KEY_ID)));
 
-    valueMap = new HashMap<>();
-    valueMap.put(KEY_NAME, record.get(KEY_NAME));
-    valueMap.put(
-        KEY_ADDRESS,
+    addColumn(KEY_NAME, record.get(KEY_NAME));
+    addColumns(
         new Address(
             COLUMN_PREFIX,
             record.get(KEY_STREET_1),
@@ -80,8 +73,8 @@ public class Warehouse extends TpccRecord {
             record.get(KEY_CITY),
             record.get(KEY_STATE),
             record.get(KEY_ZIP)));
-    valueMap.put(KEY_TAX, Double.parseDouble(record.get(KEY_TAX)));
-    valueMap.put(KEY_YTD, Double.parseDouble(record.get(KEY_TAX)));
+    addColumn(KEY_TAX, Double.parseDouble(record.get(KEY_TAX)));
+    addColumn(KEY_YTD, Double.parseDouble(record.get(KEY_TAX)));
   }
 
   /**
@@ -91,7 +84,7 @@ public class Warehouse extends TpccRecord {
    * @return a {@code Key} object
    */
   public static Key createPartitionKey(int warehouseId) {
-    return new Key(KEY_ID, warehouseId);
+    return Key.ofInt(KEY_ID, warehouseId);
   }
 
   /**
@@ -99,9 +92,9 @@ public class Warehouse extends TpccRecord {
    *
    * @return a {@code Get} object
    */
-  public static Get createGet(int warehouseId) {
+  public static Get createGet(int warehouseId, String... projections) {
     Key partitionKey = createPartitionKey(warehouseId);
-    return new Get(partitionKey).forTable(TABLE_NAME);
+    return new Get(partitionKey).forTable(TABLE_NAME).withProjections(Arrays.asList(projections));
   }
 
   /**
@@ -111,8 +104,6 @@ public class Warehouse extends TpccRecord {
    */
   @Override
   public Put createPut() {
-    Key partitionKey = createPartitionKey();
-    ArrayList<Value<?>> values = createValues();
-    return new Put(partitionKey).forTable(TABLE_NAME).withValues(values);
+    return createPut(TABLE_NAME);
   }
 }
@@ -2,8 +2,12 @@ package com.scalar.db.benchmarks.tpcc.transaction;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
 import com.scalar.db.api.Result;
+import com.scalar.db.api.Scan;
+import com.scalar.db.benchmarks.ParallelReader;
 import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.benchmarks.tpcc.table.Customer;
 import com.scalar.db.benchmarks.tpcc.table.NewOrder;
@@ -11,38 +15,94 @@ import com.scalar.db.benchmarks.tpcc.table.Order;
 import com.scalar.db.benchmarks.tpcc.table.OrderLine;
 import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.exception.transaction.TransactionException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 public class DeliveryTransaction implements TpccTransaction {
+  private static final String[] NEW_ORDER_COLUMNS = {NewOrder.KEY_ORDER_ID};
+  private static final String[] ORDER_COLUMNS = {Order.KEY_CUSTOMER_ID};
+  private static final String[] ORDER_LINE_COLUMNS = {OrderLine.KEY_NUMBER, OrderLine.KEY_AMOUNT};
+  private static final String[] CUSTOMER_COLUMNS = {
+    Customer.KEY_BALANCE, Customer.KEY_DELIVERY_CNT
+  };
   private final TpccConfig config;
   private final DistributedTransactionManager manager;
+  // the range of the districts to deliver
+  private final int firstDistrictId;
+  private final int lastDistrictId;
   private DistributedTransaction transaction;
   private int warehouseId;
   private int carrierId;
   private Date deliveryDate;
+  private int skippedDistrictCount;
 
-  public DeliveryTransaction(DistributedTransactionManager manager, TpccConfig config) {
+  public DeliveryTransaction(
+      DistributedTransactionManager manager, TpccConfig config, TpccTerminal terminal) {
     this.manager = manager;
     this.config = config;
-    generate();
+    this.firstDistrictId = 1;
+    this.lastDistrictId = Warehouse.DISTRICTS;
+    generate(terminal);
   }
 
-  private void generate() {
-    int numWarehouse = config.getNumWarehouse();
-    warehouseId = TpccUtil.randomInt(1, numWarehouse);
+  /**
+   * Constructs a {@code DeliveryTransaction} that delivers the order of only the specified district
+   * with the same warehouse, carrier, and delivery date as the specified delivery.
+   *
+   * @param delivery a delivery of all the districts
+   * @param districtId a district ID
+   */
+  DeliveryTransaction(DeliveryTransaction delivery, int districtId) {
+    this.manager = delivery.manager;
+    this.config = delivery.config;
+    this.firstDistrictId = districtId;
+    this.lastDistrictId = districtId;
+    this.warehouseId = delivery.warehouseId;
+    this.carrierId = delivery.carrierId;
+    this.deliveryDate = delivery.deliveryDate;
+  }
+
+  private void generate(TpccTerminal terminal) {
+    warehouseId = terminal.getWarehouseId();
     carrierId = TpccUtil.randomInt(1, 10);
     deliveryDate = new Date();
   }
 
+  public int getWarehouseId() {
+    return warehouseId;
+  }
+
+  /**
+   * Returns the number of the districts skipped by the last execution because they had no
+   * outstanding new-order. Districts are skipped only with the deferred delivery, as the TPC-C
+   * specification allows; otherwise, a district without a new-order fails the transaction.
+   *
+   * @return the number of the skipped districts
+   */
+  public int getSkippedDistrictCount() {
+    return skippedDistrictCount;
+  }
+
   @Override
   public void execute() throws TransactionException {
     transaction = manager.start();
+    skippedDistrictCount = 0;
+    if (config.parallelReads()) {
+      executeInParallel();
+      return;
+    }
 
-    for (int districtId = 1; districtId <= Warehouse.DISTRICTS; districtId++) {
+    for (int districtId = firstDistrictId; districtId <= lastDistrictId; districtId++) {
       // Get the oldest outstanding new-order
-      List<Result> newOrders = transaction.scan(NewOrder.createScan(warehouseId, districtId));
+      List<Result> newOrders =
+          transaction.scan(
+              NewOrder.createScan(warehouseId, districtId, config.projections(NEW_ORDER_COLUMNS)));
+      if (newOrders.isEmpty() && config.deferredDelivery()) {
+        skippedDistrictCount++;
+        continue;
+      }
       if (newOrders.size() != 1) {
         throw new TransactionException("Invalid scan on new-order", transaction.getId());
       }
@@ -52,7 +112,9 @@ public class DeliveryTransaction implements TpccTransaction {
       transaction.delete(NewOrder.createDelete(warehouseId, districtId, orderId));
 
       // Get the customer of the new-order
-      Optional<Result> result = transaction.get(Order.createGet(warehouseId, districtId, orderId));
+      Optional<Result> result =
+          transaction.get(
+              Order.createGet(warehouseId, districtId, orderId, config.projections(ORDER_COLUMNS)));
       if (!result.isPresent()) {
         throw new TransactionException("Order not found", transaction.getId());
       }
@@ -65,7 +127,9 @@ public class DeliveryTransaction implements TpccTransaction {
       // Get and update order-lines
       double total = 0;
       List<Result> orderLines =
-          transaction.scan(OrderLine.createScan(warehouseId, districtId, orderId));
+          transaction.scan(
+              OrderLine.createScan(
+                  warehouseId, districtId, orderId, config.projections(ORDER_LINE_COLUMNS)));
       for (Result line : orderLines) {
         int number = line.getValue(OrderLine.KEY_NUMBER).get().getAsInt();
         total += line.getValue(OrderLine.KEY_AMOUNT).get().getAsDouble();
@@ -74,10 +138,107 @@ public class DeliveryTransaction implements TpccTransaction {
       }
 
       // Update the customer with new balance and delivery count
-      result = transaction.get(Customer.createGet(warehouseId, districtId, customerId));
+      result =
+          transaction.get(
+              Customer.createGet(
+                  warehouseId, districtId, customerId, config.projections(CUSTOMER_COLUMNS)));
+      if (!result.isPresent()) {
+        throw new TransactionException("Customer not found", transaction.getId());
+      }
+      double balance = result.get().getValue(Customer.KEY_BALANCE).get().getAsDouble() + total;
+      int deliveryCount = result.get().getValue(Customer.KEY_DELIVERY_CNT).get().getAsInt() + 1;
+      Customer customer = new Customer(warehouseId, districtId, customerId, balance, deliveryCount);
+      transaction.put(customer.createPut());
+    }
+  }
+
+  /**
+   * Delivers the orders of all the districts with rounds of parallel reads: the new-orders, the
+   * orders, the order-lines, and then the customers. The districts are independent, so the reads of
+   * a round are issued concurrently for all the districts, and the writes are issued after all the
+   * reads.
+   */
+  private void executeInParallel() throws TransactionException {
+    ParallelReader reader = config.getParallelReader();
+
+    // Get the oldest outstanding new-orders
+    int districtCount = lastDistrictId - firstDistrictId + 1;
+    List<Scan> newOrderScans = new ArrayList<>(districtCount);
+    for (int districtId = firstDistrictId; districtId <= lastDistrictId; districtId++) {
+      newOrderScans.add(
+          NewOrder.createScan(warehouseId, districtId, config.projections(NEW_ORDER_COLUMNS)));
+    }
+    List<List<Result>> newOrders = reader.scan(transaction, newOrderScans);
+    // the districts to deliver and their oldest new-orders
+    int[] districtIds = new int[districtCount];
+    int[] orderIds = new int[districtCount];
+    int count = 0;
+    for (int i = 0; i < districtCount; i++) {
+      if (newOrders.get(i).isEmpty() && config.deferredDelivery()) {
+        skippedDistrictCount++;
+        continue;
+      }
+      if (newOrders.get(i).size() != 1) {
+        throw new TransactionException("Invalid scan on new-order", transaction.getId());
+      }
+      districtIds[count] = firstDistrictId + i;
+      orderIds[count] = newOrders.get(i).get(0).getValue(NewOrder.KEY_ORDER_ID).get().getAsInt();
+      count++;
+    }
+
+    // Get the orders and their order-lines
+    List<Get> orderGets = new ArrayList<>(count);
+    List<Scan> orderLineScans = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      orderGets.add(
+          Order.createGet(
+              warehouseId, districtIds[i], orderIds[i], config.projections(ORDER_COLUMNS)));
+      orderLineScans.add(
+          OrderLine.createScan(
+              warehouseId, districtIds[i], orderIds[i], config.projections(ORDER_LINE_COLUMNS)));
+    }
+    List<Optional<Result>> orders = reader.get(transaction, orderGets);
+    List<List<Result>> orderLines = reader.scan(transaction, orderLineScans);
+    List<Get> customerGets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      if (!orders.get(i).isPresent()) {
+        throw new TransactionException("Order not found", transaction.getId());
+      }
+      int customerId = orders.get(i).get().getValue(Order.KEY_CUSTOMER_ID).get().getAsInt();
+      customerGets.add(
+          Customer.createGet(
+              warehouseId, districtIds[i], customerId, config.projections(CUSTOMER_COLUMNS)));
+    }
+
+    // Get the customers
+    List<Optional<Result>> customers = reader.get(transaction, customerGets);
+
+    for (int i = 0; i < count; i++) {
+      int districtId = districtIds[i];
+      int orderId = orderIds[i];
+
+      // Delete the new-order
+      transaction.delete(NewOrder.createDelete(warehouseId, districtId, orderId));
+
+      // Update the carrier ID
+      Order order = new Order(warehouseId, districtId, orderId, carrierId);
+      transaction.put(order.createPut());
+
+      // Update order-lines
+      double total = 0;
+      for (Result line : orderLines.get(i)) {
+        int number = line.getValue(OrderLine.KEY_NUMBER).get().getAsInt();
+        total += line.getValue(OrderLine.KEY_AMOUNT).get().getAsDouble();
+        OrderLine newLine = new OrderLine(warehouseId, districtId, orderId, number, deliveryDate);
+        transaction.put(newLine.createPut());
+      }
+
+      // Update the customer with new balance and delivery count
+      Optional<Result> result = customers.get(i);
       if (!result.isPresent()) {
         throw new TransactionException("Customer not found", transaction.getId());
       }
+      int customerId = orders.get(i).get().getValue(Order.KEY_CUSTOMER_ID).get().getAsInt();
       double balance = result.get().getValue(Customer.KEY_BALANCE).get().getAsDouble() + total;
       int deliveryCount = result.get().getValue(Customer.KEY_DELIVERY_CNT).get().getAsInt() + 1;
       Customer customer = new Customer(warehouseId, districtId, customerId, balance, deliveryCount);
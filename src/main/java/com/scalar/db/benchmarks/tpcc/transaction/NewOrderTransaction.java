@@ -2,8 +2,10 @@ package com.scalar.db.benchmarks.tpcc.transaction;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
 import com.scalar.db.api.Result;
 import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.benchmarks.tpcc.table.Customer;
 import com.scalar.db.benchmarks.tpcc.table.District;
@@ -15,11 +17,40 @@ import com.scalar.db.benchmarks.tpcc.table.OrderSecondary;
 import com.scalar.db.benchmarks.tpcc.table.Stock;
 import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.exception.transaction.TransactionException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 
 public class NewOrderTransaction implements TpccTransaction {
+  private static final String[] WAREHOUSE_COLUMNS = {Warehouse.KEY_TAX};
+  private static final String[] DISTRICT_COLUMNS = {District.KEY_TAX, District.KEY_NEXT_O_ID};
+  private static final String[] CUSTOMER_COLUMNS = {Customer.KEY_DISCOUNT};
+  private static final String[] ITEM_COLUMNS = {Item.KEY_PRICE};
+  // the indexes of the prefetched results of parallel reads
+  private static final int WAREHOUSE_INDEX = 0;
+  private static final int DISTRICT_INDEX = 1;
+  private static final int CUSTOMER_INDEX = 2;
+  private static final int ITEM_INDEX = 3;
+  // the stock columns indexed by a district ID, which include only the s_dist_XX of the district
+  private static final String[][] STOCK_COLUMNS = new String[Warehouse.DISTRICTS + 1][];
+
+  static {
+    for (int districtId = 1; districtId <= Warehouse.DISTRICTS; districtId++) {
+      STOCK_COLUMNS[districtId] =
+          new String[] {
+            Stock.KEY_QUANTITY,
+            Stock.KEY_YTD,
+            Stock.KEY_ORDER_CNT,
+            Stock.KEY_REMOTE_CNT,
+            Stock.KEY_DIST_PREFIX + String.format("%02d", districtId)
+          };
+    }
+  }
+
   private final TpccConfig config;
+  private final TpccTerminal terminal;
   private final DistributedTransactionManager manager;
   private DistributedTransaction transaction;
   private int warehouseId;
@@ -31,17 +62,23 @@ public class NewOrderTransaction implements TpccTransaction {
   private int[] orderQuantities;
   private boolean remote;
   private Date date;
+  // 1% of new-orders have an unused item and are rolled back by the specification
+  private boolean rollback;
+  private boolean rolledBack;
+  @Nullable private List<Optional<Result>> prefetched;
 
-  public NewOrderTransaction(DistributedTransactionManager manager, TpccConfig config) {
+  public NewOrderTransaction(
+      DistributedTransactionManager manager, TpccConfig config, TpccTerminal terminal) {
     this.manager = manager;
     this.config = config;
+    this.terminal = terminal;
     generate();
   }
 
   private void generate() {
     int numWarehouse = config.getNumWarehouse();
-    warehouseId = TpccUtil.randomInt(1, numWarehouse);
-    districtId = TpccUtil.randomInt(1, Warehouse.DISTRICTS);
+    warehouseId = terminal.getWarehouseId();
+    districtId = terminal.getDistrictId();
     customerId = TpccUtil.getCustomerId();
     orderLineCount = TpccUtil.randomInt(5, 15);
     itemIds = new int[orderLineCount];
@@ -49,7 +86,7 @@ public class NewOrderTransaction implements TpccTransaction {
     orderQuantities = new int[orderLineCount];
     remote = false;
     date = new Date();
-    int rollback = TpccUtil.randomInt(1, 100);
+    rollback = TpccUtil.randomInt(1, 100) == 1;
 
     for (int i = 0; i < orderLineCount; i++) {
       itemIds[i] = TpccUtil.getItemId();
@@ -63,13 +100,41 @@ public class NewOrderTransaction implements TpccTransaction {
       }
       orderQuantities[i] = TpccUtil.randomInt(1, 10);
     }
+    if (config.sortOrderLines()) {
+      sortOrderLines();
+    }
 
-    if (rollback == 1) {
+    if (rollback) {
       // set an unused item number to produce "not-found" for roll back
       itemIds[orderLineCount - 1] += Item.ITEMS;
     }
   }
 
+  /**
+   * Sorts the order-lines by the supply warehouse and the item, so that concurrent new-orders
+   * access the stocks in the same order. The order-line numbers follow the sorted order.
+   */
+  private void sortOrderLines() {
+    // insertion sort, since an order has at most 15 order-lines
+    for (int i = 1; i < orderLineCount; i++) {
+      int itemId = itemIds[i];
+      int supplierWarehouseId = supplierWarehouseIds[i];
+      int quantity = orderQuantities[i];
+      int j = i - 1;
+      while (j >= 0
+          && (supplierWarehouseIds[j] > supplierWarehouseId
+              || (supplierWarehouseIds[j] == supplierWarehouseId && itemIds[j] > itemId))) {
+        itemIds[j + 1] = itemIds[j];
+        supplierWarehouseIds[j + 1] = supplierWarehouseIds[j];
+        orderQuantities[j + 1] = orderQuantities[j];
+        j--;
+      }
+      itemIds[j + 1] = itemId;
+      supplierWarehouseIds[j + 1] = supplierWarehouseId;
+      orderQuantities[j + 1] = quantity;
+    }
+  }
+
   private String getDistInfo(Optional<Result> stock, int districtId, String transactionId) throws TransactionException {
     switch (districtId) {
       case 1:
@@ -97,19 +162,81 @@ public class NewOrderTransaction implements TpccTransaction {
     }
   }
 
+  private Get createWarehouseGet() {
+    return Warehouse.createGet(warehouseId, config.projections(WAREHOUSE_COLUMNS));
+  }
+
+  private Get createDistrictGet() {
+    return District.createGet(warehouseId, districtId, config.projections(DISTRICT_COLUMNS));
+  }
+
+  private Get createCustomerGet() {
+    return Customer.createGet(
+        warehouseId, districtId, customerId, config.projections(CUSTOMER_COLUMNS));
+  }
+
+  private Get createItemGet(int index) {
+    return Item.createGet(itemIds[index], config.projections(ITEM_COLUMNS));
+  }
+
+  private Get createStockGet(int index) {
+    return Stock.createGet(
+        supplierWarehouseIds[index], itemIds[index], config.projections(STOCK_COLUMNS[districtId]));
+  }
+
+  /**
+   * Issues all the gets of the transaction concurrently. A stock that appears more than once in
+   * the order is prefetched only for its first order-line, since the later order-lines must read
+   * the stock updated by the earlier ones.
+   */
+  private void prefetch() throws TransactionException {
+    List<Get> gets = new ArrayList<>(ITEM_INDEX + orderLineCount * 2);
+    gets.add(createWarehouseGet());
+    gets.add(createDistrictGet());
+    gets.add(createCustomerGet());
+    for (int i = 0; i < orderLineCount; i++) {
+      gets.add(createItemGet(i));
+    }
+    for (int i = 0; i < orderLineCount; i++) {
+      if (isFirstStockOccurrence(i)) {
+        gets.add(createStockGet(i));
+      }
+    }
+    prefetched = config.getParallelReader().get(transaction, gets);
+  }
+
+  private boolean isFirstStockOccurrence(int index) {
+    for (int i = 0; i < index; i++) {
+      if (itemIds[i] == itemIds[index] && supplierWarehouseIds[i] == supplierWarehouseIds[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public void execute() throws TransactionException {
     transaction = manager.start();
+    prefetched = null;
+    rolledBack = false;
+    if (config.parallelReads()) {
+      prefetch();
+    }
+    int stockIndex = ITEM_INDEX + orderLineCount;
 
     // Get warehouse
-    Optional<Result> result = transaction.get(Warehouse.createGet(warehouseId));
+    Optional<Result> result =
+        prefetched != null
+            ? prefetched.get(WAREHOUSE_INDEX)
+            : transaction.get(createWarehouseGet());
     if (!result.isPresent()) {
       throw new TransactionException("Warehouse not found", transaction.getId());
     }
     final double warehouseTax = result.get().getValue(Warehouse.KEY_TAX).get().getAsDouble();
 
     // Get and update district
-    result = transaction.get(District.createGet(warehouseId, districtId));
+    result =
+        prefetched != null ? prefetched.get(DISTRICT_INDEX) : transaction.get(createDistrictGet());
     if (!result.isPresent()) {
       throw new TransactionException("District not found", transaction.getId());
     }
@@ -119,7 +246,8 @@ public class NewOrderTransaction implements TpccTransaction {
     transaction.put(district.createPut());
 
     // Get customer
-    result = transaction.get(Customer.createGet(warehouseId, districtId, customerId));
+    result =
+        prefetched != null ? prefetched.get(CUSTOMER_INDEX) : transaction.get(createCustomerGet());
     if (!result.isPresent()) {
       throw new TransactionException("Customer not found", transaction.getId());
     }
@@ -152,8 +280,16 @@ public class NewOrderTransaction implements TpccTransaction {
       final int quantity = orderQuantities[orderLineNumber - 1];
 
       // Get item
-      result = transaction.get(Item.createGet(itemId));
+      result =
+          prefetched != null
+              ? prefetched.get(ITEM_INDEX + orderLineNumber - 1)
+              : transaction.get(createItemGet(orderLineNumber - 1));
       if (!result.isPresent()) {
+        if (rollback && orderLineNumber == orderLineCount) {
+          // the rest of the new-order is not executed, and it is rolled back instead of committed
+          rolledBack = true;
+          return;
+        }
         throw new TransactionException("Item not found", transaction.getId());
       }
       final double itemPrice = result.get().getValue(Item.KEY_PRICE).get().getAsDouble();
@@ -161,7 +297,11 @@ public class NewOrderTransaction implements TpccTransaction {
           quantity * itemPrice * (1.0 + warehouseTax + districtTax) * (1.0 - discount);
 
       // Get and update stock
-      result = transaction.get(Stock.createGet(supplyWarehouseId, itemId));
+      if (prefetched != null && isFirstStockOccurrence(orderLineNumber - 1)) {
+        result = prefetched.get(stockIndex++);
+      } else {
+        result = transaction.get(createStockGet(orderLineNumber - 1));
+      }
       if (!result.isPresent()) {
         throw new TransactionException("Stock not found", transaction.getId());
       }
@@ -204,8 +344,22 @@ public class NewOrderTransaction implements TpccTransaction {
     }
   }
 
+  /**
+   * Returns whether or not the last execution found the unused item and rolled back the new-order
+   * instead of committing it. A rolled-back new-order is still a completed new-order.
+   *
+   * @return true if the new-order was rolled back
+   */
+  public boolean isRolledBack() {
+    return rolledBack;
+  }
+
   @Override
   public void commit() throws TransactionException {
+    if (rolledBack) {
+      transaction.abort();
+      return;
+    }
     transaction.commit();
   }
 
@@ -4,19 +4,33 @@ import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.api.Result;
 import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.benchmarks.tpcc.table.Customer;
 import com.scalar.db.benchmarks.tpcc.table.Order;
 import com.scalar.db.benchmarks.tpcc.table.OrderLine;
 import com.scalar.db.benchmarks.tpcc.table.OrderSecondary;
-import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.exception.transaction.TransactionException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 public class OrderStatusTransaction implements TpccTransaction {
+  private static final String[] CUSTOMER_COLUMNS = {
+    Customer.KEY_BALANCE, Customer.KEY_FIRST, Customer.KEY_MIDDLE, Customer.KEY_LAST
+  };
+  private static final String[] ORDER_ID_COLUMNS = {Order.KEY_ID};
+  private static final String[] ORDER_SECONDARY_COLUMNS = {OrderSecondary.KEY_ORDER_ID};
+  private static final String[] ORDER_COLUMNS = {Order.KEY_ENTRY_D, Order.KEY_CARRIER_ID};
+  private static final String[] ORDER_LINE_COLUMNS = {
+    OrderLine.KEY_SUPPLY_W_ID,
+    OrderLine.KEY_ITEM_ID,
+    OrderLine.KEY_QUANTITY,
+    OrderLine.KEY_AMOUNT,
+    OrderLine.KEY_DELIVERY_D
+  };
   private final TpccConfig config;
+  private final TpccTerminal terminal;
   private final DistributedTransactionManager manager;
   private DistributedTransaction transaction;
   private int warehouseId;
@@ -25,14 +39,19 @@ public class OrderStatusTransaction implements TpccTransaction {
   private boolean byLastName;
   private String lastName;
 
-  public OrderStatusTransaction(DistributedTransactionManager manager, TpccConfig config) {
+  public OrderStatusTransaction(
+      DistributedTransactionManager manager, TpccConfig config, TpccTerminal terminal) {
     this.manager = manager;
     this.config = config;
+    this.terminal = terminal;
     generate();
   }
 
   private int getOrderIdBySecondaryIndex(DistributedTransaction tx) throws TransactionException {
-    List<Result> results = tx.scan(Order.createScan(warehouseId, districtId, customerId));
+    List<Result> results =
+        tx.scan(
+            Order.createScan(
+                warehouseId, districtId, customerId, config.projections(ORDER_ID_COLUMNS)));
     if (results.size() < 1) {
       throw new TransactionException("Invalid scan on order-secondary", tx.getId());
     }
@@ -41,7 +60,10 @@ public class OrderStatusTransaction implements TpccTransaction {
   }
 
   private int getOrderIdByTableIndex(DistributedTransaction tx) throws TransactionException {
-    List<Result> results = tx.scan(OrderSecondary.createScan(warehouseId, districtId, customerId));
+    List<Result> results =
+        tx.scan(
+            OrderSecondary.createScan(
+                warehouseId, districtId, customerId, config.projections(ORDER_SECONDARY_COLUMNS)));
     if (results.size() != 1) {
       throw new TransactionException("Invalid scan on order-secondary", tx.getId());
     }
@@ -49,9 +71,8 @@ public class OrderStatusTransaction implements TpccTransaction {
   }
 
   private void generate() {
-    int numWarehouse = config.getNumWarehouse();
-    warehouseId = TpccUtil.randomInt(1, numWarehouse);
-    districtId = TpccUtil.randomInt(1, Warehouse.DISTRICTS);
+    warehouseId = terminal.getWarehouseId();
+    districtId = terminal.getDistrictId();
     byLastName = TpccUtil.randomInt(1, 100) <= 60;
     if (byLastName) {
       customerId = Customer.UNUSED_ID;
@@ -68,16 +89,20 @@ public class OrderStatusTransaction implements TpccTransaction {
     if (byLastName) {
       if (config.useTableIndex()) {
         customerId =
-            TpccUtil.getCustomerIdByTableIndex(transaction, warehouseId, districtId, lastName);
+            TpccUtil.getCustomerIdByTableIndex(
+                transaction, warehouseId, districtId, lastName, config);
       } else {
         customerId =
-            TpccUtil.getCustomerIdBySecondaryIndex(transaction, warehouseId, districtId, lastName);
+            TpccUtil.getCustomerIdBySecondaryIndex(
+                transaction, warehouseId, districtId, lastName, config);
       }
     }
 
     // Get customer
     Optional<Result> result =
-        transaction.get(Customer.createGet(warehouseId, districtId, customerId));
+        transaction.get(
+            Customer.createGet(
+                warehouseId, districtId, customerId, config.projections(CUSTOMER_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("Customer not found", transaction.getId());
     }
@@ -91,14 +116,18 @@ public class OrderStatusTransaction implements TpccTransaction {
     }
 
     // Get order
-    result = transaction.get(Order.createGet(warehouseId, districtId, orderId));
+    result =
+        transaction.get(
+            Order.createGet(warehouseId, districtId, orderId, config.projections(ORDER_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("Order not found", transaction.getId());
     }
 
     // Get order-line
     List<Result> orderLines =
-        transaction.scan(OrderLine.createScan(warehouseId, districtId, orderId));
+        transaction.scan(
+            OrderLine.createScan(
+                warehouseId, districtId, orderId, config.projections(ORDER_LINE_COLUMNS)));
     orderLines.forEach(
         line -> {
           int supplyWarehouseId = line.getValue(OrderLine.KEY_SUPPLY_W_ID).get().getAsInt();
@@ -4,6 +4,7 @@ import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.api.Result;
 import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.benchmarks.tpcc.table.Customer;
 import com.scalar.db.benchmarks.tpcc.table.District;
@@ -14,7 +15,17 @@ import java.util.Date;
 import java.util.Optional;
 
 public class PaymentTransaction implements TpccTransaction {
+  private static final String[] WAREHOUSE_COLUMNS = {Warehouse.KEY_NAME, Warehouse.KEY_YTD};
+  private static final String[] DISTRICT_COLUMNS = {District.KEY_NAME, District.KEY_YTD};
+  private static final String[] CUSTOMER_COLUMNS = {
+    Customer.KEY_BALANCE,
+    Customer.KEY_YTD_PAYMENT,
+    Customer.KEY_PAYMENT_CNT,
+    Customer.KEY_CREDIT,
+    Customer.KEY_DATA
+  };
   private final TpccConfig config;
+  private final TpccTerminal terminal;
   private final DistributedTransactionManager manager;
   private DistributedTransaction transaction;
   private int warehouseId;
@@ -27,16 +38,18 @@ public class PaymentTransaction implements TpccTransaction {
   private float paymentAmount;
   private Date date;
 
-  public PaymentTransaction(DistributedTransactionManager manager, TpccConfig config) {
+  public PaymentTransaction(
+      DistributedTransactionManager manager, TpccConfig config, TpccTerminal terminal) {
     this.manager = manager;
     this.config = config;
+    this.terminal = terminal;
     generate();
   }
 
   private void generate() {
     int numWarehouse = config.getNumWarehouse();
-    warehouseId = TpccUtil.randomInt(1, numWarehouse);
-    districtId = TpccUtil.randomInt(1, Warehouse.DISTRICTS);
+    warehouseId = terminal.getWarehouseId();
+    districtId = terminal.getDistrictId();
     paymentAmount = (float) (TpccUtil.randomInt(100, 500000) / 100.0);
     date = new Date();
 
@@ -112,7 +125,8 @@ public class PaymentTransaction implements TpccTransaction {
     transaction = manager.start();
 
     // Get and update warehouse
-    Optional<Result> result = transaction.get(Warehouse.createGet(warehouseId));
+    Optional<Result> result =
+        transaction.get(Warehouse.createGet(warehouseId, config.projections(WAREHOUSE_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("Warehouse not found", transaction.getId());
     }
@@ -124,7 +138,9 @@ public class PaymentTransaction implements TpccTransaction {
     transaction.put(warehouse.createPut());
 
     // Get and update district
-    result = transaction.get(District.createGet(warehouseId, districtId));
+    result =
+        transaction.get(
+            District.createGet(warehouseId, districtId, config.projections(DISTRICT_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("District not found", transaction.getId());
     }
@@ -139,15 +155,20 @@ public class PaymentTransaction implements TpccTransaction {
       if (config.useTableIndex()) {
         customerId =
             TpccUtil.getCustomerIdByTableIndex(
-                transaction, warehouseId, districtId, customerLastName);
+                transaction, warehouseId, districtId, customerLastName, config);
       } else {
         customerId =
             TpccUtil.getCustomerIdBySecondaryIndex(
-                transaction, warehouseId, districtId, customerLastName);
+                transaction, warehouseId, districtId, customerLastName, config);
       }
     }
     result =
-        transaction.get(Customer.createGet(customerWarehouseId, customerDistrictId, customerId));
+        transaction.get(
+            Customer.createGet(
+                customerWarehouseId,
+                customerDistrictId,
+                customerId,
+                config.projections(CUSTOMER_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("Customer not found", transaction.getId());
     }
@@ -0,0 +1,99 @@
+package com.scalar.db.benchmarks.tpcc.transaction;
+
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.ParallelTasks;
+import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
+import com.scalar.db.benchmarks.tpcc.table.Warehouse;
+import com.scalar.db.exception.transaction.TransactionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * A delivery that commits one transaction per district instead of delivering all the districts in
+ * a single transaction, which shrinks the read and write sets of each transaction.
+ *
+ * <p>Each district is delivered by a single-district {@link DeliveryTransaction} executed by the
+ * specified runner, which retries the district on conflicts, so the districts that have been
+ * committed are not delivered again. The districts are delivered by up to "concurrency" threads,
+ * the calling thread and the threads of the specified tasks, or only by the calling thread without
+ * them. Since each district is committed separately, this delivery itself has nothing to commit or
+ * abort.
+ */
+public class SplitDeliveryTransaction extends DeliveryTransaction {
+  @Nullable private final ParallelTasks tasks;
+  private final DistrictRunner districtRunner;
+  private final int concurrency;
+  private final AtomicInteger skippedDistrictCount = new AtomicInteger();
+
+  public SplitDeliveryTransaction(
+      DistributedTransactionManager manager,
+      TpccConfig config,
+      TpccTerminal terminal,
+      @Nullable ParallelTasks tasks,
+      DistrictRunner districtRunner) {
+    super(manager, config, terminal);
+    this.tasks = tasks;
+    this.districtRunner = districtRunner;
+    this.concurrency = config.getSplitDeliveryConcurrency();
+  }
+
+  @Override
+  public int getSkippedDistrictCount() {
+    return skippedDistrictCount.get();
+  }
+
+  @Override
+  public void execute() throws TransactionException {
+    skippedDistrictCount.set(0);
+    AtomicInteger nextDistrictId = new AtomicInteger(1);
+    if (tasks == null) {
+      deliverDistricts(nextDistrictId);
+      return;
+    }
+    tasks.run(concurrency, part -> deliverDistricts(nextDistrictId));
+  }
+
+  @Override
+  public void commit() {
+    // each district has been committed
+  }
+
+  @Override
+  public void abort() {
+    // each district has been committed or aborted
+  }
+
+  private void deliverDistricts(AtomicInteger nextDistrictId) throws TransactionException {
+    while (true) {
+      int districtId = nextDistrictId.getAndIncrement();
+      if (districtId > Warehouse.DISTRICTS) {
+        return;
+      }
+      DeliveryTransaction district = new DeliveryTransaction(this, districtId);
+      try {
+        districtRunner.run(district, districtId);
+      } catch (TransactionException | RuntimeException e) {
+        // stop the other threads from taking more districts
+        nextDistrictId.set(Warehouse.DISTRICTS + 1);
+        throw e;
+      }
+      skippedDistrictCount.addAndGet(district.getSkippedDistrictCount());
+    }
+  }
+
+  /** Executes the delivery of a district with retries on conflicts. */
+  @FunctionalInterface
+  public interface DistrictRunner {
+
+    /**
+     * Executes the specified delivery of a district.
+     *
+     * @param district a delivery of a district
+     * @param districtId the ID of the district
+     * @return the number of retries
+     * @throws TransactionException if the delivery failed
+     */
+    int run(TpccTransaction district, int districtId) throws TransactionException;
+  }
+}
@@ -4,12 +4,12 @@ import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.api.Result;
 import com.scalar.db.benchmarks.tpcc.TpccConfig;
+import com.scalar.db.benchmarks.tpcc.TpccTerminal;
 import com.scalar.db.benchmarks.tpcc.TpccUtil;
 import com.scalar.db.benchmarks.tpcc.table.District;
 import com.scalar.db.benchmarks.tpcc.table.Item;
 import com.scalar.db.benchmarks.tpcc.table.OrderLine;
 import com.scalar.db.benchmarks.tpcc.table.Stock;
-import com.scalar.db.benchmarks.tpcc.table.Warehouse;
 import com.scalar.db.exception.transaction.TransactionException;
 import java.util.HashSet;
 import java.util.List;
@@ -18,23 +18,28 @@ import java.util.Set;
 
 public class StockLevelTransaction implements TpccTransaction {
   private static final int NUM_LATEST_ORDERS = 20;
+  private static final String[] DISTRICT_COLUMNS = {District.KEY_NEXT_O_ID};
+  private static final String[] ORDER_LINE_COLUMNS = {OrderLine.KEY_ITEM_ID};
+  private static final String[] STOCK_COLUMNS = {Stock.KEY_QUANTITY};
   private final TpccConfig config;
+  private final TpccTerminal terminal;
   private final DistributedTransactionManager manager;
   private DistributedTransaction transaction;
   private int warehouseId;
   private int districtId;
   private int threshold;
 
-  public StockLevelTransaction(DistributedTransactionManager manager, TpccConfig config) {
+  public StockLevelTransaction(
+      DistributedTransactionManager manager, TpccConfig config, TpccTerminal terminal) {
     this.manager = manager;
     this.config = config;
+    this.terminal = terminal;
     generate();
   }
 
   private void generate() {
-    int numWarehouse = config.getNumWarehouse();
-    warehouseId = TpccUtil.randomInt(1, numWarehouse);
-    districtId = TpccUtil.randomInt(1, Warehouse.DISTRICTS);
+    warehouseId = terminal.getWarehouseId();
+    districtId = terminal.getDistrictId();
     threshold = TpccUtil.randomInt(10, 20);
   }
 
@@ -43,7 +48,9 @@ public class StockLevelTransaction implements TpccTransaction {
     transaction = manager.start();
 
     // Get next order ID in the district
-    Optional<Result> result = transaction.get(District.createGet(warehouseId, districtId));
+    Optional<Result> result =
+        transaction.get(
+            District.createGet(warehouseId, districtId, config.projections(DISTRICT_COLUMNS)));
     if (!result.isPresent()) {
       throw new TransactionException("District not found", transaction.getId());
     }
@@ -53,7 +60,11 @@ public class StockLevelTransaction implements TpccTransaction {
     List<Result> orderLines =
         transaction.scan(
             OrderLine.createScan(
-                warehouseId, districtId, orderId - NUM_LATEST_ORDERS, orderId - 1));
+                warehouseId,
+                districtId,
+                orderId - NUM_LATEST_ORDERS,
+                orderId - 1,
+                config.projections(ORDER_LINE_COLUMNS)));
 
     // Prepare distinct items
     Set<Integer> itemSet = new HashSet<>();
@@ -67,7 +78,9 @@ public class StockLevelTransaction implements TpccTransaction {
     // Count items where its stock is below the threshold
     int lowStock = 0;
     for (int itemId : itemSet) {
-      Optional<Result> stock = transaction.get(Stock.createGet(warehouseId, itemId));
+      Optional<Result> stock =
+          transaction.get(
+              Stock.createGet(warehouseId, itemId, config.projections(STOCK_COLUMNS)));
       if (!stock.isPresent()) {
         throw new TransactionException("Stock not found", transaction.getId());
       }
@@ -0,0 +1,17 @@
+package com.scalar.db.benchmarks.tpcc.transaction;
+
+import com.scalar.db.exception.transaction.TransactionException;
+
+/** Executes a transaction with retries on conflicts. */
+@FunctionalInterface
+public interface TpccTransactionRunner {
+
+  /**
+   * Executes the specified transaction.
+   *
+   * @param transaction a transaction
+   * @return the number of retries
+   * @throws TransactionException if the transaction failed
+   */
+  int run(TpccTransaction transaction) throws TransactionException;
+}
@@ -0,0 +1,77 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Samples an index with probabilities proportional to the given weights in O(1) time with Vose's
+ * alias method. The table is built in the constructor and is read-only afterward.
+ */
+@ThreadSafe
+public class AliasTable {
+  private final double[] probability;
+  private final int[] alias;
+
+  public AliasTable(double[] weights) {
+    int n = weights.length;
+    if (n == 0) {
+      throw new IllegalArgumentException("at least one weight is required");
+    }
+    double sum = 0;
+    for (double weight : weights) {
+      if (weight < 0 || Double.isNaN(weight)) {
+        throw new IllegalArgumentException("weights must not be negative");
+      }
+      sum += weight;
+    }
+    if (sum <= 0) {
+      throw new IllegalArgumentException("the sum of the weights must be positive");
+    }
+
+    probability = new double[n];
+    alias = new int[n];
+    double[] scaled = new double[n];
+    Deque<Integer> small = new ArrayDeque<>();
+    Deque<Integer> large = new ArrayDeque<>();
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / sum;
+      if (scaled[i] < 1.0) {
+        small.push(i);
+      } else {
+        large.push(i);
+      }
+    }
+    while (!small.isEmpty() && !large.isEmpty()) {
+      int less = small.pop();
+      int more = large.pop();
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1.0;
+      if (scaled[more] < 1.0) {
+        small.push(more);
+      } else {
+        large.push(more);
+      }
+    }
+    // the remaining entries are 1.0 except for rounding errors
+    while (!large.isEmpty()) {
+      probability[large.pop()] = 1.0;
+    }
+    while (!small.isEmpty()) {
+      probability[small.pop()] = 1.0;
+    }
+  }
+
+  /**
+   * Returns the next index.
+   *
+   * @return an index in {@code [0, weights.length)}
+   */
+  public int next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int column = random.nextInt(probability.length);
+    return random.nextDouble() < probability[column] ? column : alias[column];
+  }
+}
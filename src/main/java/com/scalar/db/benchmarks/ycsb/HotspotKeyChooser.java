@@ -0,0 +1,35 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses keys from a hot set with a given probability. The hot set is the first {@code
+ * hotSetFraction} of the key space, and {@code hotOpnFraction} of the operations access it.
+ * Within the hot set and the cold set, keys are chosen uniformly.
+ */
+public class HotspotKeyChooser implements KeyChooser {
+  private final long recordCount;
+  private final long hotSetSize;
+  private final double hotOpnFraction;
+
+  public HotspotKeyChooser(long recordCount, double hotSetFraction, double hotOpnFraction) {
+    if (hotSetFraction < 0.0 || hotSetFraction > 1.0) {
+      throw new IllegalArgumentException("the hot set fraction must be in [0.0, 1.0]");
+    }
+    if (hotOpnFraction < 0.0 || hotOpnFraction > 1.0) {
+      throw new IllegalArgumentException("the hot operation fraction must be in [0.0, 1.0]");
+    }
+    this.recordCount = recordCount;
+    this.hotSetSize = Math.max(1, (long) (recordCount * hotSetFraction));
+    this.hotOpnFraction = hotOpnFraction;
+  }
+
+  @Override
+  public long nextKey() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (hotSetSize >= recordCount || random.nextDouble() < hotOpnFraction) {
+      return random.nextLong(hotSetSize);
+    }
+    return hotSetSize + random.nextLong(recordCount - hotSetSize);
+  }
+}
@@ -0,0 +1,73 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Allocates the keys of new records for inserts and tracks the highest key whose insert has been
+ * acknowledged, i.e., committed.
+ *
+ * <p>Each thread takes a block of consecutive keys from a shared counter and allocates the keys in
+ * the block without touching shared state, so the threads rarely contend on the counter. The
+ * highest acknowledged key is kept in a {@code LongAccumulator}, which spreads concurrent updates
+ * over multiple cells. Since keys are allocated in blocks and transactions commit out of order,
+ * some keys below the highest acknowledged key may not have been inserted yet.
+ */
+@ThreadSafe
+public class KeyAllocator {
+  private final AtomicLong nextBlockStart;
+  private final int blockSize;
+  private final LongAccumulator maxAcknowledgedKey;
+  // the next key and the end of the block of the thread
+  private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]);
+
+  /**
+   * Creates a {@code KeyAllocator} that allocates keys from {@code recordCount}, assuming that the
+   * keys in {@code [0, recordCount)} have been loaded.
+   *
+   * @param recordCount the number of the loaded records
+   * @param blockSize the number of keys taken by a thread at once
+   */
+  public KeyAllocator(long recordCount, int blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("the block size must be positive");
+    }
+    this.nextBlockStart = new AtomicLong(recordCount);
+    this.blockSize = blockSize;
+    this.maxAcknowledgedKey = new LongAccumulator(Math::max, recordCount - 1);
+  }
+
+  /**
+   * Returns a key that has not been allocated yet.
+   *
+   * @return a new key
+   */
+  public long allocate() {
+    long[] b = block.get();
+    if (b[0] == b[1]) {
+      b[0] = nextBlockStart.getAndAdd(blockSize);
+      b[1] = b[0] + blockSize;
+    }
+    return b[0]++;
+  }
+
+  /**
+   * Notifies that the insert of the specified key has been committed.
+   *
+   * @param key an allocated key
+   */
+  public void acknowledge(long key) {
+    maxAcknowledgedKey.accumulate(key);
+  }
+
+  /**
+   * Returns the highest acknowledged key, or {@code recordCount - 1} if no insert has been
+   * acknowledged.
+   *
+   * @return the highest acknowledged key
+   */
+  public long getMaxAcknowledgedKey() {
+    return maxAcknowledgedKey.get();
+  }
+}
@@ -0,0 +1,16 @@
+package com.scalar.db.benchmarks.ycsb;
+
+/**
+ * Chooses the key of the next record to operate on. Implementations are shared by all the worker
+ * threads of a processor, so they must be thread-safe without locking and must not allocate on
+ * {@link #nextKey()}.
+ */
+public interface KeyChooser {
+
+  /**
+   * Returns the next key.
+   *
+   * @return a key in {@code [0, record_count)}
+   */
+  long nextKey();
+}
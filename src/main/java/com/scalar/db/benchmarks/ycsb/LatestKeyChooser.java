@@ -0,0 +1,22 @@
+package com.scalar.db.benchmarks.ycsb;
+
+/**
+ * Chooses recently inserted keys more often. The distance from the latest key follows a Zipfian
+ * distribution, so the latest key is the most popular one. The latest key is the highest key
+ * acknowledged by the {@code KeyAllocator}, so it moves forward as new records are inserted. The
+ * distance is at most the initial number of records, so that a chosen key always exists.
+ */
+public class LatestKeyChooser implements KeyChooser {
+  private final ZipfianGenerator zipfian;
+  private final KeyAllocator allocator;
+
+  public LatestKeyChooser(long recordCount, double zipfianConstant, KeyAllocator allocator) {
+    this.zipfian = new ZipfianGenerator(recordCount, zipfianConstant);
+    this.allocator = allocator;
+  }
+
+  @Override
+  public long nextKey() {
+    return allocator.getMaxAcknowledgedKey() - zipfian.nextRank();
+  }
+}
@@ -0,0 +1,65 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Counts the records loaded by the threads of a loader, and logs the progress and the throughput
+ * of loading the key range periodically until it's closed.
+ */
+@ThreadSafe
+public class LoadProgress implements AutoCloseable {
+  private static final long LOG_INTERVAL_SEC = 10;
+  private final Consumer<String> logger;
+  private final long startKey;
+  private final long endKey;
+  private final long startNanos = System.nanoTime();
+  private final LongAdder loadedCount = new LongAdder();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Starts logging the progress of loading the keys in {@code [startKey, endKey)}.
+   *
+   * @param logger a function that logs a message
+   * @param startKey the first key to load
+   * @param endKey the end of the keys to load (exclusive)
+   */
+  public LoadProgress(Consumer<String> logger, long startKey, long endKey) {
+    this.logger = logger;
+    this.startKey = startKey;
+    this.endKey = endKey;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("load-progress").setDaemon(true).build());
+    executor.scheduleAtFixedRate(
+        () -> logger.accept(summarize()), LOG_INTERVAL_SEC, LOG_INTERVAL_SEC, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Adds the number of the records that have been loaded.
+   *
+   * @param count the number of the loaded records
+   */
+  public void add(long count) {
+    loadedCount.add(count);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    logger.accept(summarize());
+  }
+
+  private String summarize() {
+    long loaded = loadedCount.sum();
+    double elapsedSec = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+    return String.format(
+        "%d of %d records in [%d, %d) loaded in %.1f s (%.1f records/s)",
+        loaded, endKey - startKey, startKey, endKey, elapsedSec, loaded / elapsedSec);
+  }
+}
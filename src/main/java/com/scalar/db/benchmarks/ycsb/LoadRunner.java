@@ -4,45 +4,92 @@ import static com.scalar.db.benchmarks.ycsb.YcsbCommon.NAMESPACE_PRIMARY;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.NAMESPACE_SECONDARY;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadBatchSize;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadConcurrency;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadKeyRange;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadOverwrite;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadUnitSize;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadSize;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.prepareGet;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.preparePut;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.randomFastChars;
 
+import com.scalar.db.api.DistributedStorage;
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LoadCheckpoint;
+import com.scalar.db.exception.storage.ExecutionException;
 import com.scalar.db.exception.transaction.AbortException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.kelpie.config.Config;
 import io.github.resilience4j.retry.Retry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class LoadRunner {
   private static final Logger LOGGER = LoggerFactory.getLogger(LoadRunner.class);
-  private final DistributedTransactionManager manager;
+  @Nullable private final DistributedTransactionManager manager;
+  @Nullable private final DistributedStorage storage;
+  private final YcsbTable table;
+  private final YcsbTable primaryTable; // for multi-storage mode
+  private final YcsbTable secondaryTable; // for multi-storage mode
   private final int id;
   private final int concurrency;
-  private final int recordCount;
+  private final long loadStartKey;
+  private final long loadEndKey;
+  private final long unitSize;
+  @Nullable private final LoadProgress progress;
+  @Nullable private final LoadCheckpoint checkpoint;
   private final char[] payload;
   private final int batchSize;
   private final boolean overwrite;
 
   public LoadRunner(Config config, DistributedTransactionManager manager, int threadId) {
+    this(config, manager, null, threadId, null, null);
+  }
+
+  /**
+   * Constructs a {@code LoadRunner}. If {@code storage} is specified, the records are written with
+   * the storage API instead of transactions.
+   *
+   * @param config a {@code Config} object
+   * @param manager a {@code DistributedTransactionManager} used when {@code storage} is null
+   * @param storage a {@code DistributedStorage} used for "load_mode = storage"
+   * @param threadId an ID of the loading thread
+   * @param progress a {@code LoadProgress} that counts the loaded records, or null
+   * @param checkpoint a {@code LoadCheckpoint} that records the loaded units, or null
+   */
+  public LoadRunner(
+      Config config,
+      @Nullable DistributedTransactionManager manager,
+      @Nullable DistributedStorage storage,
+      int threadId,
+      @Nullable LoadProgress progress,
+      @Nullable LoadCheckpoint checkpoint) {
     this.id = threadId;
     this.manager = manager;
+    this.storage = storage;
+    this.progress = progress;
+    this.checkpoint = checkpoint;
+    table = YcsbTable.of(config);
+    primaryTable = YcsbTable.of(config, NAMESPACE_PRIMARY);
+    secondaryTable = YcsbTable.of(config, NAMESPACE_SECONDARY);
     concurrency = getLoadConcurrency(config);
     batchSize = getLoadBatchSize(config);
-    recordCount = getRecordCount(config);
+    long[] range = getLoadKeyRange(config);
+    loadStartKey = range[0];
+    loadEndKey = range[1];
+    unitSize = getLoadUnitSize(config);
     payload = new char[getPayloadSize(config)];
-    overwrite = getLoadOverwrite(config);
+    // the records of a partially loaded unit have to be overwritten when resuming
+    overwrite = getLoadOverwrite(config) || (checkpoint != null && checkpoint.isResuming());
   }
 
   public void run() {
@@ -54,25 +101,42 @@ public class LoadRunner {
   }
 
   private void run(boolean forMultiStorage) {
-    int numPerThread = (recordCount + concurrency - 1) / concurrency;
-    int start = numPerThread * id;
-    int end = Math.min(numPerThread * (id + 1), recordCount);
-    IntStream.range(0, (numPerThread + batchSize - 1) / batchSize)
-        .forEach(
-            i -> {
-              int startId = start + batchSize * i;
-              int endId = Math.min(start + batchSize * (i + 1), end);
-              populateWithTx(startId, endId, forMultiStorage);
-            });
+    // each thread loads a contiguous range of the checkpoint units, each of which has one or more
+    // batches. The ranges are computed in long so that they don't overflow with 2^31 records
+    long unitCount = (loadEndKey - loadStartKey + unitSize - 1) / unitSize;
+    long unitsPerThread = (unitCount + concurrency - 1) / concurrency;
+    long startUnit = unitsPerThread * id;
+    long endUnit = Math.min(startUnit + unitsPerThread, unitCount);
+    for (long unit = startUnit; unit < endUnit; unit++) {
+      if (checkpoint != null && checkpoint.isCompleted((int) unit)) {
+        continue;
+      }
+      long unitStart = loadStartKey + unitSize * unit;
+      long unitEnd = Math.min(unitStart + unitSize, loadEndKey);
+      for (long startId = unitStart; startId < unitEnd; startId += batchSize) {
+        long endId = Math.min(startId + batchSize, unitEnd);
+        if (storage != null) {
+          populateWithStorage(startId, endId, forMultiStorage);
+        } else {
+          populateWithTx(startId, endId, forMultiStorage);
+        }
+        if (progress != null) {
+          progress.add(endId - startId);
+        }
+      }
+      if (checkpoint != null) {
+        checkpoint.complete((int) unit);
+      }
+    }
   }
 
-  private void populateWithTx(int startId, int endId, boolean forMultiStorage) {
+  private void populateWithTx(long startId, long endId, boolean forMultiStorage) {
     Runnable populate =
         () -> {
           DistributedTransaction transaction = null;
           try {
             transaction = manager.start();
-            for (int i = startId; i < endId; ++i) {
+            for (long i = startId; i < endId; ++i) {
               randomFastChars(ThreadLocalRandom.current(), payload);
               if (forMultiStorage) {
                 putForMultiStorage(transaction, i, new String(payload));
@@ -104,26 +168,80 @@ public class LoadRunner {
     }
   }
 
-  private void putForSingleStorage(DistributedTransaction transaction, int userId, String payload)
+  private void populateWithStorage(long startId, long endId, boolean forMultiStorage) {
+    Runnable populate =
+        () -> {
+          // all the records in a batch share the metadata of one imaginary committed transaction
+          String transactionId = UUID.randomUUID().toString();
+          long timestamp = System.currentTimeMillis();
+          List<Put> puts = new ArrayList<>();
+          for (long i = startId; i < endId; ++i) {
+            randomFastChars(ThreadLocalRandom.current(), payload);
+            String payloadString = new String(payload);
+            if (forMultiStorage) {
+              puts.add(
+                  primaryTable.prepareCommittedPut(i, payloadString, transactionId, timestamp));
+              puts.add(
+                  secondaryTable.prepareCommittedPut(i, payloadString, transactionId, timestamp));
+            } else {
+              puts.add(table.prepareCommittedPut(i, payloadString, transactionId, timestamp));
+            }
+          }
+          try {
+            mutateByPartition(puts);
+          } catch (ExecutionException e) {
+            LOGGER.warn("Load failed", e);
+            throw new RuntimeException("Load failed", e);
+          }
+        };
+
+    Retry retry = Common.getRetryWithFixedWaitDuration("load");
+    Runnable decorated = Retry.decorateRunnable(retry, populate);
+    try {
+      decorated.run();
+    } catch (Exception e) {
+      LOGGER.error("Load failed repeatedly!");
+      throw e;
+    }
+  }
+
+  // a mutate() of the storage API is limited to a single partition
+  private void mutateByPartition(List<Put> puts) throws ExecutionException {
+    Map<List<Object>, List<Put>> partitions = new LinkedHashMap<>();
+    for (Put put : puts) {
+      List<Object> partition =
+          Arrays.asList(put.forNamespace(), put.forTable(), put.getPartitionKey());
+      partitions.computeIfAbsent(partition, p -> new ArrayList<>()).add(put);
+    }
+    for (List<Put> partitionPuts : partitions.values()) {
+      if (partitionPuts.size() == 1) {
+        storage.put(partitionPuts.get(0));
+      } else {
+        storage.mutate(partitionPuts);
+      }
+    }
+  }
+
+  private void putForSingleStorage(DistributedTransaction transaction, long userId, String payload)
       throws TransactionException {
     if (overwrite) {
-      Get get = prepareGet(userId);
+      Get get = table.prepareGet(userId);
       transaction.get(get);
     }
-    Put put = preparePut(userId, payload);
+    Put put = table.preparePut(userId, payload);
     transaction.put(put);
   }
 
-  private void putForMultiStorage(DistributedTransaction transaction, int userId, String payload)
+  private void putForMultiStorage(DistributedTransaction transaction, long userId, String payload)
       throws TransactionException {
     if (overwrite) {
-      Get primaryGet = prepareGet(NAMESPACE_PRIMARY, userId);
-      Get secondaryGet = prepareGet(NAMESPACE_SECONDARY, userId);
+      Get primaryGet = primaryTable.prepareGet(userId);
+      Get secondaryGet = secondaryTable.prepareGet(userId);
       transaction.get(primaryGet);
       transaction.get(secondaryGet);
     }
-    Put primaryPut = preparePut(NAMESPACE_PRIMARY, userId, payload);
-    Put secondaryPut = preparePut(NAMESPACE_SECONDARY, userId, payload);
+    Put primaryPut = primaryTable.preparePut(userId, payload);
+    Put secondaryPut = secondaryTable.preparePut(userId, payload);
     transaction.put(primaryPut);
     transaction.put(secondaryPut);
   }
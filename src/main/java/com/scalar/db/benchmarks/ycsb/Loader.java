@@ -1,9 +1,14 @@
 package com.scalar.db.benchmarks.ycsb;
 
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadCheckpoint;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadConcurrency;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getLoadKeyRange;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.isStorageLoadMode;
 
+import com.scalar.db.api.DistributedStorage;
 import com.scalar.db.api.DistributedTransactionManager;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LoadCheckpoint;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.PreProcessor;
 import java.util.ArrayList;
@@ -12,36 +17,64 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 
 public class Loader extends PreProcessor {
-  private final DistributedTransactionManager manager;
+  @Nullable private final DistributedTransactionManager manager;
+  @Nullable private final DistributedStorage storage;
   private final int concurrency;
 
   public Loader(Config config) {
     super(config);
-    manager = Common.getTransactionManager(config);
+    if (isStorageLoadMode(config)) {
+      manager = null;
+      storage = Common.getStorage(config);
+    } else {
+      manager = Common.getTransactionManager(config);
+      storage = null;
+    }
     concurrency = getLoadConcurrency(config);
   }
 
   @Override
   public void execute() {
+    long[] range = getLoadKeyRange(config);
     ExecutorService executorService = Executors.newCachedThreadPool();
     List<CompletableFuture<Void>> futures = new ArrayList<>();
-    IntStream.range(0, concurrency)
-        .forEach(
-            i -> {
-              CompletableFuture<Void> future =
-                  CompletableFuture.runAsync(
-                      () -> new LoadRunner(config, manager, i).run(), executorService);
-              futures.add(future);
-            });
+    try (LoadCheckpoint checkpoint = getLoadCheckpoint(config, getClass().getSimpleName());
+        LoadProgress progress = new LoadProgress(this::logInfo, range[0], range[1])) {
+      if (checkpoint.getCompletedCount() > 0) {
+        logInfo(
+            "Resuming the load: "
+                + checkpoint.getCompletedCount()
+                + " of "
+                + checkpoint.getUnitCount()
+                + " units have been loaded");
+      }
+      IntStream.range(0, concurrency)
+          .forEach(
+              i -> {
+                CompletableFuture<Void> future =
+                    CompletableFuture.runAsync(
+                        () ->
+                            new LoadRunner(config, manager, storage, i, progress, checkpoint)
+                                .run(),
+                        executorService);
+                futures.add(future);
+              });
 
-    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
     logInfo("All records have been inserted");
   }
 
   @Override
   public void close() throws Exception {
-    manager.close();
+    if (manager != null) {
+      manager.close();
+    }
+    if (storage != null) {
+      storage.close();
+    }
   }
 }
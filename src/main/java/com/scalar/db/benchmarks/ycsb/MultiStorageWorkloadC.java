@@ -4,22 +4,24 @@ import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.NAMESPACE_PRIMARY;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.NAMESPACE_SECONDARY;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.prepareGet;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.exception.transaction.CommitConflictException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.TimeBasedProcessor;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.LongAdder;
 import javax.json.Json;
+import javax.json.JsonObjectBuilder;
 
 /**
  * Multi-storage workload Fe: Same number of read operation for both primary and secondary database.
@@ -27,46 +29,65 @@ import javax.json.Json;
 public class MultiStorageWorkloadC extends TimeBasedProcessor {
   private static final long DEFAULT_OPS_PER_TX = 2; // 2 read operations per database
   private final DistributedTransactionManager manager;
-  private final int recordCount;
+  private final YcsbTable primaryTable;
+  private final YcsbTable secondaryTable;
+  private final KeyChooser keyChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
   private final int opsPerTx;
+  // the first half of the IDs is for the primary and the second half is for the secondary
+  private final ThreadLocal<long[]> idBuffer;
 
   private final LongAdder transactionRetryCount = new LongAdder();
 
   public MultiStorageWorkloadC(Config config) {
     super(config);
     this.manager = Common.getTransactionManager(config);
-    this.recordCount = getRecordCount(config);
+    this.primaryTable = YcsbTable.of(config, NAMESPACE_PRIMARY);
+    this.secondaryTable = YcsbTable.of(config, NAMESPACE_SECONDARY);
+    this.keyChooser = getKeyChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
     this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
+    this.idBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx * 2]);
   }
 
   @Override
   public void executeEach() throws TransactionException {
-    List<Integer> primaryIds = new ArrayList<>(opsPerTx);
-    List<Integer> secondaryIds = new ArrayList<>(opsPerTx);
-    for (int i = 0; i < opsPerTx; ++i) {
-      primaryIds.add(ThreadLocalRandom.current().nextInt(recordCount));
-      secondaryIds.add(ThreadLocalRandom.current().nextInt(recordCount));
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    long[] ids = idBuffer.get();
+    for (int i = 0; i < ids.length; ++i) {
+      ids[i] = keyChooser.nextKey();
     }
 
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
     while (true) {
       DistributedTransaction transaction = manager.start();
       try {
-        for (int userId : primaryIds) {
-          transaction.get(prepareGet(NAMESPACE_PRIMARY, userId));
+        for (int i = 0; i < opsPerTx; i++) {
+          transaction.get(primaryTable.prepareGet(ids[i]));
         }
-        for (int userId : secondaryIds) {
-          transaction.get(prepareGet(NAMESPACE_SECONDARY, userId));
+        for (int i = opsPerTx; i < ids.length; i++) {
+          transaction.get(secondaryTable.prepareGet(ids[i]));
         }
         transaction.commit();
         break;
       } catch (CrudConflictException | CommitConflictException e) {
         transaction.abort();
         transactionRetryCount.increment();
+        retryCount++;
       } catch (Exception e) {
         transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
         throw e;
       }
     }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
   }
 
   @Override
@@ -77,9 +98,13 @@ public class MultiStorageWorkloadC extends TimeBasedProcessor {
       logWarn("Failed to close the transaction manager", e);
     }
 
-    setState(
+    JsonObjectBuilder state =
         Json.createObjectBuilder()
-            .add("transaction-retry-count", transactionRetryCount.toString())
-            .build());
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
   }
 }
@@ -0,0 +1,45 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides payload strings for writes. The payloads are generated in advance so that a write
+ * doesn't allocate a new payload. If the pool size is 0, a new random payload is generated for each
+ * call as before.
+ */
+@ThreadSafe
+public class PayloadPool {
+  private final int payloadSize;
+  private final String[] payloads;
+  private final ThreadLocal<char[]> buffer;
+
+  public PayloadPool(int poolSize, int payloadSize) {
+    if (poolSize < 0) {
+      throw new IllegalArgumentException("the pool size must not be negative");
+    }
+    this.payloadSize = payloadSize;
+    this.payloads = new String[poolSize];
+    char[] chars = new char[payloadSize];
+    for (int i = 0; i < poolSize; i++) {
+      YcsbCommon.randomFastChars(ThreadLocalRandom.current(), chars);
+      payloads[i] = new String(chars);
+    }
+    this.buffer = ThreadLocal.withInitial(() -> new char[payloadSize]);
+  }
+
+  /**
+   * Returns a payload chosen randomly from the pool.
+   *
+   * @return a payload
+   */
+  public String next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (payloads.length > 0) {
+      return payloads[random.nextInt(payloads.length)];
+    }
+    char[] chars = buffer.get();
+    YcsbCommon.randomFastChars(random, chars);
+    return new String(chars, 0, payloadSize);
+  }
+}
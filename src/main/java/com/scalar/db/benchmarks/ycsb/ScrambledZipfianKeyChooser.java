@@ -0,0 +1,33 @@
+package com.scalar.db.benchmarks.ycsb;
+
+/**
+ * Chooses keys following a Zipfian distribution. The popular keys are scattered over the whole key
+ * space by hashing the rank, so that they do not concentrate on neighboring records.
+ */
+public class ScrambledZipfianKeyChooser implements KeyChooser {
+  private static final long FNV_OFFSET_BASIS_64 = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME_64 = 1099511628211L;
+  private final ZipfianGenerator zipfian;
+  private final long recordCount;
+
+  public ScrambledZipfianKeyChooser(long recordCount, double zipfianConstant) {
+    this.zipfian = new ZipfianGenerator(recordCount, zipfianConstant);
+    this.recordCount = recordCount;
+  }
+
+  @Override
+  public long nextKey() {
+    return Long.remainderUnsigned(fnvHash64(zipfian.nextRank()), recordCount);
+  }
+
+  // FNV-1a hash of the 8 bytes of the specified value
+  private static long fnvHash64(long value) {
+    long hash = FNV_OFFSET_BASIS_64;
+    for (int i = 0; i < 8; i++) {
+      hash ^= value & 0xff;
+      hash *= FNV_PRIME_64;
+      value >>= 8;
+    }
+    return hash;
+  }
+}
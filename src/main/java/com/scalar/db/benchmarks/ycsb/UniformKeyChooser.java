@@ -0,0 +1,17 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Chooses every key with the same probability. */
+public class UniformKeyChooser implements KeyChooser {
+  private final long recordCount;
+
+  public UniformKeyChooser(long recordCount) {
+    this.recordCount = recordCount;
+  }
+
+  @Override
+  public long nextKey() {
+    return ThreadLocalRandom.current().nextLong(recordCount);
+  }
+}
@@ -2,24 +2,26 @@ package com.scalar.db.benchmarks.ycsb;
 
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadSize;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.prepareGet;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.preparePut;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.USE_READ_MODIFY_WRITE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadPool;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.exception.transaction.CommitConflictException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.TimeBasedProcessor;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.LongAdder;
 import javax.json.Json;
+import javax.json.JsonObjectBuilder;
 
 /**
  * Workload A: Update heavy workload. This workload has a mix of 50/50 reads and writes. The writes
@@ -27,71 +29,83 @@ import javax.json.Json;
  */
 public class WorkloadA extends TimeBasedProcessor {
   private static final long DEFAULT_OPS_PER_TX = 2; // one read operation and one write operation
-  private static final String USE_READ_MODIFY_WRITE = "use_read_modify_write";
   private final DistributedTransactionManager manager;
-  private final int recordCount;
+  private final YcsbTable table;
+  private final KeyChooser keyChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
   private final int opsPerTx;
   private final boolean useReadModifyWrite;
-  private final int payloadSize;
+  private final PayloadPool payloadPool;
+  // the first half of the user IDs is for reads and the second half is for writes
+  private final ThreadLocal<long[]> userIdBuffer;
+  private final ThreadLocal<String[]> payloadBuffer;
 
   private final LongAdder transactionRetryCount = new LongAdder();
 
   public WorkloadA(Config config) {
     super(config);
     this.manager = Common.getTransactionManager(config);
-    this.recordCount = getRecordCount(config);
-    this.payloadSize = getPayloadSize(config);
+    this.table = YcsbTable.of(config);
+    this.keyChooser = getKeyChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
+    this.payloadPool = getPayloadPool(config);
     this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
     if (opsPerTx % 2 != 0) {
       throw new IllegalArgumentException(OPS_PER_TX + " must be a multiple of 2.");
     }
     useReadModifyWrite = config.getUserBoolean(CONFIG_NAME, USE_READ_MODIFY_WRITE, false);
+    this.userIdBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    this.payloadBuffer = ThreadLocal.withInitial(() -> new String[opsPerTx / 2]);
   }
 
   @Override
   public void executeEach() throws TransactionException {
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
     int readOpsPerTx = opsPerTx / 2;
-    int writeOpsPerTx = opsPerTx / 2;
-
-    List<Integer> readUserIds = new ArrayList<>(readOpsPerTx);
-    for (int i = 0; i < readOpsPerTx; ++i) {
-      readUserIds.add(ThreadLocalRandom.current().nextInt(recordCount));
+    long[] userIds = userIdBuffer.get();
+    String[] payloads = payloadBuffer.get();
+    for (int i = 0; i < opsPerTx; ++i) {
+      userIds[i] = keyChooser.nextKey();
     }
-
-    List<Integer> writeUserIds = new ArrayList<>(writeOpsPerTx);
-    List<String> payloads = new ArrayList<>(writeOpsPerTx);
-    char[] payload = new char[payloadSize];
-    for (int i = 0; i < writeOpsPerTx; ++i) {
-      writeUserIds.add(ThreadLocalRandom.current().nextInt(recordCount));
-
-      YcsbCommon.randomFastChars(ThreadLocalRandom.current(), payload);
-      payloads.add(new String(payload));
+    for (int i = 0; i < payloads.length; ++i) {
+      payloads[i] = payloadPool.next();
     }
 
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
     while (true) {
       DistributedTransaction transaction = manager.start();
       try {
-        for (Integer readUserId : readUserIds) {
-          transaction.get(prepareGet(readUserId));
+        for (int i = 0; i < readOpsPerTx; i++) {
+          transaction.get(table.prepareGet(userIds[i]));
         }
 
-        for (int i = 0; i < writeUserIds.size(); i++) {
-          int writeUserId = writeUserIds.get(i);
+        for (int i = readOpsPerTx; i < opsPerTx; i++) {
+          long writeUserId = userIds[i];
           if (useReadModifyWrite) {
-            transaction.get(prepareGet(writeUserId));
+            transaction.get(table.prepareGet(writeUserId));
           }
-          transaction.put(preparePut(writeUserId, payloads.get(i)));
+          transaction.put(table.preparePut(writeUserId, payloads[i - readOpsPerTx]));
         }
         transaction.commit();
         break;
       } catch (CrudConflictException | CommitConflictException e) {
         transaction.abort();
         transactionRetryCount.increment();
+        retryCount++;
       } catch (Exception e) {
         transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
         throw e;
       }
     }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
   }
 
   @Override
@@ -102,9 +116,13 @@ public class WorkloadA extends TimeBasedProcessor {
       logWarn("Failed to close the transaction manager", e);
     }
 
-    setState(
+    JsonObjectBuilder state =
         Json.createObjectBuilder()
-            .add("transaction-retry-count", transactionRetryCount.toString())
-            .build());
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
   }
 }
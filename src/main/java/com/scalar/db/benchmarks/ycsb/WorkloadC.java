@@ -2,12 +2,18 @@ package com.scalar.db.benchmarks.ycsb;
 
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.prepareGet;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.api.Get;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.ParallelReader;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.exception.transaction.CommitConflictException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.TransactionException;
@@ -15,49 +21,86 @@ import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.TimeBasedProcessor;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
 import javax.json.Json;
+import javax.json.JsonObjectBuilder;
 
 /** Workload C: Read only. */
 public class WorkloadC extends TimeBasedProcessor {
   private static final long DEFAULT_OPS_PER_TX = 2; // two read operations
+  private static final long DEFAULT_READ_FANOUT = ParallelReader.DEFAULT_READ_FANOUT;
   private final DistributedTransactionManager manager;
-  private final int recordCount;
+  private final YcsbTable table;
+  private final KeyChooser keyChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
   private final int opsPerTx;
+  private final ThreadLocal<long[]> userIdBuffer;
+  @Nullable private final ParallelReader parallelReader;
 
   private final LongAdder transactionRetryCount = new LongAdder();
 
   public WorkloadC(Config config) {
     super(config);
     this.manager = Common.getTransactionManager(config);
-    this.recordCount = getRecordCount(config);
+    this.table = YcsbTable.of(config);
+    this.keyChooser = getKeyChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
     this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
+    this.userIdBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    if (config.getUserBoolean(CONFIG_NAME, ParallelReader.PARALLEL_READS, false)) {
+      ParallelReader.checkTransactionManager(config);
+      int readFanout =
+          (int) config.getUserLong(CONFIG_NAME, ParallelReader.READ_FANOUT, DEFAULT_READ_FANOUT);
+      this.parallelReader = new ParallelReader(readFanout, (int) config.getConcurrency());
+    } else {
+      this.parallelReader = null;
+    }
   }
 
   @Override
   public void executeEach() throws TransactionException {
-    List<Integer> userIds = new ArrayList<>(opsPerTx);
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    long[] userIds = userIdBuffer.get();
     for (int i = 0; i < opsPerTx; ++i) {
-      userIds.add(ThreadLocalRandom.current().nextInt(recordCount));
+      userIds[i] = keyChooser.nextKey();
     }
 
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
     while (true) {
       DistributedTransaction transaction = manager.start();
       try {
-        for (Integer userId : userIds) {
-          transaction.get(prepareGet(userId));
+        if (parallelReader != null) {
+          List<Get> gets = new ArrayList<>(opsPerTx);
+          for (long userId : userIds) {
+            gets.add(table.prepareGet(userId));
+          }
+          parallelReader.get(transaction, gets);
+        } else {
+          for (long userId : userIds) {
+            transaction.get(table.prepareGet(userId));
+          }
         }
         transaction.commit();
         break;
       } catch (CrudConflictException | CommitConflictException e) {
         transaction.abort();
         transactionRetryCount.increment();
+        retryCount++;
       } catch (Exception e) {
         transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
         throw e;
       }
     }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
   }
 
   @Override
@@ -68,9 +111,13 @@ public class WorkloadC extends TimeBasedProcessor {
       logWarn("Failed to close the transaction manager", e);
     }
 
-    setState(
+    JsonObjectBuilder state =
         Json.createObjectBuilder()
-            .add("transaction-retry-count", transactionRetryCount.toString())
-            .build());
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
   }
 }
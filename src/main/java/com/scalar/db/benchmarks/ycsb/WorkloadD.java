@@ -0,0 +1,144 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.INSERT_PROPORTION;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyAllocator;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadPool;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
+import com.scalar.db.exception.transaction.CommitConflictException;
+import com.scalar.db.exception.transaction.CrudConflictException;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.kelpie.config.Config;
+import com.scalar.kelpie.modules.TimeBasedProcessor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Workload D: Read latest. Each operation inserts a new record with the probability of
+ * "insert_proportion", or reads a record otherwise. The keys of new records are allocated by a
+ * {@code KeyAllocator} shared by all the threads, and reads follow the "latest" distribution by
+ * default, which tracks the highest committed insert. The latencies of reads and of inserts until
+ * their commit are recorded separately, so that the throughput of each is reported.
+ */
+public class WorkloadD extends TimeBasedProcessor {
+  private static final long DEFAULT_OPS_PER_TX = 1; // one read or insert operation
+  private static final double DEFAULT_INSERT_PROPORTION = 0.05;
+  private static final String DEFAULT_REQUEST_DISTRIBUTION = "latest";
+  private static final String READ_TYPE = "Read";
+  private static final String INSERT_TYPE = "Insert";
+  private final DistributedTransactionManager manager;
+  private final YcsbTable table;
+  private final KeyAllocator keyAllocator;
+  private final KeyChooser keyChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
+  private final int opsPerTx;
+  private final double insertProportion;
+  private final PayloadPool payloadPool;
+  private final ThreadLocal<long[]> userIdBuffer;
+  private final ThreadLocal<String[]> payloadBuffer; // null for a read
+
+  private final LongAdder transactionRetryCount = new LongAdder();
+
+  public WorkloadD(Config config) {
+    super(config);
+    this.manager = Common.getTransactionManager(config);
+    this.table = YcsbTable.of(config);
+    this.keyAllocator = getKeyAllocator(config);
+    this.keyChooser = getKeyChooser(config, DEFAULT_REQUEST_DISTRIBUTION, keyAllocator);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
+    this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
+    this.insertProportion =
+        Common.getUserDouble(config, CONFIG_NAME, INSERT_PROPORTION, DEFAULT_INSERT_PROPORTION);
+    this.payloadPool = getPayloadPool(config);
+    this.userIdBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    this.payloadBuffer = ThreadLocal.withInitial(() -> new String[opsPerTx]);
+  }
+
+  @Override
+  public void executeEach() throws TransactionException {
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    long[] userIds = userIdBuffer.get();
+    String[] payloads = payloadBuffer.get();
+    for (int i = 0; i < opsPerTx; ++i) {
+      if (ThreadLocalRandom.current().nextDouble() < insertProportion) {
+        userIds[i] = keyAllocator.allocate();
+        payloads[i] = payloadPool.next();
+      } else {
+        userIds[i] = keyChooser.nextKey();
+        payloads[i] = null;
+      }
+    }
+
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
+    while (true) {
+      DistributedTransaction transaction = manager.start();
+      try {
+        for (int i = 0; i < opsPerTx; ++i) {
+          if (payloads[i] != null) {
+            transaction.put(table.preparePut(userIds[i], payloads[i]));
+            continue;
+          }
+          long readStartNanos = System.nanoTime();
+          transaction.get(table.prepareGet(userIds[i]));
+          latencyRecorder.record(READ_TYPE, readStartNanos, 0);
+        }
+        transaction.commit();
+        break;
+      } catch (CrudConflictException | CommitConflictException e) {
+        transaction.abort();
+        transactionRetryCount.increment();
+        retryCount++;
+      } catch (Exception e) {
+        transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
+        throw e;
+      }
+    }
+
+    // the inserted records become visible to the "latest" distribution only after the commit
+    for (int i = 0; i < opsPerTx; ++i) {
+      if (payloads[i] != null) {
+        keyAllocator.acknowledge(userIds[i]);
+        latencyRecorder.record(INSERT_TYPE, startNanos, retryCount);
+      }
+    }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
+  }
+
+  @Override
+  public void close() {
+    try {
+      manager.close();
+    } catch (Exception e) {
+      logWarn("Failed to close the transaction manager", e);
+    }
+
+    JsonObjectBuilder state =
+        Json.createObjectBuilder()
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
+  }
+}
@@ -0,0 +1,152 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.DEFAULT_REQUEST_DISTRIBUTION;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.INSERT_PROPORTION;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyAllocator;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadPool;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getScanLengthChooser;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
+import com.scalar.db.exception.transaction.CommitConflictException;
+import com.scalar.db.exception.transaction.CrudConflictException;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.kelpie.config.Config;
+import com.scalar.kelpie.modules.TimeBasedProcessor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * Workload E: Short ranges. Each operation scans a short range of records starting from a chosen
+ * key, or inserts a new record with the probability of "insert_proportion". The records should be
+ * stored in the clustered usertable ("use_clustered_table = true") so that a range is read with a
+ * scan. The latency per row of the scans is recorded in addition to the latency of transactions.
+ */
+public class WorkloadE extends TimeBasedProcessor {
+  private static final long DEFAULT_OPS_PER_TX = 1; // one scan or insert operation
+  private static final double DEFAULT_INSERT_PROPORTION = 0.05;
+  private static final String SCAN_TYPE = "Scan";
+  private static final String SCAN_PER_ROW_TYPE = "Scan per row";
+  private final DistributedTransactionManager manager;
+  private final YcsbTable table;
+  private final KeyAllocator keyAllocator;
+  private final KeyChooser keyChooser;
+  private final IntSupplier scanLengthChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
+  private final int opsPerTx;
+  private final double insertProportion;
+  private final PayloadPool payloadPool;
+  private final ThreadLocal<long[]> userIdBuffer;
+  private final ThreadLocal<int[]> scanLengthBuffer; // 0 for an insert
+  private final ThreadLocal<String[]> payloadBuffer;
+
+  private final LongAdder transactionRetryCount = new LongAdder();
+
+  public WorkloadE(Config config) {
+    super(config);
+    this.manager = Common.getTransactionManager(config);
+    this.table = YcsbTable.of(config);
+    this.keyAllocator = getKeyAllocator(config);
+    if (!table.isClustered()) {
+      logWarn("The usertable isn't clustered, so ranges are read with gets instead of scans");
+    }
+    this.keyChooser = getKeyChooser(config, DEFAULT_REQUEST_DISTRIBUTION, keyAllocator);
+    this.scanLengthChooser = getScanLengthChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
+    this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
+    this.insertProportion =
+        Common.getUserDouble(config, CONFIG_NAME, INSERT_PROPORTION, DEFAULT_INSERT_PROPORTION);
+    this.payloadPool = getPayloadPool(config);
+    this.userIdBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    this.scanLengthBuffer = ThreadLocal.withInitial(() -> new int[opsPerTx]);
+    this.payloadBuffer = ThreadLocal.withInitial(() -> new String[opsPerTx]);
+  }
+
+  @Override
+  public void executeEach() throws TransactionException {
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    long[] userIds = userIdBuffer.get();
+    int[] scanLengths = scanLengthBuffer.get();
+    String[] payloads = payloadBuffer.get();
+    for (int i = 0; i < opsPerTx; ++i) {
+      if (ThreadLocalRandom.current().nextDouble() < insertProportion) {
+        userIds[i] = keyAllocator.allocate();
+        scanLengths[i] = 0;
+        payloads[i] = payloadPool.next();
+      } else {
+        userIds[i] = keyChooser.nextKey();
+        scanLengths[i] = scanLengthChooser.getAsInt();
+      }
+    }
+
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
+    while (true) {
+      DistributedTransaction transaction = manager.start();
+      try {
+        for (int i = 0; i < opsPerTx; ++i) {
+          if (scanLengths[i] == 0) {
+            transaction.put(table.preparePut(userIds[i], payloads[i]));
+            continue;
+          }
+          long scanStartNanos = System.nanoTime();
+          int rowCount = table.scan(transaction, userIds[i], scanLengths[i]);
+          latencyRecorder.record(SCAN_TYPE, scanStartNanos, 0);
+          latencyRecorder.record(SCAN_PER_ROW_TYPE, scanStartNanos, 0, rowCount);
+        }
+        transaction.commit();
+        for (int i = 0; i < opsPerTx; ++i) {
+          if (scanLengths[i] == 0) {
+            keyAllocator.acknowledge(userIds[i]);
+          }
+        }
+        break;
+      } catch (CrudConflictException | CommitConflictException e) {
+        transaction.abort();
+        transactionRetryCount.increment();
+        retryCount++;
+      } catch (Exception e) {
+        transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
+        throw e;
+      }
+    }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
+  }
+
+  @Override
+  public void close() {
+    try {
+      manager.close();
+    } catch (Exception e) {
+      logWarn("Failed to close the transaction manager", e);
+    }
+
+    JsonObjectBuilder state =
+        Json.createObjectBuilder()
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
+  }
+}
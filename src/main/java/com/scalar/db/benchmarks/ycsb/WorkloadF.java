@@ -2,24 +2,25 @@ package com.scalar.db.benchmarks.ycsb;
 
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
 import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadSize;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.prepareGet;
-import static com.scalar.db.benchmarks.ycsb.YcsbCommon.preparePut;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadPool;
 
 import com.scalar.db.api.DistributedTransaction;
 import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
 import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.db.exception.transaction.CommitConflictException;
 import com.scalar.db.exception.transaction.CrudConflictException;
 import com.scalar.db.exception.transaction.TransactionException;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.TimeBasedProcessor;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.LongAdder;
 import javax.json.Json;
+import javax.json.JsonObjectBuilder;
 
 /** Workload F: Read-modify-write. */
 public class WorkloadF extends TimeBasedProcessor {
@@ -27,50 +28,67 @@ public class WorkloadF extends TimeBasedProcessor {
   // operation)
   private static final long DEFAULT_OPS_PER_TX = 1;
   private final DistributedTransactionManager manager;
-  private final int recordCount;
+  private final YcsbTable table;
+  private final KeyChooser keyChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
   private final int opsPerTx;
-  private final int payloadSize;
+  private final PayloadPool payloadPool;
+  private final ThreadLocal<long[]> userIdBuffer;
+  private final ThreadLocal<String[]> payloadBuffer;
 
   private final LongAdder transactionRetryCount = new LongAdder();
 
   public WorkloadF(Config config) {
     super(config);
     this.manager = Common.getTransactionManager(config);
-    this.recordCount = getRecordCount(config);
+    this.table = YcsbTable.of(config);
+    this.keyChooser = getKeyChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
     this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
-    this.payloadSize = getPayloadSize(config);
+    this.payloadPool = getPayloadPool(config);
+    this.userIdBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    this.payloadBuffer = ThreadLocal.withInitial(() -> new String[opsPerTx]);
   }
 
   @Override
   public void executeEach() throws TransactionException {
-    List<Integer> userIds = new ArrayList<>(opsPerTx);
-    List<String> payloads = new ArrayList<>(opsPerTx);
-    char[] payload = new char[payloadSize];
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    long[] userIds = userIdBuffer.get();
+    String[] payloads = payloadBuffer.get();
     for (int i = 0; i < opsPerTx; ++i) {
-      userIds.add(ThreadLocalRandom.current().nextInt(recordCount));
-
-      YcsbCommon.randomFastChars(ThreadLocalRandom.current(), payload);
-      payloads.add(new String(payload));
+      userIds[i] = keyChooser.nextKey();
+      payloads[i] = payloadPool.next();
     }
 
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
     while (true) {
       DistributedTransaction transaction = manager.start();
       try {
-        for (int i = 0; i < userIds.size(); i++) {
-          int userId = userIds.get(i);
-          transaction.get(prepareGet(userId));
-          transaction.put(preparePut(userId, payloads.get(i)));
+        for (int i = 0; i < opsPerTx; i++) {
+          long userId = userIds[i];
+          transaction.get(table.prepareGet(userId));
+          transaction.put(table.preparePut(userId, payloads[i]));
         }
         transaction.commit();
         break;
       } catch (CrudConflictException | CommitConflictException e) {
         transaction.abort();
         transactionRetryCount.increment();
+        retryCount++;
       } catch (Exception e) {
         transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
         throw e;
       }
     }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
   }
 
   @Override
@@ -81,9 +99,13 @@ public class WorkloadF extends TimeBasedProcessor {
       logWarn("Failed to close the transaction manager", e);
     }
 
-    setState(
+    JsonObjectBuilder state =
         Json.createObjectBuilder()
-            .add("transaction-retry-count", transactionRetryCount.toString())
-            .build());
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
   }
 }
@@ -1,31 +1,65 @@
 package com.scalar.db.benchmarks.ycsb;
 
-import com.scalar.db.api.Consistency;
-import com.scalar.db.api.Get;
 import com.scalar.db.api.Put;
-import com.scalar.db.io.Key;
-import com.scalar.db.io.TextColumn;
+import com.scalar.db.api.TransactionState;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LoadCheckpoint;
+import com.scalar.db.transaction.consensuscommit.Attribute;
 import com.scalar.kelpie.config.Config;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
 
 public class YcsbCommon {
   static final long DEFAULT_LOAD_CONCURRENCY = 1;
   static final long DEFAULT_LOAD_BATCH_SIZE = 1;
   static final long DEFAULT_RECORD_COUNT = 1000;
   static final long DEFAULT_PAYLOAD_SIZE = 1000;
+  static final long DEFAULT_PAYLOAD_POOL_SIZE = 1024;
+  static final long DEFAULT_BUCKET_SIZE = 1000;
+  static final long DEFAULT_MAX_SCAN_LENGTH = 100;
+  static final long DEFAULT_INSERT_BLOCK_SIZE = 10;
+  static final String DEFAULT_CHECKPOINT_FILE = "ycsb-load.checkpoint";
+  // the maximum number of checkpoint units, which keeps the checkpoint within 128 KiB
+  static final long MAX_LOAD_UNITS = 1 << 20;
   static final String NAMESPACE = "ycsb";
   static final String NAMESPACE_PRIMARY = "ycsb_primary"; // for multi-storage mode
   static final String NAMESPACE_SECONDARY = "ycsb_secondary"; // for multi-storage mode
   static final String TABLE = "usertable";
+  static final String CLUSTERED_TABLE = "clustered_usertable";
+  static final String YCSB_BUCKET = "ycsb_bucket";
   static final String YCSB_KEY = "ycsb_key";
   static final String PAYLOAD = "payload";
   static final String CONFIG_NAME = "ycsb_config";
   static final String LOAD_CONCURRENCY = "load_concurrency";
   static final String LOAD_BATCH_SIZE = "load_batch_size";
   static final String LOAD_OVERWRITE = "load_overwrite";
+  static final String LOAD_MODE = "load_mode";
+  static final String LOAD_START_KEY = "load_start_key";
+  static final String LOAD_END_KEY = "load_end_key";
+  static final String LOADER_INDEX = "loader_index";
+  static final String LOADER_COUNT = "loader_count";
   static final String RECORD_COUNT = "record_count";
   static final String PAYLOAD_SIZE = "payload_size";
+  static final String PAYLOAD_POOL_SIZE = "payload_pool_size";
   static final String OPS_PER_TX = "ops_per_tx";
+  static final String USE_READ_MODIFY_WRITE = "use_read_modify_write";
+  static final String USE_CLUSTERED_TABLE = "use_clustered_table";
+  static final String USE_BIGINT_KEY = "use_bigint_key";
+  static final String BUCKET_SIZE = "bucket_size";
+  static final String MAX_SCAN_LENGTH = "max_scan_length";
+  static final String SCAN_LENGTH_DISTRIBUTION = "scan_length_distribution";
+  static final String INSERT_PROPORTION = "insert_proportion";
+  static final String INSERT_BLOCK_SIZE = "insert_block_size";
+  static final String REQUEST_DISTRIBUTION = "request_distribution";
+  static final String ZIPFIAN_CONSTANT = "zipfian_constant";
+  static final String HOTSPOT_DATA_FRACTION = "hotspot_data_fraction";
+  static final String HOTSPOT_OPN_FRACTION = "hotspot_opn_fraction";
+  static final String DEFAULT_REQUEST_DISTRIBUTION = "uniform";
+  static final String LOAD_MODE_TRANSACTION = "transaction";
+  static final String LOAD_MODE_STORAGE = "storage";
+  static final double DEFAULT_HOTSPOT_DATA_FRACTION = 0.2;
+  static final double DEFAULT_HOTSPOT_OPN_FRACTION = 0.8;
   private static final int CHAR_START = 32; // [space]
   private static final int CHAR_STOP = 126; // [~]
   private static final char[] CHAR_SYMBOLS = new char[1 + CHAR_STOP - CHAR_START];
@@ -49,61 +83,265 @@ public class YcsbCommon {
     658099827, // 10011
   };
 
-  public static Get prepareGet(int key) {
-    return prepareGet(NAMESPACE, TABLE, key);
+  /**
+   * Returns a copy of the specified {@code Put} with the Consensus Commit metadata of a committed
+   * record.
+   *
+   * @param put a {@code Put} object
+   * @param transactionId a transaction ID written to the metadata
+   * @param timestamp a prepared and committed time written to the metadata
+   * @return a {@code Put} object
+   */
+  public static Put withCommittedMetadata(Put put, String transactionId, long timestamp) {
+    return Put.newBuilder(put)
+        .textValue(Attribute.ID, transactionId)
+        .intValue(Attribute.STATE, TransactionState.COMMITTED.get())
+        .intValue(Attribute.VERSION, 1)
+        .bigIntValue(Attribute.PREPARED_AT, timestamp)
+        .bigIntValue(Attribute.COMMITTED_AT, timestamp)
+        .build();
   }
 
-  public static Get prepareGet(String namespace, int key) {
-    return prepareGet(namespace, TABLE, key);
+  public static int getLoadConcurrency(Config config) {
+    return (int) config.getUserLong(CONFIG_NAME, LOAD_CONCURRENCY, DEFAULT_LOAD_CONCURRENCY);
   }
 
-  public static Get prepareGet(String namespace, String table, int key) {
-    return Get.newBuilder()
-        .namespace(namespace)
-        .table(table)
-        .partitionKey(Key.ofInt(YCSB_KEY, key))
-        .consistency(Consistency.LINEARIZABLE)
-        .build();
+  public static int getLoadBatchSize(Config config) {
+    return (int) config.getUserLong(CONFIG_NAME, LOAD_BATCH_SIZE, DEFAULT_LOAD_BATCH_SIZE);
   }
 
-  public static Put preparePut(int key, String payload) {
-    return preparePut(NAMESPACE, TABLE, key, payload);
+  public static boolean getLoadOverwrite(Config config) {
+    return config.getUserBoolean(CONFIG_NAME, LOAD_OVERWRITE, false);
   }
 
-  public static Put preparePut(String namespace, int key, String payload) {
-    return preparePut(namespace, TABLE, key, payload);
+  /**
+   * Returns whether the records are loaded with the storage API instead of transactions, i.e.,
+   * "load_mode" is "storage".
+   *
+   * @param config a {@code Config} object
+   * @return true if the records are loaded with the storage API
+   */
+  public static boolean isStorageLoadMode(Config config) {
+    String mode = config.getUserString(CONFIG_NAME, LOAD_MODE, LOAD_MODE_TRANSACTION);
+    switch (mode.toLowerCase()) {
+      case LOAD_MODE_TRANSACTION:
+        return false;
+      case LOAD_MODE_STORAGE:
+        return true;
+      default:
+        throw new IllegalArgumentException(
+            LOAD_MODE + " must be " + LOAD_MODE_TRANSACTION + " or " + LOAD_MODE_STORAGE);
+    }
   }
 
-  public static Put preparePut(String namespace, String table, int key, String payload) {
-    return Put.newBuilder()
-        .namespace(namespace)
-        .table(table)
-        .partitionKey(Key.ofInt(YCSB_KEY, key))
-        .value(TextColumn.of(PAYLOAD, payload))
-        .consistency(Consistency.LINEARIZABLE)
-        .build();
+  public static long getRecordCount(Config config) {
+    return config.getUserLong(CONFIG_NAME, RECORD_COUNT, DEFAULT_RECORD_COUNT);
   }
 
-  public static int getLoadConcurrency(Config config) {
-    return (int) config.getUserLong(CONFIG_NAME, LOAD_CONCURRENCY, DEFAULT_LOAD_CONCURRENCY);
+  /**
+   * Returns the range of the keys that this loader loads. The range is {@code [load_start_key,
+   * load_end_key)} if they are specified, or the "loader_index"-th of "loader_count" slices of
+   * {@code [0, record_count)} if "loader_count" is specified, so that multiple loaders on different
+   * hosts can load disjoint slices in parallel. Otherwise, the range is {@code [0, record_count)}.
+   *
+   * @param config a {@code Config} object
+   * @return an array of the start key (inclusive) and the end key (exclusive)
+   */
+  public static long[] getLoadKeyRange(Config config) {
+    long recordCount = getRecordCount(config);
+    boolean byKey =
+        config.hasUserValue(CONFIG_NAME, LOAD_START_KEY)
+            || config.hasUserValue(CONFIG_NAME, LOAD_END_KEY);
+    if (byKey && config.hasUserValue(CONFIG_NAME, LOADER_COUNT)) {
+      throw new IllegalArgumentException(
+          LOAD_START_KEY
+              + " and "
+              + LOAD_END_KEY
+              + " cannot be specified with "
+              + LOADER_COUNT
+              + " simultaneously");
+    }
+
+    long start = 0;
+    long end = recordCount;
+    if (byKey) {
+      start = config.getUserLong(CONFIG_NAME, LOAD_START_KEY, 0L);
+      end = config.getUserLong(CONFIG_NAME, LOAD_END_KEY, recordCount);
+    } else if (config.hasUserValue(CONFIG_NAME, LOADER_COUNT)) {
+      long count = config.getUserLong(CONFIG_NAME, LOADER_COUNT);
+      long index = config.getUserLong(CONFIG_NAME, LOADER_INDEX, 0L);
+      if (count < 1 || index < 0 || index >= count) {
+        throw new IllegalArgumentException(
+            LOADER_INDEX + " must be in [0, " + LOADER_COUNT + ") and " + LOADER_COUNT + " > 0");
+      }
+      start = getSliceStart(recordCount, index, count);
+      end = getSliceStart(recordCount, index + 1, count);
+    }
+    if (start < 0 || start > end || end > recordCount) {
+      throw new IllegalArgumentException(
+          "the key range to load must be in [0, " + RECORD_COUNT + "): " + start + ", " + end);
+    }
+    return new long[] {start, end};
   }
 
-  public static int getLoadBatchSize(Config config) {
-    return (int) config.getUserLong(CONFIG_NAME, LOAD_BATCH_SIZE, DEFAULT_LOAD_BATCH_SIZE);
+  // the first slices get one more key if the keys can't be divided evenly, without overflowing
+  private static long getSliceStart(long recordCount, long index, long count) {
+    return index * (recordCount / count) + Math.min(index, recordCount % count);
   }
 
-  public static boolean getLoadOverwrite(Config config) {
-    return config.getUserBoolean(CONFIG_NAME, LOAD_OVERWRITE, false);
+  /**
+   * Returns the number of the keys in a checkpoint unit of loading. A unit is a batch of
+   * "load_batch_size" keys, or multiple batches if the key range has too many batches.
+   *
+   * @param config a {@code Config} object
+   * @return the number of the keys in a unit
+   */
+  public static long getLoadUnitSize(Config config) {
+    long[] range = getLoadKeyRange(config);
+    long batchSize = getLoadBatchSize(config);
+    long batches = (range[1] - range[0] + batchSize - 1) / batchSize;
+    return batchSize * Math.max(1, (batches + MAX_LOAD_UNITS - 1) / MAX_LOAD_UNITS);
   }
 
-  public static int getRecordCount(Config config) {
-    return (int) config.getUserLong(CONFIG_NAME, RECORD_COUNT, DEFAULT_RECORD_COUNT);
+  /**
+   * Returns a {@code LoadCheckpoint} of the units of the key range to load. With "resume = true",
+   * the units loaded by the previous load of the same key range are restored.
+   *
+   * @param config a {@code Config} object
+   * @param loader a name of the loader, which distinguishes the checkpoints of the loaders
+   * @return a {@code LoadCheckpoint} object
+   */
+  public static LoadCheckpoint getLoadCheckpoint(Config config, String loader) {
+    long[] range = getLoadKeyRange(config);
+    long unitSize = getLoadUnitSize(config);
+    int unitCount = (int) ((range[1] - range[0] + unitSize - 1) / unitSize);
+    String fingerprint =
+        String.format("ycsb %s [%d, %d) %d", loader, range[0], range[1], unitSize);
+    return LoadCheckpoint.create(
+        config, CONFIG_NAME, DEFAULT_CHECKPOINT_FILE, unitCount, fingerprint);
   }
 
   public static int getPayloadSize(Config config) {
     return (int) config.getUserLong(CONFIG_NAME, PAYLOAD_SIZE, DEFAULT_PAYLOAD_SIZE);
   }
 
+  /**
+   * Returns a {@code PayloadPool} with the payloads of "payload_size" characters. The returned
+   * object can be shared by all the worker threads.
+   *
+   * @param config a {@code Config} object
+   * @return a {@code PayloadPool} object
+   */
+  public static PayloadPool getPayloadPool(Config config) {
+    int poolSize =
+        (int) config.getUserLong(CONFIG_NAME, PAYLOAD_POOL_SIZE, DEFAULT_PAYLOAD_POOL_SIZE);
+    return new PayloadPool(poolSize, getPayloadSize(config));
+  }
+
+  /**
+   * Returns a {@code KeyChooser} for the distribution specified with "request_distribution". The
+   * returned object can be shared by all the worker threads.
+   *
+   * @param config a {@code Config} object
+   * @return a {@code KeyChooser} object
+   */
+  public static KeyChooser getKeyChooser(Config config) {
+    return getKeyChooser(config, DEFAULT_REQUEST_DISTRIBUTION);
+  }
+
+  /**
+   * Returns a {@code KeyChooser} for the distribution specified with "request_distribution", or
+   * for the specified default distribution if it's not specified.
+   *
+   * @param config a {@code Config} object
+   * @param defaultDistribution a distribution used if "request_distribution" is not specified
+   * @return a {@code KeyChooser} object
+   */
+  public static KeyChooser getKeyChooser(Config config, String defaultDistribution) {
+    return getKeyChooser(config, defaultDistribution, getKeyAllocator(config));
+  }
+
+  /**
+   * Returns a {@code KeyChooser} like {@link #getKeyChooser(Config, String)}. The "latest"
+   * distribution follows the highest key acknowledged by the specified {@code KeyAllocator}.
+   *
+   * @param config a {@code Config} object
+   * @param defaultDistribution a distribution used if "request_distribution" is not specified
+   * @param allocator a {@code KeyAllocator} of the inserts of the workload
+   * @return a {@code KeyChooser} object
+   */
+  public static KeyChooser getKeyChooser(
+      Config config, String defaultDistribution, KeyAllocator allocator) {
+    long recordCount = getRecordCount(config);
+    String distribution =
+        config.getUserString(CONFIG_NAME, REQUEST_DISTRIBUTION, defaultDistribution);
+    switch (distribution.toLowerCase()) {
+      case "uniform":
+        return new UniformKeyChooser(recordCount);
+      case "zipfian":
+        return new ScrambledZipfianKeyChooser(recordCount, getZipfianConstant(config));
+      case "hotspot":
+        return new HotspotKeyChooser(
+            recordCount,
+            Common.getUserDouble(
+                config, CONFIG_NAME, HOTSPOT_DATA_FRACTION, DEFAULT_HOTSPOT_DATA_FRACTION),
+            Common.getUserDouble(
+                config, CONFIG_NAME, HOTSPOT_OPN_FRACTION, DEFAULT_HOTSPOT_OPN_FRACTION));
+      case "latest":
+        return new LatestKeyChooser(recordCount, getZipfianConstant(config), allocator);
+      default:
+        throw new IllegalArgumentException(
+            REQUEST_DISTRIBUTION
+                + " must be uniform, zipfian, hotspot, or latest: "
+                + distribution);
+    }
+  }
+
+  /**
+   * Returns a {@code KeyAllocator} for the inserts after the loaded records. The returned object
+   * can be shared by all the worker threads.
+   *
+   * @param config a {@code Config} object
+   * @return a {@code KeyAllocator} object
+   */
+  public static KeyAllocator getKeyAllocator(Config config) {
+    return new KeyAllocator(
+        getRecordCount(config),
+        (int) config.getUserLong(CONFIG_NAME, INSERT_BLOCK_SIZE, DEFAULT_INSERT_BLOCK_SIZE));
+  }
+
+  /**
+   * Returns a supplier of scan lengths in {@code [1, max_scan_length]} following the distribution
+   * specified with "scan_length_distribution": "uniform" or "zipfian". With "zipfian", shorter
+   * scans are more frequent. The returned object can be shared by all the worker threads.
+   *
+   * @param config a {@code Config} object
+   * @return an {@code IntSupplier} of scan lengths
+   */
+  public static IntSupplier getScanLengthChooser(Config config) {
+    int maxScanLength =
+        (int) config.getUserLong(CONFIG_NAME, MAX_SCAN_LENGTH, DEFAULT_MAX_SCAN_LENGTH);
+    if (maxScanLength < 1) {
+      throw new IllegalArgumentException(MAX_SCAN_LENGTH + " must be positive");
+    }
+    String distribution = config.getUserString(CONFIG_NAME, SCAN_LENGTH_DISTRIBUTION, "uniform");
+    switch (distribution.toLowerCase()) {
+      case "uniform":
+        return () -> ThreadLocalRandom.current().nextInt(maxScanLength) + 1;
+      case "zipfian":
+        ZipfianGenerator zipfian = new ZipfianGenerator(maxScanLength, getZipfianConstant(config));
+        return () -> (int) zipfian.nextRank() + 1;
+      default:
+        throw new IllegalArgumentException(
+            SCAN_LENGTH_DISTRIBUTION + " must be uniform or zipfian: " + distribution);
+    }
+  }
+
+  public static double getZipfianConstant(Config config) {
+    return Common.getUserDouble(
+        config, CONFIG_NAME, ZIPFIAN_CONSTANT, ZipfianGenerator.DEFAULT_ZIPFIAN_CONSTANT);
+  }
+
   // This method is taken from benchbase.
   // https://github.com/cmu-db/benchbase/blob/bbe8c1db84ec81c6cdec6fbeca27b24b1b4e6612/src/main/java/com/oltpbenchmark/util/TextGenerator.java#L80
   public static char[] randomFastChars(Random rng, char[] chars) {
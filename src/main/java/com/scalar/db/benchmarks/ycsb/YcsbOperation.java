@@ -0,0 +1,20 @@
+package com.scalar.db.benchmarks.ycsb;
+
+/** The operations of {@link YcsbWorkload} and the names of their proportion parameters. */
+public enum YcsbOperation {
+  READ("read_proportion"),
+  UPDATE("update_proportion"),
+  INSERT("insert_proportion"),
+  SCAN("scan_proportion"),
+  READ_MODIFY_WRITE("rmw_proportion");
+
+  private final String proportionName;
+
+  YcsbOperation(String proportionName) {
+    this.proportionName = proportionName;
+  }
+
+  public String getProportionName() {
+    return proportionName;
+  }
+}
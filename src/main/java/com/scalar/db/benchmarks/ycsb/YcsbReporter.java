@@ -1,5 +1,10 @@
 package com.scalar.db.benchmarks.ycsb;
 
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
 import com.scalar.kelpie.config.Config;
 import com.scalar.kelpie.modules.PostProcessor;
 import com.scalar.kelpie.stats.Stats;
@@ -47,6 +52,29 @@ public class YcsbReporter extends PostProcessor {
             + " ms\n"
             + "Transaction retry count: "
             + getPreviousState().getString("transaction-retry-count"));
+    if (ArrivalScheduler.ranOpenLoop(getPreviousState())) {
+      logInfo(ArrivalScheduler.PACED_LATENCY_NOTE);
+    }
+    String latencySummary = LatencyRecorder.summarize(getPreviousState());
+    if (!latencySummary.isEmpty()) {
+      logInfo(latencySummary);
+    }
+    String phaseSummary = InstrumentedTransactionManager.summarize(getPreviousState());
+    if (!phaseSummary.isEmpty()) {
+      logInfo(phaseSummary);
+    }
+    String hotspotSummary = ConflictProfiler.summarize(getPreviousState());
+    if (!hotspotSummary.isEmpty()) {
+      logInfo(hotspotSummary);
+    }
+    String clientSummary = AllocationMeter.summarize(getPreviousState());
+    if (!clientSummary.isEmpty()) {
+      logInfo(clientSummary);
+    }
+    String openLoopSummary = ArrivalScheduler.summarize(getPreviousState());
+    if (!openLoopSummary.isEmpty()) {
+      logInfo(openLoopSummary);
+    }
   }
 
   @Override
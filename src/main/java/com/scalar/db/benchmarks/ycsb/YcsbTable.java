@@ -0,0 +1,193 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.BUCKET_SIZE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CLUSTERED_TABLE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.DEFAULT_BUCKET_SIZE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.NAMESPACE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.PAYLOAD;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.RECORD_COUNT;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.TABLE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.USE_BIGINT_KEY;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.USE_CLUSTERED_TABLE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.YCSB_BUCKET;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.YCSB_KEY;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getRecordCount;
+
+import com.scalar.db.api.Consistency;
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.Get;
+import com.scalar.db.api.Put;
+import com.scalar.db.api.Scan;
+import com.scalar.db.exception.transaction.CrudException;
+import com.scalar.db.io.Key;
+import com.scalar.db.io.TextColumn;
+import com.scalar.kelpie.config.Config;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The usertable accessed by the YCSB workloads.
+ *
+ * <p>By default, each record is a partition of "usertable". If "use_clustered_table" is true, the
+ * records are stored in "clustered_usertable" created with ycsb-clustered-schema.json, where every
+ * "bucket_size" consecutive records share a partition and are ordered by the key, so that a range
+ * of records can be read with a scan.
+ *
+ * <p>Keys are handled as {@code long} values. They are stored as INT columns by default, and as
+ * BIGINT columns if "use_bigint_key" is true, which is required for more than 2^31 records.
+ */
+@ThreadSafe
+public class YcsbTable {
+  private final String namespace;
+  private final boolean clustered;
+  private final int bucketSize;
+  private final boolean bigIntKey;
+
+  private YcsbTable(String namespace, boolean clustered, int bucketSize, boolean bigIntKey) {
+    if (bucketSize < 1) {
+      throw new IllegalArgumentException(BUCKET_SIZE + " must be positive");
+    }
+    this.namespace = namespace;
+    this.clustered = clustered;
+    this.bucketSize = bucketSize;
+    this.bigIntKey = bigIntKey;
+  }
+
+  /**
+   * Returns the usertable in the "ycsb" namespace.
+   *
+   * @param config a {@code Config} object
+   * @return a {@code YcsbTable} object
+   */
+  public static YcsbTable of(Config config) {
+    return of(config, NAMESPACE);
+  }
+
+  /**
+   * Returns the usertable in the specified namespace. The table and its keys are configured with
+   * "use_clustered_table", "bucket_size", and "use_bigint_key".
+   *
+   * @param config a {@code Config} object
+   * @param namespace a namespace of the table
+   * @return a {@code YcsbTable} object
+   */
+  public static YcsbTable of(Config config, String namespace) {
+    boolean bigIntKey = config.getUserBoolean(CONFIG_NAME, USE_BIGINT_KEY, false);
+    if (!bigIntKey && getRecordCount(config) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          RECORD_COUNT + " exceeds the range of INT keys. Set " + USE_BIGINT_KEY + " to true");
+    }
+    return new YcsbTable(
+        namespace,
+        config.getUserBoolean(CONFIG_NAME, USE_CLUSTERED_TABLE, false),
+        (int) config.getUserLong(CONFIG_NAME, BUCKET_SIZE, DEFAULT_BUCKET_SIZE),
+        bigIntKey);
+  }
+
+  public boolean isClustered() {
+    return clustered;
+  }
+
+  public Get prepareGet(long key) {
+    if (!clustered) {
+      return Get.newBuilder()
+          .namespace(namespace)
+          .table(TABLE)
+          .partitionKey(toKey(YCSB_KEY, key))
+          .consistency(Consistency.LINEARIZABLE)
+          .build();
+    }
+    return Get.newBuilder()
+        .namespace(namespace)
+        .table(CLUSTERED_TABLE)
+        .partitionKey(getBucketKey(key))
+        .clusteringKey(toKey(YCSB_KEY, key))
+        .consistency(Consistency.LINEARIZABLE)
+        .build();
+  }
+
+  public Put preparePut(long key, String payload) {
+    if (!clustered) {
+      return Put.newBuilder()
+          .namespace(namespace)
+          .table(TABLE)
+          .partitionKey(toKey(YCSB_KEY, key))
+          .value(TextColumn.of(PAYLOAD, payload))
+          .consistency(Consistency.LINEARIZABLE)
+          .build();
+    }
+    return Put.newBuilder()
+        .namespace(namespace)
+        .table(CLUSTERED_TABLE)
+        .partitionKey(getBucketKey(key))
+        .clusteringKey(toKey(YCSB_KEY, key))
+        .value(TextColumn.of(PAYLOAD, payload))
+        .consistency(Consistency.LINEARIZABLE)
+        .build();
+  }
+
+  /**
+   * Prepares a {@code Put} for the storage API that writes a record as if it had been committed by
+   * a Consensus Commit transaction. Transactions read the record without lazy recovery since its
+   * transaction metadata says it is committed.
+   *
+   * @param key a key of the record
+   * @param payload a payload of the record
+   * @param transactionId a transaction ID written to the metadata
+   * @param timestamp a prepared and committed time written to the metadata
+   * @return a {@code Put} object
+   */
+  public Put prepareCommittedPut(long key, String payload, String transactionId, long timestamp) {
+    return YcsbCommon.withCommittedMetadata(preparePut(key, payload), transactionId, timestamp);
+  }
+
+  /**
+   * Reads the records whose keys are in {@code [startKey, startKey + length)}. A range over
+   * multiple buckets is read with a scan per bucket. If the table is not clustered, the records are
+   * read with a get per key.
+   *
+   * @param transaction a transaction
+   * @param startKey the first key of the range
+   * @param length the number of keys in the range
+   * @return the number of the records read
+   * @throws CrudException if a read fails
+   */
+  public int scan(DistributedTransaction transaction, long startKey, int length)
+      throws CrudException {
+    long endKey = startKey + length;
+    int count = 0;
+    if (!clustered) {
+      for (long key = startKey; key < endKey; key++) {
+        if (transaction.get(prepareGet(key)).isPresent()) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    long key = startKey;
+    while (key < endKey) {
+      long bucketEndKey = Math.min(endKey, (key / bucketSize + 1) * bucketSize);
+      Scan scan =
+          Scan.newBuilder()
+              .namespace(namespace)
+              .table(CLUSTERED_TABLE)
+              .partitionKey(getBucketKey(key))
+              .start(toKey(YCSB_KEY, key))
+              .end(toKey(YCSB_KEY, bucketEndKey - 1))
+              .consistency(Consistency.LINEARIZABLE)
+              .build();
+      count += transaction.scan(scan).size();
+      key = bucketEndKey;
+    }
+    return count;
+  }
+
+  private Key getBucketKey(long key) {
+    return toKey(YCSB_BUCKET, key / bucketSize);
+  }
+
+  private Key toKey(String name, long value) {
+    return bigIntKey ? Key.ofBigInt(name, value) : Key.ofInt(name, Math.toIntExact(value));
+  }
+}
@@ -0,0 +1,243 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.CONFIG_NAME;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.DEFAULT_REQUEST_DISTRIBUTION;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.OPS_PER_TX;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.USE_READ_MODIFY_WRITE;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyAllocator;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getKeyChooser;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getPayloadPool;
+import static com.scalar.db.benchmarks.ycsb.YcsbCommon.getScanLengthChooser;
+
+import com.scalar.db.api.DistributedTransaction;
+import com.scalar.db.api.DistributedTransactionManager;
+import com.scalar.db.benchmarks.AllocationMeter;
+import com.scalar.db.benchmarks.ArrivalScheduler;
+import com.scalar.db.benchmarks.Common;
+import com.scalar.db.benchmarks.LatencyRecorder;
+import com.scalar.db.benchmarks.instrumentation.ConflictProfiler;
+import com.scalar.db.benchmarks.instrumentation.InstrumentedTransactionManager;
+import com.scalar.db.exception.transaction.CommitConflictException;
+import com.scalar.db.exception.transaction.CrudConflictException;
+import com.scalar.db.exception.transaction.TransactionException;
+import com.scalar.kelpie.config.Config;
+import com.scalar.kelpie.modules.TimeBasedProcessor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * A YCSB workload with a configurable mix of operations. Each operation in a transaction is chosen
+ * with the probabilities given by "read_proportion", "update_proportion", "insert_proportion",
+ * "scan_proportion", and "rmw_proportion". "workload_preset" sets the proportions of the standard
+ * YCSB Workloads A to F, and the proportions specified explicitly override them.
+ *
+ * <p>A scan reads a range of records starting from a chosen key. It's executed with scans if the
+ * usertable is clustered, and with gets otherwise. An insert writes a new key beyond
+ * "record_count", and the "latest" distribution follows the committed inserts.
+ */
+public class YcsbWorkload extends TimeBasedProcessor {
+  private static final long DEFAULT_OPS_PER_TX = 2;
+  private static final String WORKLOAD_PRESET = "workload_preset";
+  private static final YcsbOperation[] OPERATIONS = YcsbOperation.values();
+  private final DistributedTransactionManager manager;
+  private final YcsbTable table;
+  private final KeyAllocator keyAllocator;
+  private final KeyChooser keyChooser;
+  private final IntSupplier scanLengthChooser;
+  private final ArrivalScheduler scheduler;
+  private final LatencyRecorder latencyRecorder;
+  private final AllocationMeter allocationMeter = new AllocationMeter();
+  private final String operationType = getClass().getSimpleName();
+  private final AliasTable operationTable;
+  private final int opsPerTx;
+  private final boolean useReadModifyWrite;
+  private final PayloadPool payloadPool;
+  private final ThreadLocal<YcsbOperation[]> operationBuffer;
+  private final ThreadLocal<long[]> keyBuffer;
+  private final ThreadLocal<int[]> scanLengthBuffer;
+  private final ThreadLocal<String[]> payloadBuffer;
+
+  private final LongAdder transactionRetryCount = new LongAdder();
+
+  public YcsbWorkload(Config config) {
+    super(config);
+    String preset = config.getUserString(CONFIG_NAME, WORKLOAD_PRESET, "").toUpperCase();
+    double[] proportions = getPresetProportions(preset);
+    for (YcsbOperation operation : OPERATIONS) {
+      proportions[operation.ordinal()] =
+          Common.getUserDouble(
+              config,
+              CONFIG_NAME,
+              operation.getProportionName(),
+              proportions[operation.ordinal()]);
+    }
+
+    this.manager = Common.getTransactionManager(config);
+    this.table = YcsbTable.of(config);
+    this.keyAllocator = getKeyAllocator(config);
+    // Workload D reads the latest records by definition
+    this.keyChooser =
+        getKeyChooser(
+            config, preset.equals("D") ? "latest" : DEFAULT_REQUEST_DISTRIBUTION, keyAllocator);
+    this.scanLengthChooser = getScanLengthChooser(config);
+    this.scheduler = ArrivalScheduler.create(config, CONFIG_NAME);
+    this.latencyRecorder = new LatencyRecorder(config);
+    this.operationTable = new AliasTable(proportions);
+    this.opsPerTx = (int) config.getUserLong(CONFIG_NAME, OPS_PER_TX, DEFAULT_OPS_PER_TX);
+    this.useReadModifyWrite = config.getUserBoolean(CONFIG_NAME, USE_READ_MODIFY_WRITE, false);
+    this.payloadPool = getPayloadPool(config);
+    this.operationBuffer = ThreadLocal.withInitial(() -> new YcsbOperation[opsPerTx]);
+    this.keyBuffer = ThreadLocal.withInitial(() -> new long[opsPerTx]);
+    this.scanLengthBuffer = ThreadLocal.withInitial(() -> new int[opsPerTx]);
+    this.payloadBuffer = ThreadLocal.withInitial(() -> new String[opsPerTx]);
+  }
+
+  @Override
+  public void executeEach() throws TransactionException {
+    long startNanos = scheduler.awaitArrival();
+    allocationMeter.begin();
+    YcsbOperation[] operations = operationBuffer.get();
+    long[] keys = keyBuffer.get();
+    int[] scanLengths = scanLengthBuffer.get();
+    String[] payloads = payloadBuffer.get();
+    for (int i = 0; i < opsPerTx; ++i) {
+      YcsbOperation operation = OPERATIONS[operationTable.next()];
+      operations[i] = operation;
+      switch (operation) {
+        case INSERT:
+          keys[i] = keyAllocator.allocate();
+          payloads[i] = payloadPool.next();
+          break;
+        case UPDATE:
+        case READ_MODIFY_WRITE:
+          keys[i] = keyChooser.nextKey();
+          payloads[i] = payloadPool.next();
+          break;
+        case SCAN:
+          keys[i] = keyChooser.nextKey();
+          scanLengths[i] = scanLengthChooser.getAsInt();
+          break;
+        default:
+          keys[i] = keyChooser.nextKey();
+      }
+    }
+
+    ConflictProfiler.setTransactionType(operationType);
+    int retryCount = 0;
+    while (true) {
+      DistributedTransaction transaction = manager.start();
+      try {
+        for (int i = 0; i < opsPerTx; ++i) {
+          execute(transaction, operations[i], keys[i], scanLengths[i], payloads[i]);
+        }
+        transaction.commit();
+        for (int i = 0; i < opsPerTx; ++i) {
+          if (operations[i] == YcsbOperation.INSERT) {
+            keyAllocator.acknowledge(keys[i]);
+          }
+        }
+        break;
+      } catch (CrudConflictException | CommitConflictException e) {
+        transaction.abort();
+        transactionRetryCount.increment();
+        retryCount++;
+      } catch (Exception e) {
+        transaction.abort();
+        latencyRecorder.recordFailure(operationType, startNanos, retryCount);
+        throw e;
+      }
+    }
+    allocationMeter.end();
+    latencyRecorder.record(operationType, startNanos, retryCount);
+  }
+
+  @Override
+  public void close() {
+    try {
+      manager.close();
+    } catch (Exception e) {
+      logWarn("Failed to close the transaction manager", e);
+    }
+
+    JsonObjectBuilder state =
+        Json.createObjectBuilder()
+            .add("transaction-retry-count", transactionRetryCount.toString());
+    scheduler.addStatesTo(state);
+    latencyRecorder.addStatesTo(state);
+    allocationMeter.addStatesTo(state);
+    InstrumentedTransactionManager.addStatesTo(manager, state);
+    setState(state.build());
+  }
+
+  private void execute(
+      DistributedTransaction transaction,
+      YcsbOperation operation,
+      long key,
+      int scanLength,
+      String payload)
+      throws TransactionException {
+    switch (operation) {
+      case READ:
+        transaction.get(table.prepareGet(key));
+        break;
+      case UPDATE:
+        if (useReadModifyWrite) {
+          transaction.get(table.prepareGet(key));
+        }
+        transaction.put(table.preparePut(key, payload));
+        break;
+      case INSERT:
+        transaction.put(table.preparePut(key, payload));
+        break;
+      case SCAN:
+        table.scan(transaction, key, scanLength);
+        break;
+      case READ_MODIFY_WRITE:
+        transaction.get(table.prepareGet(key));
+        transaction.put(table.preparePut(key, payload));
+        break;
+      default:
+        throw new AssertionError("unknown operation: " + operation);
+    }
+  }
+
+  /**
+   * Returns the proportions of the operations of the specified standard YCSB workload, indexed by
+   * the ordinals of {@link YcsbOperation}.
+   */
+  private static double[] getPresetProportions(String preset) {
+    double[] proportions = new double[OPERATIONS.length];
+    switch (preset) {
+      case "":
+        break;
+      case "A":
+        proportions[YcsbOperation.READ.ordinal()] = 0.5;
+        proportions[YcsbOperation.UPDATE.ordinal()] = 0.5;
+        break;
+      case "B":
+        proportions[YcsbOperation.READ.ordinal()] = 0.95;
+        proportions[YcsbOperation.UPDATE.ordinal()] = 0.05;
+        break;
+      case "C":
+        proportions[YcsbOperation.READ.ordinal()] = 1.0;
+        break;
+      case "D":
+        proportions[YcsbOperation.READ.ordinal()] = 0.95;
+        proportions[YcsbOperation.INSERT.ordinal()] = 0.05;
+        break;
+      case "E":
+        proportions[YcsbOperation.SCAN.ordinal()] = 0.95;
+        proportions[YcsbOperation.INSERT.ordinal()] = 0.05;
+        break;
+      case "F":
+        proportions[YcsbOperation.READ.ordinal()] = 0.5;
+        proportions[YcsbOperation.READ_MODIFY_WRITE.ordinal()] = 0.5;
+        break;
+      default:
+        throw new IllegalArgumentException(WORKLOAD_PRESET + " must be one of A to F: " + preset);
+    }
+    return proportions;
+  }
+}
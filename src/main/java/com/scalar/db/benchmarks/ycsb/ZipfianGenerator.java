@@ -0,0 +1,81 @@
+package com.scalar.db.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Generates ranks in {@code [0, itemCount)} following a Zipfian distribution, where rank 0 is the
+ * most popular. The algorithm is the one described in "Quickly Generating Billion-Record Synthetic
+ * Databases" by Gray et al. and used by YCSB. All the parameters are computed in the constructor,
+ * so {@link #nextRank()} is lock-free and allocation-free.
+ */
+@ThreadSafe
+public class ZipfianGenerator {
+  public static final double DEFAULT_ZIPFIAN_CONSTANT = 0.99;
+  // zeta(n) is summed exactly up to this number of items and approximated by an integral above it
+  private static final long EXACT_ZETA_ITEMS = 10_000_000L;
+
+  private final long itemCount;
+  private final double theta;
+  private final double alpha;
+  private final double zetan;
+  private final double eta;
+  private final double halfPowTheta;
+
+  public ZipfianGenerator(long itemCount) {
+    this(itemCount, DEFAULT_ZIPFIAN_CONSTANT);
+  }
+
+  public ZipfianGenerator(long itemCount, double zipfianConstant) {
+    if (itemCount < 1) {
+      throw new IllegalArgumentException("the number of items must be positive");
+    }
+    if (zipfianConstant <= 0.0 || zipfianConstant >= 1.0) {
+      throw new IllegalArgumentException(
+          "the Zipfian constant must be in (0, 1): " + zipfianConstant);
+    }
+    this.itemCount = itemCount;
+    this.theta = zipfianConstant;
+    this.alpha = 1.0 / (1.0 - theta);
+    this.zetan = zeta(itemCount, theta);
+    double zeta2 = zeta(2, theta);
+    this.eta = (1 - Math.pow(2.0 / itemCount, 1 - theta)) / (1 - zeta2 / zetan);
+    this.halfPowTheta = 1.0 + Math.pow(0.5, theta);
+  }
+
+  /**
+   * Returns the next rank.
+   *
+   * @return a rank in {@code [0, itemCount)}
+   */
+  public long nextRank() {
+    double u = ThreadLocalRandom.current().nextDouble();
+    double uz = u * zetan;
+    if (uz < 1.0) {
+      return 0;
+    }
+    if (uz < halfPowTheta) {
+      return Math.min(1, itemCount - 1);
+    }
+    long rank = (long) (itemCount * Math.pow(eta * u - eta + 1, alpha));
+    return Math.min(rank, itemCount - 1);
+  }
+
+  public long getItemCount() {
+    return itemCount;
+  }
+
+  private static double zeta(long n, double theta) {
+    long exact = Math.min(n, EXACT_ZETA_ITEMS);
+    double sum = 0;
+    for (long i = 1; i <= exact; i++) {
+      sum += 1.0 / Math.pow(i, theta);
+    }
+    if (n > exact) {
+      // the sum of the remaining terms is close to the integral of x^-theta over [exact + 0.5,
+      // n + 0.5], which avoids iterating over billions of items
+      sum += (Math.pow(n + 0.5, 1 - theta) - Math.pow(exact + 0.5, 1 - theta)) / (1 - theta);
+    }
+    return sum;
+  }
+}